@@ -25,9 +25,11 @@
 package esi.acgt.atlj.client.connexionServer;
 
 import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.MessageCodec;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.net.SocketException;
@@ -35,7 +37,7 @@ import java.net.SocketException;
 
 /**
  * Contains all necessary methods to set up a client for a client-server architecture. When a client
- * is connected to the server he can exchange Object instances.
+ * is connected to the server he can exchange messages, encoded by a {@link MessageCodec}.
  */
 public abstract class AbstractClient implements Runnable {
 
@@ -54,11 +56,19 @@ public abstract class AbstractClient implements Runnable {
   /**
    * Output stream from clientSocket.
    */
-  private ObjectOutputStream output;
+  private OutputStream output;
   /**
    * Input stream from clientSocket.
    */
-  private ObjectInputStream input;
+  private InputStream input;
+  /**
+   * Codec of the messages sent to the server.
+   */
+  private final MessageCodec writer = new MessageCodec();
+  /**
+   * Codec of the messages received from the server.
+   */
+  private final MessageCodec reader = new MessageCodec();
   /**
    * Thread of client.
    */
@@ -93,14 +103,13 @@ public abstract class AbstractClient implements Runnable {
   /**
    * Sends information to the server.
    *
-   * @param information Object to send to server.
+   * @param information Message to send to server.
    */
-  protected void sendToServer(Object information) throws IOException {
+  protected synchronized void sendToServer(Message information) throws IOException {
     if (clientSocket == null) {
       throw new SocketException("Socket is null");
     }
-    output.reset();
-    output.writeObject(information);
+    writer.write(information, output);
     output.flush();
   }
 
@@ -142,8 +151,8 @@ public abstract class AbstractClient implements Runnable {
     }
     try {
       clientSocket = new Socket(this.host, this.port);
-      output = new ObjectOutputStream(clientSocket.getOutputStream());
-      input = new ObjectInputStream(clientSocket.getInputStream());
+      output = clientSocket.getOutputStream();
+      input = new BufferedInputStream(clientSocket.getInputStream());
       clientThread = new Thread(this);
       this.isActive = true;
       clientThread.start();
@@ -187,11 +196,11 @@ public abstract class AbstractClient implements Runnable {
     try {
       while (isActive) {
         try {
-          information = (Message) input.readObject();
+          information = reader.read(input);
           if (isActive) {
             handleServerMessage(information);
           }
-        } catch (RuntimeException | ClassNotFoundException | SocketException ignored) {
+        } catch (RuntimeException | SocketException ignored) {
         }
       }
     } catch (Exception e) {
@@ -28,21 +28,24 @@ import esi.acgt.atlj.message.PlayerAction;
 import esi.acgt.atlj.message.PlayerStatus;
 import esi.acgt.atlj.message.messageTypes.AddTetrimino;
 import esi.acgt.atlj.message.messageTypes.AskPiece;
+import esi.acgt.atlj.message.messageTypes.BoardResync;
 import esi.acgt.atlj.message.messageTypes.LockedTetrimino;
 import esi.acgt.atlj.message.messageTypes.PlayerState;
 import esi.acgt.atlj.message.messageTypes.RemoveLine;
+import esi.acgt.atlj.message.messageTypes.ResyncRequest;
 import esi.acgt.atlj.message.messageTypes.SendAction;
 import esi.acgt.atlj.message.messageTypes.SendName;
 import esi.acgt.atlj.message.messageTypes.SendPiece;
 import esi.acgt.atlj.message.messageTypes.SendScore;
 import esi.acgt.atlj.message.messageTypes.SetHold;
 import esi.acgt.atlj.message.messageTypes.UpdatePieceUnmanagedBoard;
+import esi.acgt.atlj.model.game.LockHandler;
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 import java.io.IOException;
 import java.net.ConnectException;
-import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjLongConsumer;
 
 
 /**
@@ -70,11 +73,11 @@ public class Client extends AbstractClient implements ClientInterface {
   /**
    * Method used when removeLine message comes from server.
    */
-  private Consumer<List<Integer>> removeLine;
+  private IntConsumer removeLine;
   /**
    * Method used when addTetrimino message comes from server.
    */
-  private Consumer<TetriminoInterface> addTetrimino;
+  private IntConsumer addTetrimino;
   /**
    * Method used when sendScore message comes from server.
    */
@@ -103,7 +106,17 @@ public class Client extends AbstractClient implements ClientInterface {
   /**
    * Lambda to run when a locked tetrimino has been sent.
    */
-  Consumer<TetriminoInterface> locked;
+  LockHandler locked;
+
+  /**
+   * Lambda to run when the other player asks for the board of the player.
+   */
+  Runnable resyncRequested;
+
+  /**
+   * Lambda to run when the board of the other player has been sent.
+   */
+  ObjLongConsumer<int[]> boardResync;
 
   /**
    * Constructor of a client.
@@ -123,9 +136,9 @@ public class Client extends AbstractClient implements ClientInterface {
     if (information instanceof SendPiece message) { //When next tetrimino is sent from server
       newMino.accept(message.getMino());
     } else if (information instanceof RemoveLine message) { //When remove line is send from server
-      removeLine.accept(message.getLine());
+      removeLine.accept(message.getLines());
     } else if (information instanceof AddTetrimino message) { //When add tetrimino is sent from server
-      addTetrimino.accept(message.getTetrimino());
+      addTetrimino.accept(message.getPiece());
     } else if (information instanceof SendScore message) { // When send score is sent from server
       sendScore.accept(message.getScore());
     } else if (information instanceof
@@ -147,7 +160,12 @@ public class Client extends AbstractClient implements ClientInterface {
     } else if (information instanceof SetHold message) { // When hold tetrimino is sent from server
       hold.accept(message.getHold());
     } else if (information instanceof LockedTetrimino message) { //When locked tetrimino has been send from server.
-      locked.accept(message.getTetrimino());
+      locked.locked(message.getPiece(), message.getClearedLines(), message.getScore(),
+          message.getNbLines(), message.getFingerprint());
+    } else if (information instanceof ResyncRequest) { // When the other player lost our board
+      resyncRequested.run();
+    } else if (information instanceof BoardResync message) { // When the other board is resent
+      boardResync.accept(message.getColors(), message.getFingerprint());
     }
   }
 
@@ -212,7 +230,7 @@ public class Client extends AbstractClient implements ClientInterface {
    * {@inheritDoc}
    */
   @Override
-  public void connectAddTetrimino(Consumer<TetriminoInterface> addTetrimino) {
+  public void connectAddTetrimino(IntConsumer addTetrimino) {
     this.addTetrimino = addTetrimino;
   }
 
@@ -228,7 +246,7 @@ public class Client extends AbstractClient implements ClientInterface {
    * {@inheritDoc}
    */
   @Override
-  public void connectRemoveLine(Consumer<List<Integer>> removeLine) {
+  public void connectRemoveLine(IntConsumer removeLine) {
     this.removeLine = removeLine;
   }
 
@@ -236,9 +254,9 @@ public class Client extends AbstractClient implements ClientInterface {
    * {@inheritDoc}
    */
   @Override
-  public void sendTetriminoToOtherPlayer(TetriminoInterface tetriminoInterface) {
+  public void sendTetriminoToOtherPlayer(int piece) {
     try {
-      sendToServer(new AddTetrimino(tetriminoInterface));
+      sendToServer(new AddTetrimino(piece));
     } catch (IOException e) {
       System.err.println("Cannot send tetrimino to server");
     }
@@ -342,16 +360,17 @@ public class Client extends AbstractClient implements ClientInterface {
   }
 
   @Override
-  public void lockTetrimino(TetriminoInterface m) {
+  public void lockTetrimino(int piece, int clearedLines, int score, int nbLines,
+      long fingerprint) {
     try {
-      sendToServer(new LockedTetrimino(m));
+      sendToServer(new LockedTetrimino(piece, clearedLines, score, nbLines, fingerprint));
     } catch (IOException e) {
       System.err.println("Cannot send name to server");
     }
   }
 
   @Override
-  public void connectlockTetrimino(Consumer<TetriminoInterface> tetriminoInterfaceConsumer) {
+  public void connectlockTetrimino(LockHandler tetriminoInterfaceConsumer) {
     this.locked = tetriminoInterfaceConsumer;
   }
 
@@ -392,11 +411,39 @@ public class Client extends AbstractClient implements ClientInterface {
    * {@inheritDoc}
    */
   @Override
-  public void removeLine(List<Integer> lines) {
+  public void requestResync() {
     try {
-      sendToServer(new RemoveLine(lines));
+      sendToServer(new ResyncRequest());
     } catch (IOException e) {
-      System.err.println("Cannot send line to remove");
+      System.err.println("Cannot ask the board of the other player");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void sendBoardResync(int[] colors, long fingerprint) {
+    try {
+      sendToServer(new BoardResync(colors, fingerprint));
+    } catch (IOException e) {
+      System.err.println("Cannot send board to server");
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void connectResyncRequested(Runnable resyncRequested) {
+    this.resyncRequested = resyncRequested;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void connectBoardResync(ObjLongConsumer<int[]> boardResync) {
+    this.boardResync = boardResync;
+  }
+}
@@ -25,11 +25,12 @@
 package esi.acgt.atlj.client.connexionServer;
 
 import esi.acgt.atlj.message.PlayerAction;
+import esi.acgt.atlj.model.game.LockHandler;
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 import java.net.ConnectException;
-import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * Contains all necessary methods to interact with a client.
@@ -81,11 +82,15 @@ public interface ClientInterface {
 
 
   /**
-   * Sends a locked tetrimino message to server.
+   * Sends a locked tetrimino message to server, with everything the lock has changed.
    *
-   * @param m Tetrimino to lock.
+   * @param piece        Packed state of the tetrimino to lock.
+   * @param clearedLines Mask of the lines the lock has cleared.
+   * @param score        Score after the lock.
+   * @param nbLines      Number of lines after the lock.
+   * @param fingerprint  Hash of the board after the lock.
    */
-  void lockTetrimino(TetriminoInterface m);
+  void lockTetrimino(int piece, int clearedLines, int score, int nbLines, long fingerprint);
 
 
   /**
@@ -93,7 +98,7 @@ public interface ClientInterface {
    *
    * @param tetriminoInterfaceConsumer Lambda to connect.
    */
-  void connectlockTetrimino(Consumer<TetriminoInterface> tetriminoInterfaceConsumer);
+  void connectlockTetrimino(LockHandler tetriminoInterfaceConsumer);
 
   /**
    * Connects player disconnected to client
@@ -128,7 +133,7 @@ public interface ClientInterface {
    *
    * @param addTetrimino Lambda function to connect.
    */
-  void connectAddTetrimino(Consumer<TetriminoInterface> addTetrimino);
+  void connectAddTetrimino(IntConsumer addTetrimino);
 
   /**
    * Connect a consumer of sendScore of model to client.
@@ -167,15 +172,15 @@ public interface ClientInterface {
    *
    * @param removeLine Lambda function to connect.
    */
-  void connectRemoveLine(Consumer<List<Integer>> removeLine);
+  void connectRemoveLine(IntConsumer removeLine);
 
 
   /**
    * Sends a tetrimino to the opposing player
    *
-   * @param tetriminoInterface Tetrimino to send
+   * @param piece Packed state of the tetrimino to send
    */
-  void sendTetriminoToOtherPlayer(TetriminoInterface tetriminoInterface);
+  void sendTetriminoToOtherPlayer(int piece);
 
   /**
    * Sends your score to the server.
@@ -185,9 +190,30 @@ public interface ClientInterface {
   void sendScore(int Score);
 
   /**
-   * Sends line that current player just destroyed.
+   * Asks the opposing player for its whole board, its mirror no longer matching it.
+   */
+  void requestResync();
+
+  /**
+   * Sends the whole board of the player to the mirrors of its board.
+   *
+   * @param colors      Colour planes of the bottom lines of the board.
+   * @param fingerprint Hash of the board.
+   */
+  void sendBoardResync(int[] colors, long fingerprint);
+
+  /**
+   * Connects the lambda run when the opposing player asks for the board of the player.
+   *
+   * @param resyncRequested Lambda to connect.
+   */
+  void connectResyncRequested(Runnable resyncRequested);
+
+  /**
+   * Connects the lambda receiving the whole board of the opposing player.
    *
-   * @param linesDestroyed Line that current player just destroyed.
+   * @param boardResync Lambda to connect, given the colour planes of the bottom lines and the hash
+   *                    of the board.
    */
-  void removeLine(List<Integer> linesDestroyed);
+  void connectBoardResync(ObjLongConsumer<int[]> boardResync);
 }
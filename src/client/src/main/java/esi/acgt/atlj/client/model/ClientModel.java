@@ -28,18 +28,25 @@ import esi.acgt.atlj.client.connexionServer.Client;
 import esi.acgt.atlj.client.connexionServer.ClientInterface;
 import esi.acgt.atlj.message.PlayerAction;
 import esi.acgt.atlj.model.Model;
+import esi.acgt.atlj.model.game.AbstractGame;
+import esi.acgt.atlj.model.game.GameUpdateListener;
 import esi.acgt.atlj.model.game.Direction;
 import esi.acgt.atlj.model.game.GameStatus;
+import esi.acgt.atlj.model.game.LockHandler;
 import esi.acgt.atlj.model.game.ManagedGame;
 import esi.acgt.atlj.model.game.UnmanagedGame;
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.model.tetrimino.Tetrimino;
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 import java.beans.PropertyChangeListener;
 import java.net.ConnectException;
-import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjLongConsumer;
 
+/**
+ * Model of the client. The games are confined to their actors: the inputs of the player and the
+ * messages of the server are posted to the game they change and never run on the calling thread,
+ * and the state is read from the snapshots of the games.
+ */
 public class ClientModel extends Model {
 
   private ManagedGame player;
@@ -60,7 +67,8 @@ public class ClientModel extends Model {
   }
 
   /**
-   * Lambda expression to connect ask new mino from managed board to server.
+   * Lambda expression to connect ask new mino from managed board to server. Called from the actor
+   * of the player.
    */
   Runnable askNextMino = () ->
   {
@@ -68,8 +76,7 @@ public class ClientModel extends Model {
       this.client.requestNextMino();
     } else {
       var minos = Mino.values();
-      player.setNextTetrimino(
-          Tetrimino.createTetrimino(minos[(int) (Math.random() * (minos.length))]));
+      player.setNextMino(minos[(int) (Math.random() * (minos.length))]);
     }
   };
 
@@ -77,37 +84,67 @@ public class ClientModel extends Model {
    * Lambda expression to connect new mino from server to update from managed board.
    */
   Consumer<Mino> newMinoFromServer = (Mino nextMino) ->
-      player.setNextTetrimino(Tetrimino.createTetrimino(nextMino));
+      player.submit(() -> player.setNextMino(nextMino));
 
   /**
    * Sets the name of the player given from the server
    */
-  Consumer<String> receiveName = (String name) -> otherPlayer.setUsername(name);
+  Consumer<String> receiveName = (String name) ->
+      otherPlayer.submit(() -> otherPlayer.setUsername(name));
 
   /**
    * Lambda expression to connect remove line to update from unmanaged board
    */
-  Consumer<List<Integer>> removeLine = (List<Integer> line) ->
-  {
-    otherPlayer.removeLines(line);
-    otherPlayer.setNbLine(line.size());
-  };
+  IntConsumer removeLine = (int lines) -> otherPlayer.submit(() -> {
+    otherPlayer.removeLines(lines);
+    otherPlayer.setNbLine(otherPlayer.getNbLine() + Integer.bitCount(lines));
+  });
 
   /**
-   * Lambda to execute when locking other player.
+   * Tells if the board of the other player has been asked and not received yet. Only used from the
+   * actor of the other player.
    */
-  Consumer<TetriminoInterface> lockTetrimino = (TetriminoInterface tetriminoInterface) ->
-      otherPlayer.placeTetrimino(tetriminoInterface);
+  private boolean resyncPending;
 
+  /**
+   * Lambda to execute when locking other player. The board of the other player is asked once if
+   * the mirror no longer matches the fingerprint of the lock.
+   */
+  LockHandler lockTetrimino = (piece, clearedLines, score, nbLines, fingerprint) ->
+      otherPlayer.submit(() -> {
+        otherPlayer.lockTetrimino(piece, clearedLines, score, nbLines);
+        checkFingerprint(fingerprint);
+      });
 
   /**
-   * Send which line has been destroyed by the managed game to the server
+   * Sends the board of the player to the other player, whose mirror no longer matches it.
    */
-  Consumer<List<Integer>> lineDestroyed = (List<Integer> lineDestroyed) -> {
-    if (client != null) {
-      client.removeLine(lineDestroyed);
+  Runnable resyncRequested = () -> player.submit(() ->
+      client.sendBoardResync(player.packBoard(), player.getBitboard().getHash()));
+
+  /**
+   * Overwrites the mirror of the other player with its board, asked again if it does not match its
+   * fingerprint.
+   */
+  ObjLongConsumer<int[]> boardResync = (int[] colors, long fingerprint) ->
+      otherPlayer.submit(() -> {
+        otherPlayer.resync(colors);
+        resyncPending = false;
+        checkFingerprint(fingerprint);
+      });
+
+  /**
+   * Asks the other player for its board if the mirror no longer matches the fingerprint of its
+   * board, unless the board has already been asked. Called from the actor of the other player.
+   *
+   * @param fingerprint Hash of the board of the other player.
+   */
+  private void checkFingerprint(long fingerprint) {
+    if (!otherPlayer.matches(fingerprint) && !resyncPending && client != null) {
+      resyncPending = true;
+      client.requestResync();
     }
-  };
+  }
 
   Runnable iLost = () ->
   {
@@ -120,8 +157,8 @@ public class ClientModel extends Model {
    * Lambda expression to connect add tetrimino to update from unmanaged board. Behaviour for when a
    * player send you his placed pawn.
    */
-  Consumer<TetriminoInterface> addTetrimino = (TetriminoInterface tetriminoInterface) ->
-      otherPlayer.setActualTetrimino(tetriminoInterface);
+  IntConsumer addTetrimino = (int piece) ->
+      otherPlayer.submit(() -> otherPlayer.setActualPiece(piece));
 
   public void closeConnection() {
     if (client != null) {
@@ -132,10 +169,10 @@ public class ClientModel extends Model {
   /**
    * Send a pawn to another player.
    */
-  Consumer<TetriminoInterface> addTetriminoToOtherPlayer = (TetriminoInterface tetriminoInterface) ->
+  IntConsumer addTetriminoToOtherPlayer = (int piece) ->
   {
     if (client != null) {
-      this.client.sendTetriminoToOtherPlayer(tetriminoInterface);
+      this.client.sendTetriminoToOtherPlayer(piece);
     }
   };
 
@@ -152,7 +189,7 @@ public class ClientModel extends Model {
   Consumer<Integer> sendScore = (Integer score) ->
   {
     if (client != null) {
-      otherPlayer.setScore(score);
+      otherPlayer.submit(() -> otherPlayer.setScore(score));
     }
   };
 
@@ -161,20 +198,20 @@ public class ClientModel extends Model {
    * Lambda expression to connect hold with client
    */
   Consumer<Mino> hold = (Mino mino) ->
-      otherPlayer.setHold(mino);
+      otherPlayer.submit(() -> otherPlayer.setHold(mino));
 
   /**
    * Updates next mino of other player.
    */
   Consumer<Mino> updateNextTetriminoOtherPlayer = (Mino m) ->
-      otherPlayer.setNextTetrimino(Tetrimino.createTetrimino(m));
+      otherPlayer.submit(() -> otherPlayer.setNextMino(m));
 
   /**
    * Sends a tetrimino to lock to server.
    */
-  Consumer<TetriminoInterface> lockMyTetrimino = (TetriminoInterface m) -> {
+  LockHandler lockMyTetrimino = (piece, clearedLines, score, nbLines, fingerprint) -> {
     if (client != null) {
-      client.lockTetrimino(m);
+      client.lockTetrimino(piece, clearedLines, score, nbLines, fingerprint);
     }
   };
 
@@ -186,9 +223,8 @@ public class ClientModel extends Model {
   /**
    * Lambda expression to connect game state from server to model. Runs if other player has lost
    */
-  Runnable otherPlayerLost = () -> {
-    this.otherPlayer.playerStatus("LOCK OUT", 0.9);
-  };
+  Runnable otherPlayerLost = () ->
+      this.otherPlayer.submit(() -> this.otherPlayer.playerStatus("LOCK OUT", 0.9));
 
   /**
    * Sends the score to the server to be updated in other board
@@ -206,7 +242,7 @@ public class ClientModel extends Model {
    * disconnected
    */
   Runnable playerDisconnected = () ->
-      this.otherPlayer.playerStatus("Disconnected", 1);
+      this.otherPlayer.submit(() -> this.otherPlayer.playerStatus("Disconnected", 1));
 
   /**
    * Instantiates a new client with port and host to connect to. Connects all lambda methods in
@@ -236,6 +272,8 @@ public class ClientModel extends Model {
     client.connectReceiveUserName(this.receiveName);
     client.connectHold(this.hold);
     client.connectlockTetrimino(this.lockTetrimino);
+    client.connectResyncRequested(this.resyncRequested);
+    client.connectBoardResync(this.boardResync);
   }
 
   /**
@@ -251,11 +289,13 @@ public class ClientModel extends Model {
    * Starts a new game.
    */
   public void start() {
-    askNextMino.run();
-    this.player.start();
-    this.otherPlayer.playerStatus("", 0);
+    this.player.submit(() -> {
+      askNextMino.run();
+      this.player.start();
+    });
+    this.otherPlayer.submit(() -> this.otherPlayer.playerStatus("", 0));
     if (client != null) {
-      client.sendNameToServer(player.getUsername());
+      client.sendNameToServer(player.getSnapshot().getUsername());
     }
   }
 
@@ -279,7 +319,6 @@ public class ClientModel extends Model {
     player.connectAskNewMino(askNextMino);
     player.connectAddTetrimino(addTetriminoToOtherPlayer);
     player.connectHoldMino(this.setHold);
-    player.connectLineDestroyed(this.lineDestroyed);
     player.connectSendScoreServer(sendScoreServer);
     player.connectLost(this.iLost);
     player.connectTetriminoLock(this.lockMyTetrimino);
@@ -290,8 +329,24 @@ public class ClientModel extends Model {
    */
   @Override
   public void addPropertyChangeListener(PropertyChangeListener[] listener) {
-    this.player.addPropertyChangeListener(listener[0]);
-    this.otherPlayer.addPropertyChangeListener(listener[1]);
+    addListener(this.player, listener[0]);
+    addListener(this.otherPlayer, listener[1]);
+  }
+
+  /**
+   * Adds a listener to a game, as an update listener if it can be told once per update, otherwise
+   * as a property listener with the copies of the whole board enabled.
+   *
+   * @param game     Game to listen to.
+   * @param listener Listener to add.
+   */
+  private void addListener(AbstractGame game, PropertyChangeListener listener) {
+    if (listener instanceof GameUpdateListener updateListener) {
+      game.addUpdateListener(updateListener);
+    } else {
+      game.addPropertyChangeListener(listener);
+      game.setBoardSnapshots(true);
+    }
   }
 
   /**
@@ -301,6 +356,10 @@ public class ClientModel extends Model {
   public void removePropertyChangeListener(PropertyChangeListener listener) {
     this.player.removePropertyChangeListener(listener);
     this.otherPlayer.removePropertyChangeListener(listener);
+    if (listener instanceof GameUpdateListener updateListener) {
+      this.player.removeUpdateListener(updateListener);
+      this.otherPlayer.removeUpdateListener(updateListener);
+    }
   }
 
   /**
@@ -309,28 +368,28 @@ public class ClientModel extends Model {
    * @param direction Direction to move mino in.
    */
   public void move(Direction direction) {
-    this.player.move(direction);
+    this.player.submit(() -> this.player.move(direction));
   }
 
   /**
    * Holds a player's mino.
    */
   public void hold() {
-    this.player.hold();
+    this.player.submit(this.player::hold);
   }
 
   /**
    * Hard drops a player's mino
    */
   public void hardDrop() {
-    this.player.hardDrop();
+    this.player.submit(this.player::hardDrop);
   }
 
   /**
    * Soft drops a players mino.
    */
   public void softDrop() {
-    this.player.softDrop();
+    this.player.submit(this.player::softDrop);
   }
 
   /**
@@ -339,15 +398,15 @@ public class ClientModel extends Model {
    * @param clockwise Direction of rotation
    */
   public void rotate(boolean clockwise) {
-    player.rotate(clockwise);
+    player.submit(() -> player.rotate(clockwise));
   }
 
   /**
-   * Gets status of the game
+   * Gets status of the game, from its last snapshot
    *
    * @return Current status of the game.
    */
   public GameStatus getStatus() {
-    return this.player.getStatus();
+    return this.player.getSnapshot().getStatus();
   }
 }
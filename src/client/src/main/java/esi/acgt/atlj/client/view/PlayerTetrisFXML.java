@@ -28,8 +28,11 @@ import static esi.acgt.atlj.model.game.AbstractGame.WIDTH;
 import static esi.acgt.atlj.model.game.AbstractGame.HEIGHT;
 
 import esi.acgt.atlj.client.controller.Controller;
+import esi.acgt.atlj.model.game.BoardChange;
+import esi.acgt.atlj.model.game.BoardSnapshot;
+import esi.acgt.atlj.model.game.GameUpdate;
+import esi.acgt.atlj.model.game.GameUpdateListener;
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
@@ -55,7 +58,8 @@ import javafx.stage.Stage;
 /**
  * Scene that contains a player's board and informations
  */
-public class PlayerTetrisFXML implements Initializable, PropertyChangeListener {
+public class PlayerTetrisFXML implements Initializable, PropertyChangeListener,
+    GameUpdateListener {
 
   private final static Image image_NOMino;
   private final static Image image_SMino;
@@ -204,16 +208,52 @@ public class PlayerTetrisFXML implements Initializable, PropertyChangeListener {
   }
 
   /**
-   * Update the board of this player
+   * Update the board of this player from a change, moving the lines above the cleared lines down
+   * then setting the changed cells
+   *
+   * @param change Change of the board of this player
+   */
+  private void updateBoard(BoardChange change) {
+    int cleared = change.getClearedLines();
+    if (cleared != 0) {
+      int write = HEIGHT - 1;
+      for (int read = HEIGHT - 1; read >= 0; read--) {
+        if ((cleared & (1 << read)) != 0) {
+          continue;
+        }
+        if (write != read) {
+          for (int j = 0; j < WIDTH; j++) {
+            this.minosGrid[write][j].setImage(this.minosGrid[read][j].getImage());
+          }
+        }
+        write--;
+      }
+      for (; write >= 0; write--) {
+        for (int j = 0; j < WIDTH; j++) {
+          this.minosGrid[write][j].setImage(image_NOMino);
+        }
+      }
+    }
+    for (int i = 0; i < change.size(); i++) {
+      this.minosGrid[change.getY(i)][change.getX(i)].setImage(cubeColor(change.getMino(i)));
+    }
+  }
+
+  /**
+   * Update the board of this player, the lines shared by both snapshots being skipped
    *
    * @param oldBoard oldBoard of this player
    * @param newBoard newBoard of this player
    */
-  private void updateBoard(Mino[][] oldBoard, Mino[][] newBoard) {
+  private void updateBoard(BoardSnapshot oldBoard, BoardSnapshot newBoard) {
     for (int i = 0; i < this.minosGrid.length; i++) {
+      if (newBoard.sharesLine(oldBoard, i)) {
+        continue;
+      }
       for (int j = 0; j < this.minosGrid[i].length; j++) {
-        if (oldBoard[i][j] != newBoard[i][j]) {
-          this.minosGrid[i][j].setImage(cubeColor(newBoard[i][j]));
+        Mino mino = newBoard.getMino(j, i);
+        if (oldBoard.getMino(j, i) != mino) {
+          this.minosGrid[i][j].setImage(cubeColor(mino));
         }
       }
     }
@@ -258,10 +298,10 @@ public class PlayerTetrisFXML implements Initializable, PropertyChangeListener {
   /**
    * Update NextPiece of this player
    *
-   * @param tetrimino new next Tetrimino of this player
+   * @param next type of the new next Tetrimino of this player
    */
-  private void updateNextPiece(TetriminoInterface tetrimino) {
-    this.nextTetrimino.setImage(this.getTetriminoImage(tetrimino.getType()));
+  private void updateNextPiece(Mino next) {
+    this.nextTetrimino.setImage(this.getTetriminoImage(next));
   }
 
   /**
@@ -341,20 +381,45 @@ public class PlayerTetrisFXML implements Initializable, PropertyChangeListener {
    */
   @Override
   public void propertyChange(PropertyChangeEvent evt) {
+    Platform.runLater(() -> updateProperty(evt));
+  }
+
+  /**
+   * Update of the game that will change the view at once for all that the update has changed
+   *
+   * @param update update that has been fired
+   */
+  @Override
+  public void gameUpdated(GameUpdate update) {
     Platform.runLater(() -> {
-      switch (evt.getPropertyName()) {
-        case "board" -> updateBoard((Mino[][]) evt.getOldValue(), (Mino[][]) evt.getNewValue());
-        case "line" -> updateLine((int) evt.getNewValue());
-        case "score" -> updateScore((int) evt.getNewValue());
-        case "username" -> updateUsername(evt.getNewValue().toString());
-        case "hold" -> updateHold(((Mino) evt.getNewValue()));
-        case "next" -> updateNextPiece((TetriminoInterface) evt.getNewValue());
-        case "winner" -> displayWinner((String) evt.getOldValue(), (String) evt.getNewValue());
-        case "status" -> updateStatusLabel((String) evt.getOldValue(), (double) evt.getNewValue());
+      if (update.getBoardChange() != null) {
+        updateBoard(update.getBoardChange());
+      }
+      for (PropertyChangeEvent evt : update.getEvents()) {
+        updateProperty(evt);
       }
     });
   }
 
+  /**
+   * Change the view on base of the property that has changed
+   *
+   * @param evt evt of the property
+   */
+  private void updateProperty(PropertyChangeEvent evt) {
+    switch (evt.getPropertyName()) {
+      case "board" -> updateBoard((BoardSnapshot) evt.getOldValue(),
+          (BoardSnapshot) evt.getNewValue());
+      case "line" -> updateLine((int) evt.getNewValue());
+      case "score" -> updateScore((int) evt.getNewValue());
+      case "username" -> updateUsername(evt.getNewValue().toString());
+      case "hold" -> updateHold(((Mino) evt.getNewValue()));
+      case "next" -> updateNextPiece((Mino) evt.getNewValue());
+      case "winner" -> displayWinner((String) evt.getOldValue(), (String) evt.getNewValue());
+      case "status" -> updateStatusLabel((String) evt.getOldValue(), (double) evt.getNewValue());
+    }
+  }
+
   /**
    * update StatusLebel
    *
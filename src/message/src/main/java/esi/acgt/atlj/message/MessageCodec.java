@@ -0,0 +1,472 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.message;
+
+import esi.acgt.atlj.message.messageTypes.AddTetrimino;
+import esi.acgt.atlj.message.messageTypes.AskPiece;
+import esi.acgt.atlj.message.messageTypes.BoardResync;
+import esi.acgt.atlj.message.messageTypes.LockedTetrimino;
+import esi.acgt.atlj.message.messageTypes.PlayerState;
+import esi.acgt.atlj.message.messageTypes.RemoveLine;
+import esi.acgt.atlj.message.messageTypes.ResyncRequest;
+import esi.acgt.atlj.message.messageTypes.SendAction;
+import esi.acgt.atlj.message.messageTypes.SendBoard;
+import esi.acgt.atlj.message.messageTypes.SendName;
+import esi.acgt.atlj.message.messageTypes.SendPiece;
+import esi.acgt.atlj.message.messageTypes.SendScore;
+import esi.acgt.atlj.message.messageTypes.SetHold;
+import esi.acgt.atlj.message.messageTypes.SetNbLines;
+import esi.acgt.atlj.message.messageTypes.UpdatePieceUnmanagedBoard;
+import esi.acgt.atlj.model.game.BoardSnapshot;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary codec of the messages sent between the clients and the server. Each message is sent as a
+ * frame: its length as a varint, then the ordinal of its {@link MessageType} on one byte, then its
+ * fields. Integers are written as varints, zigzag encoded when they may be negative, pieces on the
+ * three bytes of their packed state, minos and enums on one byte and boards as the colour planes
+ * of their occupied lines. Most messages take a handful of bytes.
+ *
+ * <p>A codec reuses its buffer from one message to the next, so it must only be used by one
+ * thread at a time, typically one codec per direction of a connection.</p>
+ */
+public final class MessageCodec {
+
+  /**
+   * Largest frame accepted, a longer length meaning that the stream is corrupted.
+   */
+  public static final int MAX_FRAME = 1 << 16;
+
+  /**
+   * Longest length prefix of a frame, the longest varint of an int. Room is left for it before
+   * the payload while a message is written.
+   */
+  public static final int MAX_HEADER = 5;
+
+  /**
+   * Packed state written for no piece, the three bytes of {@link PieceState#NONE}.
+   */
+  private static final int NO_PIECE = 0xFFFFFF;
+
+  private static final MessageType[] TYPES = MessageType.values();
+  private static final Mino[] MINOS = Mino.values();
+  private static final PlayerStatus[] STATUSES = PlayerStatus.values();
+  private static final PlayerAction[] ACTIONS = PlayerAction.values();
+
+  private byte[] buffer = new byte[64];
+
+  /**
+   * Position of the next byte to write or read in the buffer.
+   */
+  private int position;
+
+  /**
+   * End of the payload being read.
+   */
+  private int limit;
+
+  /**
+   * Writes a message as one frame. The stream is not flushed.
+   *
+   * @param message Message to write.
+   * @param out     Stream to write to.
+   * @throws IOException If the stream cannot be written.
+   */
+  public void write(Message message, OutputStream out) throws IOException {
+    position = MAX_HEADER;
+    encode(message);
+    int length = position - MAX_HEADER;
+    if (length > MAX_FRAME) {
+      throw new IOException("Message too long: " + message);
+    }
+    int start = MAX_HEADER - varintSize(length);
+    position = start;
+    writeVarint(length);
+    out.write(buffer, start, MAX_HEADER - start + length);
+  }
+
+  /**
+   * Reads the next frame of a stream.
+   *
+   * @param in Stream to read from, better buffered as the length is read byte by byte.
+   * @return Decoded message.
+   * @throws EOFException If the stream ends, between two frames or within one.
+   * @throws IOException  If the stream cannot be read or the frame is not a valid message.
+   */
+  public Message read(InputStream in) throws IOException {
+    int length = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      length = appendLength(length, shift, b);
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    checkLength(length);
+    ensureCapacity(length);
+    for (int read = 0; read < length; ) {
+      int count = in.read(buffer, read, length - read);
+      if (count < 0) {
+        throw new EOFException();
+      }
+      read += count;
+    }
+    return decodeFrame(length);
+  }
+
+  /**
+   * Reads the next frame of a buffer if the buffer holds all of it, for the connections that read
+   * whatever the socket has received without blocking.
+   *
+   * @param in Buffer in read mode, its position being moved after the frame if one is read.
+   * @return Decoded message, null if the frame has not been fully received yet.
+   * @throws IOException If the frame is not a valid message.
+   */
+  public Message read(ByteBuffer in) throws IOException {
+    int start = in.position();
+    int header = 0;
+    int length = 0;
+    for (int shift = 0; ; shift += 7) {
+      if (start + header >= in.limit()) {
+        return null;
+      }
+      int b = in.get(start + header++) & 0xFF;
+      length = appendLength(length, shift, b);
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    checkLength(length);
+    if (in.limit() - start - header < length) {
+      return null;
+    }
+    ensureCapacity(length);
+    in.position(start + header);
+    in.get(buffer, 0, length);
+    return decodeFrame(length);
+  }
+
+  /**
+   * Adds a byte of a frame length to the bits read so far.
+   */
+  private static int appendLength(int length, int shift, int b) throws IOException {
+    if (shift == 28 && (b & 0xF0) != 0) {
+      throw new IOException("Malformed frame length");
+    }
+    return length | (b & 0x7F) << shift;
+  }
+
+  private static void checkLength(int length) throws IOException {
+    if (length <= 0 || length > MAX_FRAME) {
+      throw new IOException("Invalid frame length " + length);
+    }
+  }
+
+  /**
+   * Decodes the payload of a frame, copied at the start of the buffer.
+   */
+  private Message decodeFrame(int length) throws IOException {
+    position = 0;
+    limit = length;
+    Message message = decode();
+    if (position != limit) {
+      throw new IOException("Trailing bytes after " + message);
+    }
+    return message;
+  }
+
+  private void encode(Message message) throws IOException {
+    MessageType type = message.getType();
+    if (type == null) {
+      throw new IOException("Message without type: " + message.getClass().getName());
+    }
+    writeByte(type.ordinal());
+    switch (type) {
+      case ASK_PIECE, RESYNC_REQUEST -> {
+      }
+      case ADD_TETRIMINO -> writePiece(((AddTetrimino) message).getPiece());
+      case SEND_PIECE -> writeMino(((SendPiece) message).getMino());
+      case SEND_SCORE -> writeSigned(((SendScore) message).getScore());
+      case REMOVE_LINE -> writeVarint(((RemoveLine) message).getLines());
+      case PLAYER_STATUS -> writeEnum(((PlayerState) message).getPlayerState());
+      case UPDATE_PIECE_UNMANAGED -> writeMino(((UpdatePieceUnmanagedBoard) message).getPiece());
+      case SEND_NAME -> writeString(((SendName) message).getUsername());
+      case NUMBER_LINES -> writeSigned(((SetNbLines) message).getNumberOfLines());
+      case HOLD -> writeMino(((SetHold) message).getHold());
+      case ACTION -> {
+        SendAction action = (SendAction) message;
+        writeEnum(action.getAction());
+        writeSigned(action.getMatchUpID());
+      }
+      case SEND_BOARD -> writeBoard(((SendBoard) message).getBoard());
+      case BOARD_RESYNC -> {
+        BoardResync resync = (BoardResync) message;
+        writeColors(resync.getColors());
+        writeLong(resync.getFingerprint());
+      }
+      case LOCKED_TETRIMINO -> {
+        LockedTetrimino locked = (LockedTetrimino) message;
+        writePiece(locked.getPiece());
+        writeVarint(locked.getClearedLines());
+        writeSigned(locked.getScore());
+        writeSigned(locked.getNbLines());
+        writeLong(locked.getFingerprint());
+      }
+      default -> throw new IOException("Cannot encode " + type);
+    }
+  }
+
+  private Message decode() throws IOException {
+    int ordinal = readByte();
+    if (ordinal >= TYPES.length) {
+      throw new IOException("Unknown message type " + ordinal);
+    }
+    return switch (TYPES[ordinal]) {
+      case ASK_PIECE -> new AskPiece();
+      case RESYNC_REQUEST -> new ResyncRequest();
+      case ADD_TETRIMINO -> new AddTetrimino(readPiece());
+      case SEND_PIECE -> new SendPiece(readMino());
+      case SEND_SCORE -> new SendScore(readSigned());
+      case REMOVE_LINE -> new RemoveLine(readVarint());
+      case PLAYER_STATUS -> new PlayerState(readEnum(STATUSES));
+      case UPDATE_PIECE_UNMANAGED -> new UpdatePieceUnmanagedBoard(readMino());
+      case SEND_NAME -> new SendName(readString());
+      case NUMBER_LINES -> new SetNbLines(readSigned());
+      case HOLD -> new SetHold(readMino());
+      case ACTION -> {
+        SendAction action = new SendAction();
+        action.setAction(readEnum(ACTIONS));
+        action.setMatchUpID(readSigned());
+        yield action;
+      }
+      case SEND_BOARD -> new SendBoard(BoardSnapshot.fromColors(readColors()));
+      case BOARD_RESYNC -> new BoardResync(readColors(), readLong());
+      case LOCKED_TETRIMINO -> new LockedTetrimino(readPiece(), readVarint(), readSigned(),
+          readSigned(), readLong());
+    };
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(position + 1);
+    buffer[position++] = (byte) value;
+  }
+
+  private int readByte() throws IOException {
+    if (position >= limit) {
+      throw new EOFException("Frame too short");
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Writes an int as an unsigned varint, seven bits per byte from the lowest ones.
+   */
+  private void writeVarint(int value) {
+    ensureCapacity(position + MAX_HEADER);
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  private int readVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Reads the length of a string or of an array, which cannot be negative.
+   */
+  private int readLength() throws IOException {
+    int length = readVarint();
+    if (length < 0) {
+      throw new IOException("Negative length " + length);
+    }
+    return length;
+  }
+
+  private static int varintSize(int value) {
+    return (Integer.SIZE - Integer.numberOfLeadingZeros(value | 1) + 6) / 7;
+  }
+
+  /**
+   * Writes an int that may be negative, zigzag encoded so small negative values stay short.
+   */
+  private void writeSigned(int value) {
+    writeVarint(value << 1 ^ value >> 31);
+  }
+
+  private int readSigned() throws IOException {
+    int value = readVarint();
+    return value >>> 1 ^ -(value & 1);
+  }
+
+  private void writeLong(long value) {
+    for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+      writeByte((int) (value >>> shift));
+    }
+  }
+
+  private long readLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+      value |= (long) readByte() << shift;
+    }
+    return value;
+  }
+
+  /**
+   * Writes a piece packed by {@link PieceState} on its three bytes: shape, column and line.
+   */
+  private void writePiece(int piece) {
+    int packed = piece == PieceState.NONE ? NO_PIECE : piece;
+    writeByte(packed);
+    writeByte(packed >>> 8);
+    writeByte(packed >>> 16);
+  }
+
+  private int readPiece() throws IOException {
+    int packed = readByte() | readByte() << 8 | readByte() << 16;
+    int piece = packed == NO_PIECE ? PieceState.NONE : packed;
+    if (!PieceState.isValid(piece)) {
+      throw new IOException("Invalid piece " + Integer.toHexString(packed));
+    }
+    return piece;
+  }
+
+  private void writeMino(Mino mino) {
+    writeEnum(mino);
+  }
+
+  private Mino readMino() throws IOException {
+    return readEnum(MINOS);
+  }
+
+  /**
+   * Writes a constant that may be null on one byte, its ordinal plus one.
+   */
+  private void writeEnum(Enum<?> value) {
+    writeByte(value == null ? 0 : value.ordinal() + 1);
+  }
+
+  private <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+    int value = readByte();
+    if (value > values.length) {
+      throw new IOException("Unknown constant " + value);
+    }
+    return value == 0 ? null : values[value - 1];
+  }
+
+  /**
+   * Writes a string that may be null: its length in UTF-8 plus one, then its bytes.
+   */
+  private void writeString(String value) {
+    if (value == null) {
+      writeVarint(0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(bytes.length + 1);
+    ensureCapacity(position + bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private String readString() throws IOException {
+    int length = readLength() - 1;
+    if (length < 0) {
+      return null;
+    }
+    if (length > limit - position) {
+      throw new EOFException("Frame too short");
+    }
+    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  /**
+   * Writes the colour planes of the bottom lines of a board: their number, then each of them.
+   */
+  private void writeColors(int[] colors) {
+    writeVarint(colors.length);
+    for (int line : colors) {
+      writeVarint(line);
+    }
+  }
+
+  private int[] readColors() throws IOException {
+    int length = readLength();
+    if (length > GameInterface.HEIGHT) {
+      throw new IOException("Too many lines: " + length);
+    }
+    int[] colors = new int[length];
+    for (int i = 0; i < length; ++i) {
+      colors[i] = readVarint();
+    }
+    return colors;
+  }
+
+  /**
+   * Writes a snapshot as the colour planes of its lines from the highest occupied one down.
+   */
+  private void writeBoard(BoardSnapshot board) {
+    int top = 0;
+    while (top < GameInterface.HEIGHT && board.getLine(top) == 0) {
+      top++;
+    }
+    int[] colors = new int[GameInterface.HEIGHT - top];
+    for (int i = 0; i < colors.length; ++i) {
+      colors[i] = board.getColors(top + i);
+    }
+    writeColors(colors);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+  }
+}
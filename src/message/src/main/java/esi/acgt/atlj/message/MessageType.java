@@ -39,5 +39,8 @@ public enum MessageType {
   NUMBER_LINES, // Send the number of line the player has destructed
   HOLD, // Sends the mino the player is holding
   ACTION, //Action player would like to do
-  SEND_BOARD // Sends board to spectator
+  SEND_BOARD, // Sends board to spectator
+  RESYNC_REQUEST, // Asks a player for its board when its mirror no longer matches
+  BOARD_RESYNC, // Sends the packed board of a player to its mirrors
+  LOCKED_TETRIMINO // Tells the opponent that a tetrimino has been locked
 }
@@ -27,32 +27,32 @@ package esi.acgt.atlj.message.messageTypes;
 import esi.acgt.atlj.message.Message;
 import esi.acgt.atlj.message.MessageType;
 
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
-
 /**
  * Client tell the server to add to its unmanaged board a tetrimino
  */
 public class AddTetrimino extends Message {
 
   /**
-   * Tetrimino to send
+   * Tetrimino to send, packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}
    */
-  private final TetriminoInterface tetrimino;
+  private final int piece;
 
   /**
    * Constructor for tetrimino message.
    *
-   * @param tetrimino Tetrimino to add.
+   * @param piece Packed state of the tetrimino to add.
    */
-  public AddTetrimino(TetriminoInterface tetrimino) {
-    this.tetrimino = tetrimino;
+  public AddTetrimino(int piece) {
+    this.piece = piece;
     this.messageType = MessageType.ADD_TETRIMINO;
   }
 
   /**
-   * Constructor for add tetrimino type of message.
+   * Getter for the tetrimino to add.
+   *
+   * @return Packed state of the tetrimino.
    */
-  public TetriminoInterface getTetrimino() {
-    return tetrimino;
+  public int getPiece() {
+    return piece;
   }
 }
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.message.messageTypes;
+
+import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.MessageType;
+
+/**
+ * Sends the whole board of a player to the mirrors of its board that no longer match it. The board
+ * is packed in one colour plane per line, from the highest occupied line down, so it weighs a few
+ * ints instead of a matrix of minos.
+ */
+public class BoardResync extends Message {
+
+  /**
+   * Colour planes of the bottom lines of the board.
+   *
+   * @see esi.acgt.atlj.model.game.AbstractGame#packBoard()
+   */
+  private final int[] colors;
+
+  /**
+   * Hash of the board.
+   */
+  private final long fingerprint;
+
+  /**
+   * Constructor for a board resync message.
+   *
+   * @param colors      Colour planes of the bottom lines of the board.
+   * @param fingerprint Hash of the board.
+   */
+  public BoardResync(int[] colors, long fingerprint) {
+    this.colors = colors;
+    this.fingerprint = fingerprint;
+    this.messageType = MessageType.BOARD_RESYNC;
+  }
+
+  /**
+   * Getter for the packed board.
+   *
+   * @return Colour planes of the bottom lines of the board.
+   */
+  public int[] getColors() {
+    return colors;
+  }
+
+  /**
+   * Getter for the hash of the board.
+   *
+   * @return Hash of the board.
+   */
+  public long getFingerprint() {
+    return fingerprint;
+  }
+}
@@ -25,20 +25,90 @@
 package esi.acgt.atlj.message.messageTypes;
 
 import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.MessageType;
 
-import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
+/**
+ * Tells the opponent that a tetrimino has been locked, with everything the lock has changed.
+ */
+public class LockedTetrimino extends Message {
 
+  /**
+   * Locked tetrimino, packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   */
+  private final int piece;
 
-public class LockedTetrimino extends Message {
+  /**
+   * Mask of the lines cleared by the lock.
+   */
+  private final int clearedLines;
+
+  /**
+   * Score after the lock.
+   */
+  private final int score;
 
-  TetriminoInterface tetrimino;
+  /**
+   * Number of lines after the lock.
+   */
+  private final int nbLines;
+
+  /**
+   * Hash of the board after the lock, checked by the mirrors of the board.
+   */
+  private final long fingerprint;
+
+  public LockedTetrimino(int piece, int clearedLines, int score, int nbLines, long fingerprint) {
+    this.piece = piece;
+    this.clearedLines = clearedLines;
+    this.score = score;
+    this.nbLines = nbLines;
+    this.fingerprint = fingerprint;
+    this.messageType = MessageType.LOCKED_TETRIMINO;
+  }
+
+  /**
+   * Getter for the locked tetrimino
+   *
+   * @return Packed state of the tetrimino.
+   */
+  public int getPiece() {
+    return this.piece;
+  }
+
+  /**
+   * Getter for the lines cleared by the lock
+   *
+   * @return Mask of the cleared lines.
+   */
+  public int getClearedLines() {
+    return clearedLines;
+  }
+
+  /**
+   * Getter for the score after the lock
+   *
+   * @return Score of the player.
+   */
+  public int getScore() {
+    return score;
+  }
 
-  public LockedTetrimino(TetriminoInterface myT) {
-    tetrimino = myT;
+  /**
+   * Getter for the number of lines after the lock
+   *
+   * @return Number of lines cleared by the player.
+   */
+  public int getNbLines() {
+    return nbLines;
   }
 
-  public TetriminoInterface getTetrimino() {
-    return this.tetrimino;
+  /**
+   * Getter for the hash of the board after the lock
+   *
+   * @return Fingerprint of the board of the player.
+   */
+  public long getFingerprint() {
+    return fingerprint;
   }
 
   public String toString() {
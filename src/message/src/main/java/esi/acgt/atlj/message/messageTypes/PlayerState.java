@@ -45,6 +45,7 @@ public class PlayerState extends Message {
    */
   public PlayerState(PlayerStatus p) {
     this.playerState = p;
+    this.messageType = MessageType.PLAYER_STATUS;
   }
 
   /**
@@ -53,7 +54,6 @@ public class PlayerState extends Message {
    * @return current state of the player.
    */
   public PlayerStatus getPlayerState() {
-    this.messageType = MessageType.PLAYER_STATUS;
     return this.playerState;
   }
 
@@ -27,32 +27,32 @@ package esi.acgt.atlj.message.messageTypes;
 import esi.acgt.atlj.message.Message;
 import esi.acgt.atlj.message.MessageType;
 
-import java.util.List;
-
 /**
  * Tells the server to remove a line in its unmanaged board.
  */
 public class RemoveLine extends Message {
 
   /**
-   * Line to remove
+   * Mask of the lines to remove, the bit {@code y} standing for the line {@code y}.
    */
-  private List<Integer> lines;
+  private final int lines;
 
   /**
    * Constructor for remove line type of message.
+   *
+   * @param lines Mask of the lines to remove.
    */
-  public RemoveLine(List<Integer> lines) {
+  public RemoveLine(int lines) {
     this.messageType = MessageType.REMOVE_LINE;
     this.lines = lines;
   }
 
   /**
-   * Getter for line to remove
+   * Getter for lines to remove
    *
-   * @return Line to send in message to be removed.
+   * @return Mask of the lines to remove.
    */
-  public List<Integer> getLine() {
+  public int getLines() {
     return this.lines;
   }
 }
@@ -26,13 +26,35 @@ package esi.acgt.atlj.message.messageTypes;
 
 import esi.acgt.atlj.message.Message;
 import esi.acgt.atlj.message.MessageType;
-import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.game.BoardSnapshot;
 
+/**
+ * Sends the board of a player, to spectators for instance. The snapshot is immutable, so the same
+ * snapshot can be sent to every spectator without copying it.
+ */
 public class SendBoard extends Message {
 
-  private Mino[][] board;
+  /**
+   * Board to send.
+   */
+  private final BoardSnapshot board;
 
-  public SendBoard(Mino[][] board) {
+  /**
+   * Constructor for a sendBoard message.
+   *
+   * @param board Board to send.
+   */
+  public SendBoard(BoardSnapshot board) {
+    this.board = board;
     this.messageType = MessageType.SEND_BOARD;
   }
+
+  /**
+   * Getter for the board of the message.
+   *
+   * @return Snapshot of the board.
+   */
+  public BoardSnapshot getBoard() {
+    return board;
+  }
 }
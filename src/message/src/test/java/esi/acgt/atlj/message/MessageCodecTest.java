@@ -0,0 +1,295 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import esi.acgt.atlj.message.messageTypes.AddTetrimino;
+import esi.acgt.atlj.message.messageTypes.AskPiece;
+import esi.acgt.atlj.message.messageTypes.BoardResync;
+import esi.acgt.atlj.message.messageTypes.LockedTetrimino;
+import esi.acgt.atlj.message.messageTypes.PlayerState;
+import esi.acgt.atlj.message.messageTypes.RemoveLine;
+import esi.acgt.atlj.message.messageTypes.ResyncRequest;
+import esi.acgt.atlj.message.messageTypes.SendAction;
+import esi.acgt.atlj.message.messageTypes.SendBoard;
+import esi.acgt.atlj.message.messageTypes.SendName;
+import esi.acgt.atlj.message.messageTypes.SendPiece;
+import esi.acgt.atlj.message.messageTypes.SendScore;
+import esi.acgt.atlj.message.messageTypes.SetHold;
+import esi.acgt.atlj.message.messageTypes.SetNbLines;
+import esi.acgt.atlj.message.messageTypes.UpdatePieceUnmanagedBoard;
+import esi.acgt.atlj.model.game.BoardSnapshot;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class MessageCodecTest {
+
+  /**
+   * Two bottom lines: an L then an I on the left, and a T in the last column.
+   */
+  private static final int[] COLORS = {0b010_001, 0b111 << 27};
+
+  private final MessageCodec codec = new MessageCodec();
+
+  /**
+   * One message of each type, with fields far from their defaults.
+   */
+  private static Map<MessageType, Message> samples() {
+    int piece = PieceState.of(Mino.S_MINO, Orientation.EAST, -1, 17);
+    SendAction action = new SendAction();
+    action.setAction(PlayerAction.SPECTATE);
+    action.setMatchUpID(-3);
+    Map<MessageType, Message> samples = new EnumMap<>(MessageType.class);
+    for (Message message : List.of(new AskPiece(), new AddTetrimino(piece),
+        new SendPiece(Mino.I_MINO), new SendScore(-42), new RemoveLine(0b1010),
+        new PlayerState(PlayerStatus.LOST), new UpdatePieceUnmanagedBoard(Mino.T_MINO),
+        new SendName("Grégory"), new SetNbLines(12), new SetHold(Mino.O_MINO), action,
+        new SendBoard(BoardSnapshot.fromColors(COLORS)), new ResyncRequest(),
+        new BoardResync(COLORS, 0x8123_4567_89AB_CDEFL),
+        new LockedTetrimino(piece, 0b11, 1200, 40, -1L))) {
+      samples.put(message.getType(), message);
+    }
+    return samples;
+  }
+
+  /**
+   * Gets the fields of a message that go through the codec.
+   */
+  private static List<Object> fields(Message message) {
+    List<Object> fields = new ArrayList<>();
+    fields.add(message.getClass());
+    if (message instanceof AddTetrimino m) {
+      fields.add(m.getPiece());
+    } else if (message instanceof SendPiece m) {
+      fields.add(m.getMino());
+    } else if (message instanceof SendScore m) {
+      fields.add(m.getScore());
+    } else if (message instanceof RemoveLine m) {
+      fields.add(m.getLines());
+    } else if (message instanceof PlayerState m) {
+      fields.add(m.getPlayerState());
+    } else if (message instanceof UpdatePieceUnmanagedBoard m) {
+      fields.add(m.getPiece());
+    } else if (message instanceof SendName m) {
+      fields.add(m.getUsername());
+    } else if (message instanceof SetNbLines m) {
+      fields.add(m.getNumberOfLines());
+    } else if (message instanceof SetHold m) {
+      fields.add(m.getHold());
+    } else if (message instanceof SendAction m) {
+      fields.add(m.getAction());
+      fields.add(m.getMatchUpID());
+    } else if (message instanceof SendBoard m) {
+      for (int y = 0; y < GameInterface.HEIGHT; ++y) {
+        fields.add(m.getBoard().getColors(y));
+      }
+    } else if (message instanceof BoardResync m) {
+      fields.add(Arrays.toString(m.getColors()));
+      fields.add(m.getFingerprint());
+    } else if (message instanceof LockedTetrimino m) {
+      fields.add(m.getPiece());
+      fields.add(m.getClearedLines());
+      fields.add(m.getScore());
+      fields.add(m.getNbLines());
+      fields.add(m.getFingerprint());
+    }
+    return fields;
+  }
+
+  private byte[] encode(Message message) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write(message, out);
+    return out.toByteArray();
+  }
+
+  private Message readStream(byte[] frame) throws IOException {
+    return codec.read(new ByteArrayInputStream(frame));
+  }
+
+  private Message readBuffer(byte[] frame) throws IOException {
+    return codec.read(ByteBuffer.wrap(frame));
+  }
+
+  @Nested
+  class RoundTrip {
+
+    @Test
+    public void everyTypeHasASample() {
+      assertEquals(EnumSet.allOf(MessageType.class), samples().keySet());
+    }
+
+    @Test
+    public void throughStream() throws IOException {
+      for (Message message : samples().values()) {
+        Message decoded = readStream(encode(message));
+        assertEquals(fields(message), fields(decoded), message.getType().toString());
+        assertEquals(message.getType(), decoded.getType(), "type");
+      }
+    }
+
+    @Test
+    public void throughBuffer() throws IOException {
+      for (Message message : samples().values()) {
+        ByteBuffer buffer = ByteBuffer.wrap(encode(message));
+        Message decoded = codec.read(buffer);
+        assertEquals(fields(message), fields(decoded), message.getType().toString());
+        assertEquals(buffer.limit(), buffer.position(), "whole frame consumed");
+      }
+    }
+
+    @Test
+    public void framesFollowEachOther() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      List<Message> messages = new ArrayList<>(samples().values());
+      for (Message message : messages) {
+        codec.write(message, out);
+      }
+      ByteArrayInputStream stream = new ByteArrayInputStream(out.toByteArray());
+      ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+      for (Message message : messages) {
+        assertEquals(fields(message), fields(codec.read(stream)), "stream");
+        assertEquals(fields(message), fields(codec.read(buffer)), "buffer");
+      }
+      assertEquals(-1, stream.read(), "stream consumed");
+      assertNull(codec.read(buffer), "buffer consumed");
+    }
+
+    @Test
+    public void nullFields() throws IOException {
+      for (Message message : List.of(new AddTetrimino(PieceState.NONE), new SetHold(null),
+          new SendName(null), new PlayerState(null))) {
+        assertEquals(fields(message), fields(readStream(encode(message))), "stream");
+        assertEquals(fields(message), fields(readBuffer(encode(message))), "buffer");
+      }
+    }
+  }
+
+  @Nested
+  class Malformed {
+
+    @Test
+    public void truncatedFrame() throws IOException {
+      for (Message message : samples().values()) {
+        byte[] frame = encode(message);
+        for (int length = 0; length < frame.length; ++length) {
+          byte[] truncated = Arrays.copyOf(frame, length);
+          assertThrows(IOException.class, () -> readStream(truncated), "stream");
+          ByteBuffer buffer = ByteBuffer.wrap(truncated);
+          assertNull(codec.read(buffer), "buffer waits for the rest");
+          assertEquals(0, buffer.position(), "buffer left untouched");
+        }
+      }
+    }
+
+    @Test
+    public void truncatedPayload() {
+      byte[] frame = {2, (byte) MessageType.ADD_TETRIMINO.ordinal(), 0};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void oversizedFrame() {
+      int length = MessageCodec.MAX_FRAME + 1;
+      byte[] frame = {(byte) (length & 0x7F | 0x80), (byte) (length >>> 7 & 0x7F | 0x80),
+          (byte) (length >>> 14)};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void emptyFrame() {
+      byte[] frame = {0};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void unknownType() {
+      byte[] frame = {1, (byte) MessageType.values().length};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void trailingBytes() throws IOException {
+      byte[] frame = encode(new SendScore(5));
+      frame[0]++;
+      byte[] longer = Arrays.copyOf(frame, frame.length + 1);
+      assertThrows(IOException.class, () -> readStream(longer), "stream");
+      assertThrows(IOException.class, () -> readBuffer(longer), "buffer");
+    }
+
+    @Test
+    public void negativeLength() {
+      byte[] frame = {6, (byte) MessageType.SEND_BOARD.ordinal(), (byte) 0xFF, (byte) 0xFF,
+          (byte) 0xFF, (byte) 0xFF, 0x0F};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void invalidPiece() {
+      int piece = Mino.values().length << 2;
+      byte[] frame = {4, (byte) MessageType.ADD_TETRIMINO.ordinal(), (byte) piece, 0, 0};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void pieceOutOfTheBoard() {
+      int piece = PieceState.of(Mino.T_MINO, Orientation.NORTH, 100, 0);
+      byte[] frame = {4, (byte) MessageType.ADD_TETRIMINO.ordinal(), (byte) piece,
+          (byte) (piece >>> 8), (byte) (piece >>> 16)};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+
+    @Test
+    public void unknownConstant() {
+      byte[] frame = {2, (byte) MessageType.SEND_PIECE.ordinal(),
+          (byte) (Mino.values().length + 1)};
+      assertThrows(IOException.class, () -> readStream(frame), "stream");
+      assertThrows(IOException.class, () -> readBuffer(frame), "buffer");
+    }
+  }
+}
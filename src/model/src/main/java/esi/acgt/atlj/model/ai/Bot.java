@@ -0,0 +1,308 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.game.Direction;
+import esi.acgt.atlj.model.game.GameStatus;
+import esi.acgt.atlj.model.game.ManagedGame;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computer player driving a managed game through the hooks and inputs a human player uses. For
+ * each piece the bot enumerates the reachable placements, then values each of them by the best
+ * board the next piece can reach from it by a plain drop, and plays the inputs of the best one.
+ * The placements of the current piece are valued in parallel on a fork join pool, each worker
+ * reusing its own buffers, so a decision does not allocate and many bots can share the same pool.
+ *
+ * <p>A bot plays on the actor of its game: once connected and started, the next piece is played as
+ * soon as the previous one has locked.
+ */
+public class Bot {
+
+  /**
+   * Line above which a locked mino loses the game.
+   */
+  private static final int LOCK_OUT_LINE = 2;
+
+  /**
+   * Number of placements valued by a task of the pool without splitting it.
+   */
+  private static final int LEAF_SIZE = 4;
+
+  /**
+   * Buffers of the workers of the pool, used to value the placements of the next piece.
+   */
+  private static final ThreadLocal<Lookahead> LOOKAHEADS = ThreadLocal.withInitial(Lookahead::new);
+
+  private final ManagedGame game;
+  private final Evaluator evaluator;
+
+  /**
+   * Pool valuing the placements, null to value them on the calling thread.
+   */
+  private final ForkJoinPool pool;
+
+  private final MoveGenerator generator = new MoveGenerator();
+  private final Placements placements = new Placements();
+  private double[] values = new double[64];
+
+  private volatile boolean running;
+
+  /**
+   * Creates a bot with the default evaluator, searching on the common pool.
+   *
+   * @param game Game to play.
+   */
+  public Bot(ManagedGame game) {
+    this(game, Evaluator.DEFAULT, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a bot.
+   *
+   * @param game      Game to play.
+   * @param evaluator Evaluator of the boards.
+   * @param pool      Pool valuing the placements, null to value them on the calling thread.
+   */
+  public Bot(ManagedGame game, Evaluator evaluator, ForkJoinPool pool) {
+    this.game = game;
+    this.evaluator = evaluator;
+    this.pool = pool;
+  }
+
+  /**
+   * Connects the bot to the hook asking the next mino of its game, the next piece being played
+   * once the next mino has been asked.
+   *
+   * @param askNextMino Hook asking the next mino, as a client would.
+   */
+  public void connect(Runnable askNextMino) {
+    game.connectAskNewMino(() -> {
+      askNextMino.run();
+      if (running) {
+        game.submit(this::play);
+      }
+    });
+  }
+
+  /**
+   * Starts playing the current piece of the game, then every following piece.
+   */
+  public void start() {
+    running = true;
+    game.submit(this::play);
+  }
+
+  /**
+   * Stops playing after the current piece.
+   */
+  public void stop() {
+    running = false;
+  }
+
+  /**
+   * Gets the game played by the bot.
+   *
+   * @return Game of the bot.
+   */
+  public ManagedGame getGame() {
+    return game;
+  }
+
+  /**
+   * Plays the current piece of the game. Must run on the actor of the game.
+   *
+   * @return True if a piece has been played, false if the game is over or has no piece to play.
+   */
+  public boolean play() {
+    TetriminoInterface piece = game.getActualTetrimino();
+    if (piece == null || game.getStatus() == GameStatus.LOCK_OUT) {
+      return false;
+    }
+    TetriminoInterface next = game.getNextTetrimino();
+    int best = choose(game.getBitboard(), piece.getState(),
+        next == null || next == piece ? null : next.getType());
+    if (best < 0) {
+      return false;
+    }
+    for (int step = 0; step < placements.getPathLength(best); ++step) {
+      switch (placements.getInput(best, step)) {
+        case LEFT -> game.move(Direction.LEFT);
+        case RIGHT -> game.move(Direction.RIGHT);
+        case SOFT_DROP -> game.move(Direction.DOWN);
+        case ROTATE_CLOCKWISE -> game.rotate(true);
+        case ROTATE_ANTI_CLOCKWISE -> game.rotate(false);
+        case HARD_DROP -> game.hardDrop();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Chooses the best placement of a piece. The placements and their paths are left in
+   * {@link #getPlacements()} until the next decision.
+   *
+   * @param board Board to play on.
+   * @param piece Current state of the piece, packed by {@link PieceState}.
+   * @param next  Type of the next piece, null to value the placements without lookahead.
+   * @return Index of the best placement, -1 if the piece cannot be placed.
+   */
+  public int choose(Bitboard board, int piece, Mino next) {
+    int count = generator.generate(board, piece, placements);
+    if (count == 0) {
+      return -1;
+    }
+    if (values.length < count) {
+      values = new double[Math.max(count, values.length * 2)];
+    }
+    Search search = new Search(board, next, 0, count);
+    if (pool == null || count <= LEAF_SIZE) {
+      search.valueAll();
+    } else {
+      pool.invoke(search);
+    }
+
+    int best = 0;
+    for (int i = 1; i < count; ++i) {
+      if (values[i] > values[best]) {
+        best = i;
+      }
+    }
+    return values[best] == Double.NEGATIVE_INFINITY ? -1 : best;
+  }
+
+  /**
+   * Gets the placements of the last decision.
+   *
+   * @return Placements of the last piece chosen.
+   */
+  public Placements getPlacements() {
+    return placements;
+  }
+
+  /**
+   * Gets the value of a placement of the last decision.
+   *
+   * @param index Index of the placement.
+   * @return Value of the placement, higher is better.
+   */
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Places a piece on a board and clears the lines it fills.
+   *
+   * @param board Board to place the piece on.
+   * @param piece Landed state of the piece.
+   * @return Number of lines cleared, -1 if the piece locks out the game.
+   */
+  private static int land(Bitboard board, int piece) {
+    int touched = board.place(PieceState.type(piece), PieceState.orientation(piece),
+        PieceState.x(piece), PieceState.y(piece));
+    int lines = board.fullLines(touched);
+    board.removeLines(lines);
+    return board.getTop() < LOCK_OUT_LINE ? -1 : Integer.bitCount(lines);
+  }
+
+  /**
+   * Values a range of the placements of the current piece, splitting the range between the workers
+   * of the pool.
+   */
+  private final class Search extends RecursiveAction {
+
+    private final Bitboard board;
+    private final Mino next;
+    private final int from;
+    private final int to;
+
+    Search(Bitboard board, Mino next, int from, int to) {
+      this.board = board;
+      this.next = next;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= LEAF_SIZE) {
+        valueAll();
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Search(board, next, from, middle), new Search(board, next, middle, to));
+      }
+    }
+
+    void valueAll() {
+      Lookahead lookahead = LOOKAHEADS.get();
+      for (int i = from; i < to; ++i) {
+        values[i] = lookahead.value(board, placements.getPiece(i), next, evaluator);
+      }
+    }
+  }
+
+  /**
+   * Buffers of a worker valuing placements.
+   */
+  private static final class Lookahead {
+
+    private final MoveGenerator generator = new MoveGenerator();
+    private final Placements placements = new Placements();
+    private final Bitboard first = new Bitboard();
+    private final Bitboard second = new Bitboard();
+
+    /**
+     * Values a placement by the best board reachable by dropping the next piece after it.
+     *
+     * @return Value of the placement, negative infinity if it loses the game.
+     */
+    double value(Bitboard board, int piece, Mino next, Evaluator evaluator) {
+      first.copyFrom(board);
+      int cleared = land(first, piece);
+      if (cleared < 0) {
+        return Double.NEGATIVE_INFINITY;
+      }
+      if (next == null) {
+        return evaluator.evaluate(first, cleared);
+      }
+
+      int count = generator.generateDrops(first, PieceState.spawn(next), placements);
+      double best = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < count; ++i) {
+        second.copyFrom(first);
+        int nextCleared = land(second, placements.getPiece(i));
+        if (nextCleared >= 0) {
+          best = Math.max(best, evaluator.evaluate(second, cleared + nextCleared));
+        }
+      }
+      return best;
+    }
+  }
+}
@@ -0,0 +1,401 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.Arrays;
+
+/**
+ * Enumerates every placement a piece can reach on a board. A breadth first search runs over the
+ * states (orientation, column, line) of the piece, moving it left, right, down one line or
+ * rotating it in place as the games do, so tucks under overhangs are found. Every state can be
+ * hard dropped, the landing state being a placement reached by the path of the state followed by
+ * the hard drop. The search visits the states in the order of their number of inputs, so the first
+ * path reaching a placement is a shortest one. The lines where the piece collides are computed
+ * once per call for each orientation and column, so a move or a hard drop costs a few bit
+ * operations.
+ *
+ * <p>Placements covering the same cells, like the orientations of an O, are reported once. A
+ * generator reuses its buffers from one call to the next and is not thread safe: each thread needs
+ * its own.
+ */
+public final class MoveGenerator {
+
+  /**
+   * Offsets of the column and the line in the index of a state, a piece may stick out of the
+   * board by a few columns or lines as long as its minos are inside.
+   */
+  private static final int X_OFFSET = 3;
+  private static final int Y_OFFSET = 2;
+  private static final int X_BITS = 4;
+  private static final int Y_BITS = 5;
+  private static final int X_MASK = (1 << X_BITS) - 1;
+  private static final int Y_MASK = (1 << Y_BITS) - 1;
+  private static final int POSITION_BITS = X_BITS + Y_BITS;
+  private static final int STATES = 4 << POSITION_BITS;
+
+  /**
+   * Size of the table of the cells covered by the placements found, a power of two.
+   */
+  private static final int FOOTPRINTS = 1024;
+
+  private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+  /**
+   * Lines of a column that a mino cannot occupy, the bit {@code y + Y_OFFSET} standing for the line
+   * {@code y}: the lines above and below the board and the occupied lines.
+   */
+  private final long[] columns = new long[WIDTH];
+
+  /**
+   * Lines where the piece collides, for each orientation and column of the piece, the bit
+   * {@code y + Y_OFFSET} standing for the line {@code y}. Computed once per call from the columns,
+   * so checking a state is a single bit test.
+   */
+  private final int[] blocked = new int[4 << X_BITS];
+
+  private final long[] visited = new long[STATES / Long.SIZE];
+  private final long[] landed = new long[STATES / Long.SIZE];
+  private final int[] queue = new int[STATES];
+
+  /**
+   * States where the search resumes under the initial line, after the straight drops.
+   */
+  private final int[] seeds = new int[4 << X_BITS];
+  private final short[] parents = new short[STATES];
+  private final byte[] moves = new byte[STATES];
+  private final short[] distances = new short[STATES];
+
+  private final long[] footprints = new long[FOOTPRINTS];
+  private final int[] footprintStamps = new int[FOOTPRINTS];
+
+  /**
+   * Number of calls, used to invalidate the footprints without clearing them.
+   */
+  private int stamp;
+
+  /**
+   * Enumerates the placements of a piece.
+   *
+   * @param board Board to place the piece on, only read.
+   * @param piece Initial state of the piece, packed by {@link PieceState}.
+   * @param out   Container receiving the placements, cleared first.
+   * @return Number of placements, 0 if the piece does not fit in its initial state.
+   */
+  public int generate(Bitboard board, int piece, Placements out) {
+    return search(board, piece, out, true);
+  }
+
+  /**
+   * Enumerates the placements a piece reaches by moving and rotating on its initial line then hard
+   * dropping, without tucks. A lot cheaper than {@link #generate(Bitboard, int, Placements)} as
+   * the search stays on one line, it is meant for lookahead.
+   *
+   * @param board Board to place the piece on, only read.
+   * @param piece Initial state of the piece, packed by {@link PieceState}.
+   * @param out   Container receiving the placements, cleared first.
+   * @return Number of placements, 0 if the piece does not fit in its initial state.
+   */
+  public int generateDrops(Bitboard board, int piece, Placements out) {
+    return search(board, piece, out, false);
+  }
+
+  /**
+   * Runs the breadth first search.
+   *
+   * @param softDrops True to search the states below the initial line too.
+   */
+  private int search(Bitboard board, int piece, Placements out, boolean softDrops) {
+    out.clear();
+    if (++stamp == 0) {
+      Arrays.fill(footprintStamps, 0);
+      stamp = 1;
+    }
+    Arrays.fill(visited, 0);
+    Arrays.fill(landed, 0);
+
+    int type = PieceState.shape(piece) & ~3;
+    computeBlocked(board, type);
+    int start = index(PieceState.orientation(piece).ordinal(), PieceState.x(piece),
+        PieceState.y(piece));
+    if (collides(start)) {
+      return 0;
+    }
+
+    // Above the stack only the walls block the piece, so moving and rotating there costs the same
+    // on every line: the shortest paths move on the initial line first, then drop straight down to
+    // the stack. The search stays on the initial line, then resumes from the first line where
+    // the piece may touch the stack, the states reached by the straight drops as seeds. The lines
+    // crossed by the drops are never visited.
+    int surface = board.getTop() - (ShapeTable.SIZE - 1) + Y_OFFSET;
+    boolean sky = softDrops && lineOf(start) < surface;
+    visit(start, start, Input.HARD_DROP.ordinal(), 0);
+    queue[0] = start;
+    int tail = expandAll(type, 0, 1, softDrops && !sky, out);
+    if (!sky) {
+      return out.size();
+    }
+
+    int seeds = 0;
+    int drops = surface - lineOf(start);
+    for (int i = 0; i < tail; ++i) {
+      int state = queue[i];
+      int seed = state + (drops << X_BITS);
+      if (!collides(seed)) {
+        visit(seed, state, Input.SOFT_DROP.ordinal(), distances[state] + drops);
+        this.seeds[seeds++] = seed;
+      }
+    }
+
+    // The seeds are sorted by distance, they are merged with the queue to expand the states in
+    // the order of their distance.
+    int head = 0;
+    tail = 0;
+    int next = 0;
+    while (next < seeds || head < tail) {
+      if (next < seeds && (head == tail || distances[this.seeds[next]] <= distances[queue[head]])) {
+        tail = expand(type, this.seeds[next++], tail, true, out);
+      } else {
+        int state = queue[head++];
+        tail = expand(type, state, tail, true, out);
+      }
+    }
+    return out.size();
+  }
+
+  /**
+   * Expands the states of the queue until it is empty.
+   *
+   * @return Tail of the queue, the expanded states staying in the queue.
+   */
+  private int expandAll(int type, int head, int tail, boolean softDrops, Placements out) {
+    while (head < tail) {
+      tail = expand(type, queue[head++], tail, softDrops, out);
+    }
+    return tail;
+  }
+
+  /**
+   * Records the placement reached by hard dropping a state and queues its neighbours.
+   *
+   * @return New tail of the queue.
+   */
+  private int expand(int type, int state, int tail, boolean softDrops, Placements out) {
+    int distance = distances[state];
+    int landing = landing(state);
+    if (mark(landed, landing) && recordFootprint(type, landing)) {
+      addPlacement(type, state, landing, out);
+    }
+
+    int column = state & X_MASK;
+    int position = state & ((1 << POSITION_BITS) - 1);
+    int orientation = state >>> POSITION_BITS;
+    int clockwise = ((orientation + 1) & 3) << POSITION_BITS | position;
+    int antiClockwise = ((orientation + 3) & 3) << POSITION_BITS | position;
+    if (column > 0) {
+      tail = push(state, state - 1, Input.LEFT, distance, tail);
+    }
+    if (column < X_MASK) {
+      tail = push(state, state + 1, Input.RIGHT, distance, tail);
+    }
+    tail = push(state, clockwise, Input.ROTATE_CLOCKWISE, distance, tail);
+    tail = push(state, antiClockwise, Input.ROTATE_ANTI_CLOCKWISE, distance, tail);
+    if (softDrops) {
+      tail = push(state, state + (1 << X_BITS), Input.SOFT_DROP, distance, tail);
+    }
+    return tail;
+  }
+
+  /**
+   * Computes the lines where each orientation of the piece collides, in each column. The board is
+   * first turned into columns, then the columns under the minos of a shape are shifted by the line
+   * of the mino and merged.
+   */
+  private void computeBlocked(Bitboard board, int type) {
+    long outside = 0xFFFF_FFFF_FFFF_FFFFL << (HEIGHT + Y_OFFSET) | ((1L << Y_OFFSET) - 1);
+    Arrays.fill(columns, outside);
+    for (int y = board.getTop(); y < HEIGHT; ++y) {
+      for (int line = board.getLine(y); line != 0; line &= line - 1) {
+        columns[Integer.numberOfTrailingZeros(line)] |= 1L << (y + Y_OFFSET);
+      }
+    }
+
+    for (int orientation = 0; orientation < 4; ++orientation) {
+      int shape = type | orientation;
+      for (int column = 0; column <= X_MASK; ++column) {
+        int x = column - X_OFFSET;
+        long lines = 0;
+        for (int i = ShapeTable.minY(shape); i <= ShapeTable.maxY(shape) && lines != -1; ++i) {
+          for (int minos = ShapeTable.line(shape, i); minos != 0; minos &= minos - 1) {
+            int mino = x + Integer.numberOfTrailingZeros(minos);
+            lines |= mino < 0 || mino >= WIDTH ? -1 : columns[mino] >>> i;
+          }
+        }
+        blocked[orientation << X_BITS | column] = (int) lines;
+      }
+    }
+  }
+
+  /**
+   * Queues a neighbour of a state if it fits and has not been visited.
+   *
+   * @return New tail of the queue.
+   */
+  private int push(int from, int state, Input input, int distance, int tail) {
+    if (isVisited(state) || collides(state)) {
+      return tail;
+    }
+    visit(state, from, input.ordinal(), distance + 1);
+    queue[tail] = state;
+    return tail + 1;
+  }
+
+  private void visit(int state, int parent, int move, int distance) {
+    mark(visited, state);
+    parents[state] = (short) parent;
+    moves[state] = (byte) move;
+    distances[state] = (short) distance;
+  }
+
+  private boolean isVisited(int state) {
+    return (visited[state >>> 6] & (1L << state)) != 0;
+  }
+
+  /**
+   * Marks a state in a bitset.
+   *
+   * @return True if the state was not marked yet.
+   */
+  private static boolean mark(long[] set, int state) {
+    long bit = 1L << state;
+    if ((set[state >>> 6] & bit) != 0) {
+      return false;
+    }
+    set[state >>> 6] |= bit;
+    return true;
+  }
+
+  /**
+   * Adds the placement reached by hard dropping a state, with the path of the state.
+   */
+  private void addPlacement(int type, int state, int landing, Placements out) {
+    int length = distances[state] + 1;
+    out.add(toPiece(type, landing), length);
+    out.set(length - 1, Input.HARD_DROP.ordinal());
+    int step = length - 2;
+    for (int current = state; step >= 0; current = parents[current]) {
+      // A seed is linked to the state it has been dropped from, one input per line. The other
+      // inputs never change the line, rotations turning in place without kicks.
+      int lines = moves[current] == Input.SOFT_DROP.ordinal()
+          ? lineOf(current) - lineOf(parents[current]) : 1;
+      for (int line = lines; line > 0; --line) {
+        out.set(step--, moves[current]);
+      }
+    }
+  }
+
+  /**
+   * Computes the state where a state lands when it is hard dropped: the last free line before the
+   * first blocked line below it.
+   */
+  private int landing(int state) {
+    int line = lineOf(state);
+    int below = blocked[(state >>> POSITION_BITS) << X_BITS | (state & X_MASK)] >>> (line + 1);
+    return state + (Integer.numberOfTrailingZeros(below) << X_BITS);
+  }
+
+  /**
+   * Records the cells covered by a landed state.
+   *
+   * @return True if no placement found so far covers the same cells.
+   */
+  private boolean recordFootprint(int type, int state) {
+    long footprint = footprint(toPiece(type, state));
+    int slot = (int) (footprint * 0x9E3779B97F4A7C15L >>> 54);
+    while (footprintStamps[slot] == stamp) {
+      if (footprints[slot] == footprint) {
+        return false;
+      }
+      slot = (slot + 1) & (FOOTPRINTS - 1);
+    }
+    footprintStamps[slot] = stamp;
+    footprints[slot] = footprint;
+    return true;
+  }
+
+  /**
+   * Packs the cells covered by a piece: its top line followed by its lines on the board.
+   *
+   * @param piece State packed by {@link PieceState}.
+   * @return Footprint of the piece, equal for the states covering the same cells.
+   */
+  static long footprint(int piece) {
+    int shape = PieceState.shape(piece);
+    int x = PieceState.x(piece);
+    long footprint = PieceState.y(piece) + ShapeTable.minY(shape);
+    for (int i = ShapeTable.minY(shape); i <= ShapeTable.maxY(shape); ++i) {
+      footprint = footprint << WIDTH | shift(ShapeTable.line(shape, i), x);
+    }
+    return footprint;
+  }
+
+  /**
+   * Tells if a state overlaps a mino or leaves the board.
+   */
+  private boolean collides(int state) {
+    if (state < 0 || state >= STATES) {
+      return true;
+    }
+    int lines = blocked[(state >>> POSITION_BITS) << X_BITS | (state & X_MASK)];
+    return (lines & (1 << lineOf(state))) != 0;
+  }
+
+  private static int index(int orientation, int x, int y) {
+    return orientation << POSITION_BITS | (y + Y_OFFSET) << X_BITS | (x + X_OFFSET);
+  }
+
+  private static int columnOf(int state) {
+    return (state & X_MASK) - X_OFFSET;
+  }
+
+  private static int lineOf(int state) {
+    return (state >>> X_BITS) & Y_MASK;
+  }
+
+  private static int toPiece(int type, int state) {
+    return PieceState.of(PieceState.type(type), ORIENTATIONS[state >>> POSITION_BITS],
+        columnOf(state), lineOf(state) - Y_OFFSET);
+  }
+
+  private static int shift(int bits, int offset) {
+    return offset >= 0 ? bits << offset : bits >>> -offset;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import java.util.Arrays;
+
+/**
+ * Placements found by a {@link MoveGenerator}, each with the shortest path of inputs reaching it.
+ * The container is reused from one generation to the next, so it never allocates once its buffers
+ * have grown to the number of placements of a board.
+ */
+public final class Placements {
+
+  private int size;
+
+  /**
+   * Final state of each placement, packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   */
+  private int[] pieces = new int[64];
+
+  /**
+   * Start of the path of each placement in the inputs, the path of a placement ending where the
+   * path of the next one starts.
+   */
+  private int[] starts = new int[65];
+
+  /**
+   * Ordinals of the inputs of every path, one after the other.
+   */
+  private byte[] inputs = new byte[1024];
+
+  /**
+   * Forgets every placement.
+   */
+  void clear() {
+    size = 0;
+    starts[0] = 0;
+  }
+
+  /**
+   * Starts a new placement, its inputs being written by {@link #set(int, int)}.
+   *
+   * @param piece  Final state of the placement.
+   * @param length Number of inputs of its path.
+   */
+  void add(int piece, int length) {
+    if (size == pieces.length) {
+      pieces = Arrays.copyOf(pieces, size * 2);
+      starts = Arrays.copyOf(starts, size * 2 + 1);
+    }
+    int start = starts[size];
+    if (start + length > inputs.length) {
+      inputs = Arrays.copyOf(inputs, Math.max(inputs.length * 2, start + length));
+    }
+    pieces[size] = piece;
+    starts[size + 1] = start + length;
+    size++;
+  }
+
+  /**
+   * Sets an input of the path of the last placement.
+   *
+   * @param step  Index of the input in the path.
+   * @param input Ordinal of the input.
+   */
+  void set(int step, int input) {
+    inputs[starts[size - 1] + step] = (byte) input;
+  }
+
+  /**
+   * Gets the number of placements.
+   *
+   * @return Number of placements.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the final state of a placement.
+   *
+   * @param index Index of the placement.
+   * @return State packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   */
+  public int getPiece(int index) {
+    return pieces[index];
+  }
+
+  /**
+   * Gets the number of inputs of the path reaching a placement, the final hard drop included.
+   *
+   * @param index Index of the placement.
+   * @return Number of inputs.
+   */
+  public int getPathLength(int index) {
+    return starts[index + 1] - starts[index];
+  }
+
+  /**
+   * Gets an input of the path reaching a placement.
+   *
+   * @param index Index of the placement.
+   * @param step  Index of the input in the path.
+   * @return The input.
+   */
+  public Input getInput(int index, int step) {
+    return Input.of(inputs[starts[index] + step]);
+  }
+
+  /**
+   * Gets the whole path reaching a placement.
+   *
+   * @param index Index of the placement.
+   * @return A new array of inputs.
+   */
+  public Input[] getPath(int index) {
+    Input[] path = new Input[getPathLength(index)];
+    for (int step = 0; step < path.length; ++step) {
+      path[step] = getInput(index, step);
+    }
+    return path;
+  }
+
+  /**
+   * Finds the placement of a final state.
+   *
+   * @param piece Final state packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   * @return Index of the placement, -1 if the state is not reachable.
+   */
+  public int indexOf(int piece) {
+    for (int i = 0; i < size; ++i) {
+      if (pieces[i] == piece) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
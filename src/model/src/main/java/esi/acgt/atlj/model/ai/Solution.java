@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+/**
+ * Sequence of placements found by a {@link Solver}, each with the shortest path of inputs reaching
+ * it on the board left by the previous ones.
+ */
+public final class Solution {
+
+  private final int[] pieces;
+  private final Input[][] paths;
+
+  Solution(int[] pieces, Input[][] paths) {
+    this.pieces = pieces;
+    this.paths = paths;
+  }
+
+  /**
+   * Gets the number of placements of the solution.
+   *
+   * @return Number of pieces to place.
+   */
+  public int size() {
+    return pieces.length;
+  }
+
+  /**
+   * Gets the final state of a placement.
+   *
+   * @param index Index of the placement, in the order of the queue.
+   * @return State packed by {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   */
+  public int getPiece(int index) {
+    return pieces[index];
+  }
+
+  /**
+   * Gets the path reaching a placement.
+   *
+   * @param index Index of the placement, in the order of the queue.
+   * @return A copy of the inputs, the hard drop included.
+   */
+  public Input[] getPath(int index) {
+    return paths[index].clone();
+  }
+}
@@ -0,0 +1,391 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solver of perfect clears and finesse. A perfect clear places the pieces of the queue, in order,
+ * so that the board ends empty. The search deepens the number of pieces used: with {@code n}
+ * pieces, the cells of the board plus the {@code 4n} cells of the pieces fill exactly
+ * {@code h} lines, so every piece must stay in the {@code h} bottom lines. Placements leaving
+ * above these lines, or leaving an empty region whose size is not a multiple of four, are pruned,
+ * and the positions proven to fail are memoized in a transposition table keyed by a hash of the
+ * board, shared by the workers when the root placements are searched in parallel.
+ *
+ * <p>A solver is thread safe but runs one search at a time.
+ */
+public final class Solver {
+
+  /**
+   * Highest perfect clear searched, the empty cells of the lines fitting in a long.
+   */
+  public static final int MAX_HEIGHT = 6;
+
+  /**
+   * Number of bits of the index of a slot of the transposition table.
+   */
+  private static final int TABLE_BITS = 16;
+
+  /**
+   * Number of nodes between two checks of the deadline.
+   */
+  private static final int CLOCK_PERIOD = 256;
+
+  private static final long LEFT_COLUMN = columnMask(0);
+  private static final long RIGHT_COLUMN = columnMask(WIDTH - 1);
+
+  /**
+   * Pool searching the root placements, null to search on the calling thread.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Hashes of the positions proven to fail, one position per slot, the last one winning.
+   */
+  private final AtomicLongArray table = new AtomicLongArray(1 << TABLE_BITS);
+
+  private final MoveGenerator generator = new MoveGenerator();
+  private final Placements placements = new Placements();
+
+  /**
+   * Number of searches, mixed in the hashes so the positions of a previous search never match.
+   */
+  private long searches;
+
+  /**
+   * Creates a solver searching on the calling thread.
+   */
+  public Solver() {
+    this(null);
+  }
+
+  /**
+   * Creates a solver.
+   *
+   * @param pool Pool searching the root placements in parallel, null to search on the calling
+   *             thread.
+   */
+  public Solver(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Searches a perfect clear using the fewest pieces of a queue.
+   *
+   * @param board   Board to clear, only read.
+   * @param queue   Pieces to place, in order.
+   * @param timeout Maximum duration of the search in milliseconds.
+   * @return Placements clearing the board, null if there is none or if the time is out.
+   */
+  public synchronized Solution perfectClear(Bitboard board, Mino[] queue, long timeout) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    int filled = 0;
+    for (int y = board.getTop(); y < HEIGHT; ++y) {
+      filled += board.getFill(y);
+    }
+    int lines = HEIGHT - board.getTop();
+    for (int limit = 1; limit <= queue.length; ++limit) {
+      int cells = filled + ShapeTable.SIZE * limit;
+      int height = cells / WIDTH;
+      if (cells % WIDTH != 0 || height < lines) {
+        continue;
+      }
+      if (height > MAX_HEIGHT || System.nanoTime() > deadline) {
+        return null;
+      }
+      searches++;
+      Solution solution = pool == null
+          ? new Search(queue, limit, deadline).solve(board, height)
+          : solveInParallel(board, queue, limit, height, deadline);
+      if (solution != null) {
+        return solution;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Searches a perfect clear on a board given as a matrix of minos.
+   *
+   * @param board   Board to clear, lines first.
+   * @param queue   Pieces to place, in order.
+   * @param timeout Maximum duration of the search in milliseconds.
+   * @return Placements clearing the board, null if there is none or if the time is out.
+   */
+  public Solution perfectClear(Mino[][] board, Mino[] queue, long timeout) {
+    Bitboard bitboard = new Bitboard();
+    for (int y = 0; y < HEIGHT; ++y) {
+      for (int x = 0; x < WIDTH; ++x) {
+        bitboard.setMino(x, y, board[y][x]);
+      }
+    }
+    return perfectClear(bitboard, queue, timeout);
+  }
+
+  /**
+   * Finds the shortest path of inputs placing a piece on given cells.
+   *
+   * @param board  Board to place the piece on, only read.
+   * @param piece  Initial state of the piece, packed by {@link PieceState}.
+   * @param target Final state of the piece, any state covering the same cells being accepted.
+   * @return Inputs reaching the target, the hard drop included, null if it is not reachable.
+   */
+  public synchronized Input[] finesse(Bitboard board, int piece, int target) {
+    long cells = MoveGenerator.footprint(target);
+    int count = generator.generate(board, piece, placements);
+    for (int i = 0; i < count; ++i) {
+      if (MoveGenerator.footprint(placements.getPiece(i)) == cells) {
+        return placements.getPath(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Searches the placements of the first piece in parallel, the first solution found winning.
+   */
+  private Solution solveInParallel(Bitboard board, Mino[] queue, int limit, int height,
+      long deadline) {
+    Search root = new Search(queue, limit, deadline);
+    int count = root.generate(board, 0);
+    AtomicReference<Solution> found = new AtomicReference<>();
+    List<RecursiveAction> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      int placement = i;
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          Search search = new Search(queue, limit, deadline);
+          search.found = found;
+          if (search.tryPlacement(board, 0, height, root.placements[0], placement)) {
+            found.compareAndSet(null, search.toSolution());
+          }
+        }
+      });
+    }
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+    return found.get();
+  }
+
+  /**
+   * Gets the mask of a column in the empty cells of {@link #MAX_HEIGHT} lines.
+   */
+  private static long columnMask(int x) {
+    long mask = 0;
+    for (int line = 0; line < MAX_HEIGHT; ++line) {
+      mask |= 1L << (line * WIDTH + x);
+    }
+    return mask;
+  }
+
+  /**
+   * Tells if the empty cells of the bottom lines of a board can be filled by whole pieces: every
+   * empty region must be a multiple of four cells.
+   *
+   * @param board  Board to check.
+   * @param height Number of bottom lines to fill.
+   * @return False if a region cannot be filled.
+   */
+  static boolean isFillable(Bitboard board, int height) {
+    long empty = 0;
+    for (int line = 0; line < height; ++line) {
+      long free = ~board.getLine(HEIGHT - height + line) & Bitboard.FULL_LINE;
+      empty |= free << (line * WIDTH);
+    }
+    while (empty != 0) {
+      long region = Long.lowestOneBit(empty);
+      long grown = region;
+      do {
+        region = grown;
+        grown = (region | (region << 1 & ~LEFT_COLUMN) | (region >>> 1 & ~RIGHT_COLUMN)
+            | region << WIDTH | region >>> WIDTH) & empty;
+      } while (grown != region);
+      if (Long.bitCount(region) % ShapeTable.SIZE != 0) {
+        return false;
+      }
+      empty &= ~region;
+    }
+    return true;
+  }
+
+  /**
+   * Depth first search of the placements of the queue up to a number of pieces, with its own
+   * buffers for each depth.
+   */
+  private final class Search {
+
+    private final Mino[] queue;
+    private final int limit;
+    private final long deadline;
+    private final MoveGenerator generator = new MoveGenerator();
+    private final Placements[] placements;
+    private final Bitboard[] boards;
+    private final int[] chosen;
+
+    /**
+     * Solution found by another worker, to stop searching, null when searching alone.
+     */
+    private AtomicReference<Solution> found;
+
+    private int nodes;
+    private boolean timedOut;
+
+    Search(Mino[] queue, int limit, long deadline) {
+      this.queue = queue;
+      this.limit = limit;
+      this.deadline = deadline;
+      this.placements = new Placements[limit];
+      this.boards = new Bitboard[limit + 1];
+      this.chosen = new int[limit];
+      for (int i = 0; i < limit; ++i) {
+        placements[i] = new Placements();
+      }
+      for (int i = 0; i <= limit; ++i) {
+        boards[i] = new Bitboard();
+      }
+    }
+
+    Solution solve(Bitboard board, int height) {
+      return search(board, 0, height) ? toSolution() : null;
+    }
+
+    int generate(Bitboard board, int depth) {
+      return generator.generate(board, PieceState.spawn(queue[depth]), placements[depth]);
+    }
+
+    /**
+     * Searches the placements of a piece of the queue.
+     *
+     * @param board  Board before the piece.
+     * @param depth  Index of the piece in the queue.
+     * @param height Number of bottom lines left to fill.
+     * @return True if the board can be cleared.
+     */
+    private boolean search(Bitboard board, int depth, int height) {
+      if (depth == limit) {
+        return board.getTop() == HEIGHT;
+      }
+      if (isStopped()) {
+        return false;
+      }
+      long key = hash(board, depth);
+      int slot = (int) (key >>> (Long.SIZE - TABLE_BITS));
+      if (table.get(slot) == key) {
+        return false;
+      }
+
+      int count = generate(board, depth);
+      for (int i = 0; i < count; ++i) {
+        if (tryPlacement(board, depth, height, placements[depth], i)) {
+          return true;
+        }
+      }
+      if (!isStopped()) {
+        table.set(slot, key);
+      }
+      return false;
+    }
+
+    /**
+     * Places a piece and searches the next ones.
+     *
+     * @return True if the board can be cleared after the placement.
+     */
+    boolean tryPlacement(Bitboard board, int depth, int height, Placements candidates,
+        int index) {
+      int piece = candidates.getPiece(index);
+      int shape = PieceState.shape(piece);
+      if (PieceState.y(piece) + ShapeTable.minY(shape) < HEIGHT - height) {
+        return false;
+      }
+      Bitboard next = boards[depth + 1];
+      next.copyFrom(board);
+      int touched = next.place(PieceState.type(piece), PieceState.orientation(piece),
+          PieceState.x(piece), PieceState.y(piece));
+      int lines = next.fullLines(touched);
+      next.removeLines(lines);
+      int remaining = height - Integer.bitCount(lines);
+      if (!isFillable(next, remaining)) {
+        return false;
+      }
+      chosen[depth] = index;
+      if (depth == 0) {
+        placements[0] = candidates;
+      }
+      return search(next, depth + 1, remaining);
+    }
+
+    private boolean isStopped() {
+      if (++nodes % CLOCK_PERIOD == 0 && System.nanoTime() > deadline) {
+        timedOut = true;
+      }
+      return timedOut || (found != null && found.get() != null);
+    }
+
+    /**
+     * Hashes a position: the occupied cells of the board, kept by the board itself, and the number
+     * of pieces placed, for the current search.
+     */
+    private long hash(Bitboard board, int depth) {
+      long hash = mix(searches * 0x9E3779B97F4A7C15L + limit * 31L + depth) ^ board.getShapeHash();
+      return hash == 0 ? 1 : hash;
+    }
+
+    Solution toSolution() {
+      int[] pieces = new int[limit];
+      Input[][] paths = new Input[limit][];
+      for (int i = 0; i < limit; ++i) {
+        pieces[i] = placements[i].getPiece(chosen[i]);
+        paths[i] = placements[i].getPath(chosen[i]);
+      }
+      return new Solution(pieces, paths);
+    }
+  }
+
+  private static long mix(long value) {
+    long z = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
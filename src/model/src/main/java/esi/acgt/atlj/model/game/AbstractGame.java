@@ -24,20 +24,32 @@
 
 package esi.acgt.atlj.model.game;
 
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
 import esi.acgt.atlj.model.tetrimino.ITetrimino;
 import esi.acgt.atlj.model.tetrimino.Mino;
 import esi.acgt.atlj.model.tetrimino.OTetrimino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import esi.acgt.atlj.model.tetrimino.Tetrimino;
 import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * State shared by the games of both players. A game is confined to its {@link GameActor}: every
+ * change of the game has to run as a task posted with {@link #submit(Runnable)}, so the state is
+ * written by a single thread at a time and needs no lock. Other threads read the last
+ * {@link GameSnapshot} published by the game instead.
+ */
 public abstract class AbstractGame implements GameInterface, Serializable {
 
-  protected Mino[][] minos;
+  protected Bitboard board;
   protected int score;
   protected int level;
   protected String username;
@@ -47,18 +59,164 @@ public abstract class AbstractGame implements GameInterface, Serializable {
   protected TetriminoInterface nextTetrimino;
   protected PropertyChangeSupport changeSupport;
 
+  /**
+   * Tetrimino no longer used by the game, reused as the view of the next piece instead of
+   * allocating one.
+   */
+  protected TetriminoInterface spare;
+
+  /**
+   * Event loop running every change of the game.
+   */
+  private final transient GameActor actor;
+
+  /**
+   * State of the game at the end of the last update.
+   */
+  private volatile GameSnapshot snapshot;
+
+  /**
+   * Listeners of the changes of the board.
+   */
+  private final List<BoardListener> boardListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Listeners of the coalesced updates of the game.
+   */
+  private final List<GameUpdateListener> updateListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Tells if the snapshots of the board are sent to the "board" property listeners on each change.
+   */
+  private boolean boardSnapshots;
+
+  /**
+   * Number of updates in progress, only the outermost one being published.
+   */
+  private int updateDepth;
+
+  /**
+   * Board before the update in progress, only kept when snapshots are enabled.
+   */
+  private BoardSnapshot boardBefore;
+
+  /**
+   * Tells if every cell of the board has to be published by the update in progress.
+   */
+  private boolean boardReset;
+
+  /**
+   * Cells that may have changed during the update in progress, as positions {@code y * WIDTH + x}
+   * before the lines are cleared.
+   */
+  private int[] changedCells = new int[8];
+  private int changedSize;
+
+  /**
+   * Lines cleared during the update in progress.
+   */
+  private int clearedLines;
+
+  /**
+   * Property events of the update in progress, only the last event of each property being kept.
+   */
+  private final List<PropertyChangeEvent> pendingEvents = new ArrayList<>();
+
   public AbstractGame(String username) {
+    this(username, GameActor.shared());
+  }
+
+  /**
+   * Creates a game confined to an actor.
+   *
+   * @param username Username of the player.
+   * @param actor    Actor running the changes of the game.
+   */
+  public AbstractGame(String username, GameActor actor) {
+    this.actor = actor;
     this.username = username;
     this.score = 0;
     this.nbLine = 0;
     this.actualTetrimino = new OTetrimino();
     this.nextTetrimino = new ITetrimino();
     this.changeSupport = new PropertyChangeSupport(this);
-    minos = new Mino[HEIGHT][WIDTH];
+    board = new Bitboard();
+    this.snapshot = new GameSnapshot(this, null, BoardSnapshot.EMPTY);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submit(Runnable action) {
+    actor.execute(action);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public GameSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets the actor running the changes of the game.
+   *
+   * @return Actor of the game.
+   */
+  public GameActor getActor() {
+    return actor;
+  }
+
+  /**
+   * Publishes the state of the game to the readers of other threads.
+   */
+  protected void publishSnapshot() {
+    snapshot = new GameSnapshot(this, getSnapshotStatus(), snapshot.getBoardSnapshot());
+  }
+
+  /**
+   * Gets the status copied to the snapshots.
+   *
+   * @return Status of the game, null if the game has none.
+   */
+  protected GameStatus getSnapshotStatus() {
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean fits(TetriminoInterface tetrimino, int x, int y,
+      Orientation orientation) {
+    return !board.collides(tetrimino.getType(), orientation, x, y);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int dropDistance(TetriminoInterface tetrimino) {
+    return board.dropDistance(tetrimino.getType(), tetrimino.getOrientation(), tetrimino.getX(),
+        tetrimino.getY());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int dropDistance(TetriminoInterface tetrimino, int max) {
+    return board.dropDistance(tetrimino.getType(), tetrimino.getOrientation(), tetrimino.getX(),
+        tetrimino.getY(), max);
   }
 
+  /**
+   * {@inheritDoc}
+   */
   @Override
-  public synchronized boolean[][] generateFreeMask(int height, int width, int xStart, int yStart,
+  public boolean[][] generateFreeMask(int height, int width, int xStart, int yStart,
       int xMargin, int yMargin) {
     if (width < 1) {
       throw new IllegalArgumentException("The width of the area can be null");
@@ -71,19 +229,9 @@ public abstract class AbstractGame implements GameInterface, Serializable {
     boolean[][] mask = new boolean[height][width];
     for (int i = 0; i < mask.length; i++) {
       for (int j = 0; j < mask[i].length; j++) {
-        int x = xStart - xMargin + j;
-        int y = yStart - yMargin + i;
-
-        boolean outOfBound = x < 0 || y < 0 || x > WIDTH - 1 || y > HEIGHT - 1;
-        boolean notFree = !outOfBound && minos[y][x] != null;
-        if (outOfBound || notFree) {
-          mask[i][j] = false;
-          continue;
-        }
-        mask[i][j] = true;
+        mask[i][j] = !board.isOccupied(xStart - xMargin + j, yStart - yMargin + i);
       }
     }
-
     return mask;
   }
 
@@ -91,7 +239,7 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized int getScore() {
+  public int getScore() {
     return score;
   }
 
@@ -106,7 +254,7 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized String getUsername() {
+  public String getUsername() {
     return username;
   }
 
@@ -114,7 +262,7 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized Mino getHold() {
+  public Mino getHold() {
     return this.hold;
   }
 
@@ -122,7 +270,7 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized TetriminoInterface getActualTetrimino() {
+  public TetriminoInterface getActualTetrimino() {
     return actualTetrimino;
   }
 
@@ -130,28 +278,47 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized TetriminoInterface getNextTetrimino() {
+  public TetriminoInterface getNextTetrimino() {
     return nextTetrimino;
   }
 
+  /**
+   * Gets the board of locked minos, without the falling tetrimino. The board belongs to the game:
+   * it must only be read, from the actor of the game.
+   *
+   * @return Board of the game.
+   */
+  public Bitboard getBitboard() {
+    return board;
+  }
+
+  /**
+   * Gets the Zobrist hash of the game: the minos of the board, the held mino and the falling
+   * tetrimino. The hash of the board is kept up to date by the board as its cells change, the keys
+   * of the held mino and of the tetrimino are added on each call, so the hash costs no more than a
+   * few operations whatever has moved.
+   *
+   * @return Hash of the game, equal for games in the same state.
+   */
+  public long getHash() {
+    return board.getHash() ^ Zobrist.hold(hold) ^ Zobrist.piece(PieceState.of(actualTetrimino));
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public synchronized Mino[][] getBoard() {
-    Mino[][] copyBoard = new Mino[this.minos.length][];
-    for (int i = 0; i < this.minos.length; i++) {
-      copyBoard[i] = Arrays.copyOf(this.minos[i], this.minos[i].length);
-    }
+  public Mino[][] getBoard() {
+    Mino[][] copyBoard = board.toMinos();
 
     if (actualTetrimino != null) {
       for (int x = 0; x < this.actualTetrimino.getMinos().length; x++) {
         for (int y = 0; y < this.actualTetrimino.getMinos()[x].length; y++) {
           if ((this.actualTetrimino.getMinos()[x][y] != null
               && x + this.actualTetrimino.getY() >= 0)
-              && (x + this.actualTetrimino.getY() < this.minos.length)
+              && (x + this.actualTetrimino.getY() < HEIGHT)
               && (y + this.actualTetrimino.getX() >= 0)
-              && (y + this.actualTetrimino.getX() < this.minos[x].length)) {
+              && (y + this.actualTetrimino.getX() < WIDTH)) {
             copyBoard[x + this.actualTetrimino.getY()][y
                 + this.actualTetrimino.getX()] = this.actualTetrimino.getMinos()[x][y];
           }
@@ -166,7 +333,7 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized void addPropertyChangeListener(PropertyChangeListener listener) {
+  public void addPropertyChangeListener(PropertyChangeListener listener) {
     changeSupport.addPropertyChangeListener(listener);
   }
 
@@ -174,19 +341,262 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    * {@inheritDoc}
    */
   @Override
-  public synchronized void removePropertyChangeListener(PropertyChangeListener listener) {
+  public void removePropertyChangeListener(PropertyChangeListener listener) {
     changeSupport.removePropertyChangeListener(listener);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addBoardListener(BoardListener listener) {
+    boardListeners.add(listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void removeBoardListener(BoardListener listener) {
+    boardListeners.remove(listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addUpdateListener(GameUpdateListener listener) {
+    updateListeners.add(listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void removeUpdateListener(GameUpdateListener listener) {
+    updateListeners.remove(listener);
+  }
+
+  /**
+   * Enables the "board" property events carrying the {@link BoardSnapshot} before and after each
+   * change, for listeners that cannot use {@link BoardListener}.
+   *
+   * @param boardSnapshots True to send the snapshots of the board.
+   */
+  public void setBoardSnapshots(boolean boardSnapshots) {
+    this.boardSnapshots = boardSnapshots;
+  }
+
+  /**
+   * Starts an update of the game. Every change made until the matching {@link #commitUpdate()} is
+   * collected and published once, as a single change of the board and the last value of each
+   * property. Updates can be nested, only the outermost one being published.
+   */
+  public void beginUpdate() {
+    if (updateDepth++ > 0) {
+      return;
+    }
+    boardBefore = boardSnapshots ? snapshot.getBoardSnapshot() : null;
+    boardReset = false;
+    changedSize = 0;
+    clearedLines = 0;
+    markTetrimino(actualTetrimino);
+  }
+
+  /**
+   * Ends an update of the game, publishing it to the hooks and the listeners if it is the outermost
+   * update.
+   */
+  public void commitUpdate() {
+    if (updateDepth > 1) {
+      updateDepth--;
+      return;
+    }
+    flushUpdate();
+    updateDepth = 0;
+
+    BoardChange change = buildBoardChange();
+    BoardSnapshot oldBoard = boardBefore;
+    boardBefore = null;
+    List<PropertyChangeEvent> events = pendingEvents.isEmpty() ? List.of()
+        : List.copyOf(pendingEvents);
+    pendingEvents.clear();
+    publishSnapshot();
+
+    if (oldBoard != null) {
+      this.changeSupport.firePropertyChange("board", oldBoard, snapshot.getBoardSnapshot());
+    }
+    for (PropertyChangeEvent event : events) {
+      this.changeSupport.firePropertyChange(event);
+    }
+    if (change != null) {
+      for (BoardListener listener : boardListeners) {
+        listener.boardChanged(change);
+      }
+    }
+    if (change != null || !events.isEmpty()) {
+      GameUpdate update = new GameUpdate(change, events);
+      for (GameUpdateListener listener : updateListeners) {
+        listener.gameUpdated(update);
+      }
+    }
+  }
+
+  /**
+   * Called once the changes of the outermost update are all done, before the listeners are told.
+   * Games override it to send what the update has changed to their hooks at once.
+   */
+  protected void flushUpdate() {
+  }
+
+  /**
+   * Records a property event in the update in progress, or publishes it at once if no update is in
+   * progress.
+   *
+   * @param propertyName Name of the property.
+   * @param oldValue     Old value of the property.
+   * @param newValue     New value of the property.
+   */
+  protected void firePropertyChange(String propertyName, Object oldValue,
+      Object newValue) {
+    beginUpdate();
+    PropertyChangeEvent event = new PropertyChangeEvent(this, propertyName, oldValue, newValue);
+    pendingEvents.removeIf(pending -> pending.getPropertyName().equals(propertyName));
+    pendingEvents.add(event);
+    commitUpdate();
+  }
+
+  /**
+   * Tells the listeners that every cell of the board may have changed.
+   */
+  protected void fireBoardReset() {
+    beginUpdate();
+    boardReset = true;
+    if (boardBefore != null) {
+      boardBefore = BoardSnapshot.EMPTY;
+    }
+    commitUpdate();
+  }
+
+  /**
+   * Builds the change of the board made by the update in progress.
+   *
+   * @return The change or null if no listener needs it or the board has not changed.
+   */
+  private BoardChange buildBoardChange() {
+    if (!isBoardObserved()) {
+      return null;
+    }
+    if (boardReset) {
+      int[] cells = new int[HEIGHT * WIDTH];
+      for (int position = 0; position < cells.length; ++position) {
+        cells[position] = BoardChange.pack(position,
+            displayedMino(position % WIDTH, position / WIDTH));
+      }
+      return new BoardChange(cells, 0);
+    }
+
+    int before = changedSize;
+    markTetrimino(actualTetrimino);
+    if (clearedLines == 0 && before * 2 == changedSize
+        && Arrays.equals(changedCells, 0, before, changedCells, before, changedSize)) {
+      return null;
+    }
+
+    int[] cells = new int[changedSize];
+    int size = 0;
+    for (int i = 0; i < changedSize; ++i) {
+      int position = changedCells[i];
+      if (i < before) {
+        int y = position / WIDTH;
+        if ((clearedLines & (1 << y)) != 0) {
+          continue;
+        }
+        position += Integer.bitCount(clearedLines >>> y) * WIDTH;
+      }
+      cells[size++] = BoardChange.pack(position, displayedMino(position % WIDTH, position / WIDTH));
+    }
+    return new BoardChange(Arrays.copyOf(cells, size), clearedLines);
+  }
+
+  private boolean isBoardObserved() {
+    return !boardListeners.isEmpty() || !updateListeners.isEmpty();
+  }
+
+  /**
+   * Adds the cells of a tetrimino to the cells changed by the update in progress.
+   *
+   * @param tetrimino Tetrimino to add, may be null.
+   */
+  protected void markTetrimino(TetriminoInterface tetrimino) {
+    markPiece(PieceState.of(tetrimino));
+  }
+
+  /**
+   * Adds the cells of a piece to the cells changed by the update in progress.
+   *
+   * @param piece Packed state of the piece, {@link PieceState#NONE} for no piece.
+   */
+  protected void markPiece(int piece) {
+    if (piece == PieceState.NONE || !isBoardObserved()) {
+      return;
+    }
+    int shape = PieceState.shape(piece);
+    for (int i = ShapeTable.minY(shape); i <= ShapeTable.maxY(shape); ++i) {
+      int y = PieceState.y(piece) + i;
+      int line = ShapeTable.line(shape, i);
+      while (line != 0) {
+        int x = PieceState.x(piece) + Integer.numberOfTrailingZeros(line);
+        line &= line - 1;
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+          continue;
+        }
+        if (changedSize == changedCells.length) {
+          changedCells = Arrays.copyOf(changedCells, changedSize * 2);
+        }
+        changedCells[changedSize++] = y * WIDTH + x;
+      }
+    }
+  }
+
+  /**
+   * Gets the mino displayed at a cell, the current tetrimino hiding the board.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return Mino at the cell or null if it is empty.
+   */
+  private Mino displayedMino(int x, int y) {
+    if (actualTetrimino != null) {
+      int shape = ShapeTable.index(actualTetrimino.getType(), actualTetrimino.getOrientation());
+      int i = y - actualTetrimino.getY();
+      int j = x - actualTetrimino.getX();
+      if (i >= ShapeTable.minY(shape) && i <= ShapeTable.maxY(shape) && j >= 0
+          && (ShapeTable.line(shape, i) & (1 << j)) != 0) {
+        return actualTetrimino.getType();
+      }
+    }
+    return board.getMino(x, y);
+  }
+
+  /**
+   * Gets the number of lines the player has destroyed.
+   *
+   * @return Number of lines.
+   */
+  public int getNbLine() {
+    return nbLine;
+  }
+
   /**
    * Sets the number of lines player has destroyed
    *
    * @param nbLine Number of lines to set
    */
-  public synchronized void setNbLine(int nbLine) {
+  public void setNbLine(int nbLine) {
     int oldNbLine = this.nbLine;
     this.nbLine = nbLine;
-    this.changeSupport.firePropertyChange("line", oldNbLine, this.nbLine);
+    firePropertyChange("line", oldNbLine, this.nbLine);
   }
 
   /**
@@ -210,57 +620,204 @@ public abstract class AbstractGame implements GameInterface, Serializable {
    */
   public abstract void setActualTetrimino(TetriminoInterface actualTetrimino);
 
+  /**
+   * Sets the current tetrimino from a packed state, the current tetrimino being reused as its view
+   * when there is one.
+   *
+   * @param piece Packed state of the piece, {@link PieceState#NONE} for no piece.
+   */
+  public void setActualPiece(int piece) {
+    beginUpdate();
+    if (piece == PieceState.NONE) {
+      if (actualTetrimino != null && actualTetrimino != nextTetrimino) {
+        spare = actualTetrimino;
+      }
+      setActualTetrimino(null);
+    } else if (actualTetrimino != null && actualTetrimino != nextTetrimino) {
+      actualTetrimino.setState(piece);
+    } else {
+      setActualTetrimino(takeSpare(piece));
+    }
+    commitUpdate();
+  }
+
+  /**
+   * Sets the next tetrimino to a new piece of a type, reusing a tetrimino the game no longer uses.
+   *
+   * @param mino Type of the next piece.
+   */
+  public void setNextMino(Mino mino) {
+    setNextTetrimino(takeSpare(PieceState.spawn(mino)));
+  }
+
+  /**
+   * Takes the spare tetrimino as the view of a piece, or creates one if there is none.
+   *
+   * @param piece Packed state of the piece.
+   * @return Tetrimino in the state of the piece.
+   */
+  private TetriminoInterface takeSpare(int piece) {
+    TetriminoInterface view = spare;
+    spare = null;
+    if (view == null || view == actualTetrimino || view == nextTetrimino) {
+      return Tetrimino.fromState(piece);
+    }
+    view.setState(piece);
+    return view;
+  }
+
   /**
    * Fire a propertChange on the status to the view
    *
    * @param status  new Status to display
    * @param opacity opcaity of this new status
    */
-  public synchronized void playerStatus(String status, double opacity) {
-    this.changeSupport.firePropertyChange("status", status, opacity);
+  public void playerStatus(String status, double opacity) {
+    firePropertyChange("status", status, opacity);
   }
 
-  public synchronized void removeLines(List<Integer> lines) {
-    var oldBoard = getBoard();
-    lines.sort(Collections.reverseOrder());
-    int removed = 0;
-    for (var line : lines) {
-      if (line > minos.length - 1 || line < 0) {
-        throw new IllegalArgumentException("You cannot remove a line that is out of the game");
-      }
+  public void removeLines(List<Integer> lines) {
+    removeLines(toMask(lines));
+  }
 
-      for (int i = line + removed; i >= 0; --i) {
-        for (int j = 0; j < minos[i].length; ++j) {
-          minos[i][j] = i != 0 ? minos[i - 1][j] : null;
-        }
-      }
-      removed++;
-    }
+  /**
+   * Removes lines from the board.
+   *
+   * @param lines Mask of the lines to remove, the bit {@code y} standing for the line {@code y}.
+   */
+  public void removeLines(int lines) {
+    beginUpdate();
+    clearLines(lines);
+    commitUpdate();
+  }
+
+  /**
+   * Removes lines from the board without notifying the listeners.
+   *
+   * @param lines Mask of the lines to remove.
+   */
+  protected void clearLines(int lines) {
+    board.removeLines(lines);
+    clearedLines |= lines;
     setLevel((nbLine / 10) + 1);
+  }
 
-    this.changeSupport.firePropertyChange("board", oldBoard, getBoard());
+  /**
+   * Converts a list of lines to a mask of lines.
+   *
+   * @param lines Index of the lines.
+   * @return Mask where the bit {@code y} is set for each line {@code y}.
+   */
+  public static int toMask(List<Integer> lines) {
+    int mask = 0;
+    for (int line : lines) {
+      if (line > HEIGHT - 1 || line < 0) {
+        throw new IllegalArgumentException("You cannot remove a line that is out of the game");
+      }
+      mask |= 1 << line;
+    }
+    return mask;
   }
 
   public void setLevel(int level) {
     this.level = level;
   }
 
-  public void placeTetrimino(TetriminoInterface tetrimino) {
-    var oldBoard = getBoard();
-    var tMinos = tetrimino.getMinos();
-    for (var i = 0; i < tMinos.length; ++i) {
-      for (var j = 0; j < tMinos[i].length; ++j) {
-        if (tMinos[i][j] == null) {
-          continue;
-        }
-        var line = tetrimino.getY() + i;
-        var col = tetrimino.getX() + j;
+  /**
+   * Locks a tetrimino of the opponent in one update: the tetrimino is placed, the lines it has
+   * completed are cleared and the score and number of lines are set. The opponent has no falling
+   * tetrimino until its next one moves.
+   *
+   * @param tetrimino    Locked tetrimino.
+   * @param clearedLines Mask of the cleared lines.
+   * @param score        Score after the lock.
+   * @param nbLines      Number of lines after the lock.
+   */
+  public void lockTetrimino(TetriminoInterface tetrimino, int clearedLines,
+      int score, int nbLines) {
+    lockTetrimino(tetrimino.getState(), clearedLines, score, nbLines);
+  }
 
-        if (!(line < 0 || col < 0) && line < minos.length && col < minos[line].length) {
-          minos[line][col] = tMinos[i][j];
-        }
-      }
+  /**
+   * Locks a piece of the opponent in one update, the piece being given by its packed state.
+   *
+   * @param piece        Packed state of the locked piece.
+   * @param clearedLines Mask of the cleared lines.
+   * @param score        Score after the lock.
+   * @param nbLines      Number of lines after the lock.
+   * @see #lockTetrimino(TetriminoInterface, int, int, int)
+   */
+  public void lockTetrimino(int piece, int clearedLines, int score, int nbLines) {
+    beginUpdate();
+    placePiece(piece);
+    setActualPiece(PieceState.NONE);
+    if (clearedLines != 0) {
+      clearLines(clearedLines);
     }
-    this.changeSupport.firePropertyChange("board", oldBoard, getBoard());
+    setScore(score);
+    setNbLine(nbLines);
+    commitUpdate();
+  }
+
+  /**
+   * Tells if the board matches the fingerprint of the board it mirrors.
+   *
+   * @param fingerprint Hash of the mirrored board.
+   * @return True if the board has the same hash.
+   * @see LockHandler#locked(int, int, int, int, long)
+   */
+  public boolean matches(long fingerprint) {
+    return board.getHash() == fingerprint;
+  }
+
+  /**
+   * Packs the board to resynchronize its mirrors: the colour plane of each line from the highest
+   * occupied one down to the bottom, the lines above it being empty.
+   *
+   * @return Colour planes of the occupied part of the board.
+   * @see #resync(int[])
+   */
+  public int[] packBoard() {
+    int[] colors = new int[HEIGHT - board.getTop()];
+    for (int i = 0; i < colors.length; ++i) {
+      colors[i] = board.getColors(board.getTop() + i);
+    }
+    return colors;
+  }
+
+  /**
+   * Overwrites the board with a board packed by its mirrored game.
+   *
+   * @param colors Colour planes of the bottom lines of the board.
+   * @see #packBoard()
+   */
+  public void resync(int[] colors) {
+    if (colors.length > HEIGHT) {
+      throw new IllegalArgumentException("The board has only " + HEIGHT + " lines");
+    }
+    beginUpdate();
+    for (int y = 0; y < HEIGHT; ++y) {
+      int i = y - (HEIGHT - colors.length);
+      board.setColors(y, i < 0 ? 0 : colors[i]);
+    }
+    fireBoardReset();
+    commitUpdate();
+  }
+
+  public void placeTetrimino(TetriminoInterface tetrimino) {
+    placePiece(tetrimino.getState());
+  }
+
+  /**
+   * Places a piece on the board.
+   *
+   * @param piece Packed state of the piece.
+   */
+  public void placePiece(int piece) {
+    beginUpdate();
+    board.place(PieceState.type(piece), PieceState.orientation(piece), PieceState.x(piece),
+        PieceState.y(piece));
+    markPiece(piece);
+    commitUpdate();
   }
 }
@@ -0,0 +1,544 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import java.io.Serializable;
+
+/**
+ * Board of locked minos stored as bitboards. Each line is kept as an occupancy mask where the bit
+ * {@code x} is set when the column {@code x} is occupied, and as a colour plane where each column
+ * takes {@link #COLOR_BITS} bits holding the ordinal of its mino plus one (zero meaning empty). The
+ * highest occupied line is kept up to date as minos are placed or removed, and so are the
+ * {@link Zobrist} hashes of the board, by toggling the keys of the cells that change.
+ */
+public class Bitboard implements Serializable {
+
+  /**
+   * Occupancy mask of a full line.
+   */
+  public static final int FULL_LINE = (1 << WIDTH) - 1;
+
+  /**
+   * Number of bits used by a column in the colour plane.
+   */
+  static final int COLOR_BITS = ShapeTable.COLOR_BITS;
+
+  /**
+   * Mask of a single column in the colour plane.
+   */
+  private static final int COLOR_MASK = (1 << COLOR_BITS) - 1;
+
+  /**
+   * Mask of the colour plane of a full line.
+   */
+  private static final int COLOR_PLANE = (1 << (WIDTH * COLOR_BITS)) - 1;
+
+  /**
+   * All minos indexed by their ordinal, cached to avoid cloning {@code Mino.values()}.
+   */
+  private static final Mino[] MINOS = Mino.values();
+
+  /**
+   * Occupancy mask of each line.
+   */
+  private final int[] lines;
+
+  /**
+   * Colour plane of each line.
+   */
+  private final int[] colors;
+
+  /**
+   * Index of the highest occupied line, {@code HEIGHT} when the board is empty.
+   */
+  private int top;
+
+  /**
+   * Mask of the lines changed since the last call to {@link #takeDirty()}.
+   */
+  private int dirty;
+
+  /**
+   * Zobrist hash of the minos of the board.
+   */
+  private long hash;
+
+  /**
+   * Zobrist hash of the occupied cells of the board, whatever their minos.
+   */
+  private long shapeHash;
+
+  /**
+   * Creates an empty board.
+   */
+  public Bitboard() {
+    this.lines = new int[HEIGHT];
+    this.colors = new int[HEIGHT];
+    this.top = HEIGHT;
+  }
+
+  /**
+   * Creates a copy of a board.
+   *
+   * @param other Board to copy.
+   */
+  public Bitboard(Bitboard other) {
+    this.lines = other.lines.clone();
+    this.colors = other.colors.clone();
+    this.top = other.top;
+    this.dirty = other.dirty;
+    this.hash = other.hash;
+    this.shapeHash = other.shapeHash;
+  }
+
+  /**
+   * Overwrites this board with the content of another one, without allocating.
+   *
+   * @param other Board to copy.
+   */
+  public void copyFrom(Bitboard other) {
+    System.arraycopy(other.lines, 0, lines, 0, HEIGHT);
+    System.arraycopy(other.colors, 0, colors, 0, HEIGHT);
+    this.top = other.top;
+    this.dirty = other.dirty;
+    this.hash = other.hash;
+    this.shapeHash = other.shapeHash;
+  }
+
+  /**
+   * Gets the occupancy mask of a line.
+   *
+   * @param y Index of the line.
+   * @return Occupancy mask of the line.
+   */
+  public int getLine(int y) {
+    return lines[y];
+  }
+
+  /**
+   * Gets the colour plane of a line.
+   *
+   * @param y Index of the line.
+   * @return Colour plane of the line, {@value #COLOR_BITS} bits per column.
+   */
+  public int getColors(int y) {
+    return colors[y];
+  }
+
+  /**
+   * Gets the lines changed since the previous call and forgets them.
+   *
+   * @return Mask of the changed lines, the bit {@code y} standing for the line {@code y}.
+   */
+  public int takeDirty() {
+    int changed = dirty;
+    dirty = 0;
+    return changed;
+  }
+
+  /**
+   * Gets the Zobrist hash of the board. Boards holding the same minos on the same cells have the
+   * same hash.
+   *
+   * @return Hash of the minos of the board.
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Gets the Zobrist hash of the occupied cells. Boards occupying the same cells have the same
+   * hash, whatever the minos on them.
+   *
+   * @return Hash of the occupancy of the board.
+   */
+  public long getShapeHash() {
+    return shapeHash;
+  }
+
+  /**
+   * Gets the number of occupied cells of a line.
+   *
+   * @param y Index of the line.
+   * @return Number of minos on the line.
+   */
+  public int getFill(int y) {
+    return Integer.bitCount(lines[y]);
+  }
+
+  /**
+   * Gets the highest occupied line.
+   *
+   * @return Index of the highest line holding a mino, {@code HEIGHT} if the board is empty.
+   */
+  public int getTop() {
+    return top;
+  }
+
+  /**
+   * Tells if a cell is occupied. Cells outside the board are considered occupied.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return True if the cell cannot receive a mino.
+   */
+  public boolean isOccupied(int x, int y) {
+    if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+      return true;
+    }
+    return (lines[y] & (1 << x)) != 0;
+  }
+
+  /**
+   * Gets the mino at a given cell.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return The mino or null if the cell is empty.
+   */
+  public Mino getMino(int x, int y) {
+    int color = (colors[y] >>> (x * COLOR_BITS)) & COLOR_MASK;
+    return color == 0 ? null : MINOS[color - 1];
+  }
+
+  /**
+   * Sets the mino of a cell.
+   *
+   * @param x    Column of the cell.
+   * @param y    Line of the cell.
+   * @param mino Mino to set or null to empty the cell.
+   */
+  public void setMino(int x, int y, Mino mino) {
+    int shift = x * COLOR_BITS;
+    dirty |= 1 << y;
+    toggle(x, y);
+    colors[y] &= ~(COLOR_MASK << shift);
+    if (mino == null) {
+      lines[y] &= ~(1 << x);
+      if (y == top) {
+        while (top < HEIGHT && lines[top] == 0) {
+          top++;
+        }
+      }
+    } else {
+      lines[y] |= 1 << x;
+      colors[y] |= (mino.ordinal() + 1) << shift;
+      top = Math.min(top, y);
+      toggle(x, y);
+    }
+  }
+
+  /**
+   * Rewrites a line from its colour plane.
+   *
+   * @param y      Index of the line.
+   * @param colors Colour plane of the line, {@value #COLOR_BITS} bits per column.
+   * @see #getColors(int)
+   */
+  public void setColors(int y, int colors) {
+    toggleLines(y, y);
+    int line = 0;
+    for (int x = 0; x < WIDTH; ++x) {
+      if (((colors >>> (x * COLOR_BITS)) & COLOR_MASK) != 0) {
+        line |= 1 << x;
+      }
+    }
+    this.lines[y] = line;
+    this.colors[y] = colors & COLOR_PLANE;
+    dirty |= 1 << y;
+    toggleLines(y, y);
+    if (line != 0) {
+      top = Math.min(top, y);
+    } else if (y == top) {
+      while (top < HEIGHT && lines[top] == 0) {
+        top++;
+      }
+    }
+  }
+
+  /**
+   * Toggles the keys of a cell in the hashes, removing the mino on it from the hashes or adding it.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   */
+  private void toggle(int x, int y) {
+    int color = (colors[y] >>> (x * COLOR_BITS)) & COLOR_MASK;
+    if (color != 0) {
+      hash ^= Zobrist.mino(x, y, MINOS[color - 1]);
+      shapeHash ^= Zobrist.cell(x, y);
+    }
+  }
+
+  /**
+   * Toggles the keys of every cell of some lines in the hashes.
+   *
+   * @param from First line.
+   * @param to   Last line, included.
+   */
+  private void toggleLines(int from, int to) {
+    for (int y = from; y <= to; ++y) {
+      for (int line = lines[y]; line != 0; line &= line - 1) {
+        toggle(Integer.numberOfTrailingZeros(line), y);
+      }
+    }
+  }
+
+  /**
+   * Tells if a line is full.
+   *
+   * @param y Index of the line.
+   * @return True if every column of the line is occupied.
+   */
+  public boolean isFull(int y) {
+    return lines[y] == FULL_LINE;
+  }
+
+  /**
+   * Selects the full lines among some lines.
+   *
+   * @param candidates Mask of the lines to check, the bit {@code y} standing for the line {@code y}.
+   * @return Mask of the candidate lines that are full.
+   */
+  public int fullLines(int candidates) {
+    int full = 0;
+    while (candidates != 0) {
+      int line = Integer.numberOfTrailingZeros(candidates);
+      if (lines[line] == FULL_LINE) {
+        full |= 1 << line;
+      }
+      candidates &= candidates - 1;
+    }
+    return full;
+  }
+
+  /**
+   * Tells if a line is empty.
+   *
+   * @param y Index of the line.
+   * @return True if no column of the line is occupied.
+   */
+  public boolean isEmpty(int y) {
+    return lines[y] == 0;
+  }
+
+  /**
+   * Tells if a tetrimino placed at a given position overlaps a mino or leaves the board.
+   *
+   * @param type        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @param x           Column of the top left corner of the tetrimino.
+   * @param y           Line of the top left corner of the tetrimino.
+   * @return True if the tetrimino cannot be placed there.
+   */
+  public boolean collides(Mino type, Orientation orientation, int x, int y) {
+    int shape = ShapeTable.index(type, orientation);
+    int top = y + ShapeTable.minY(shape);
+    int bottom = y + ShapeTable.maxY(shape);
+    if (x + ShapeTable.minX(shape) < 0 || x + ShapeTable.maxX(shape) >= WIDTH
+        || top < 0 || bottom >= HEIGHT) {
+      return true;
+    }
+
+    for (int line = top; line <= bottom; ++line) {
+      if ((lines[line] & shift(ShapeTable.line(shape, line - y), x)) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Computes how many lines a tetrimino can fall before landing, sweeping its packed lines down the
+   * board.
+   *
+   * @param type        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @param x           Column of the top left corner of the tetrimino.
+   * @param y           Line of the top left corner of the tetrimino.
+   * @return Number of free lines below the tetrimino.
+   */
+  public int dropDistance(Mino type, Orientation orientation, int x, int y) {
+    return dropDistance(type, orientation, x, y, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Computes how many lines a tetrimino can fall before landing, up to a limit, so that a fall of
+   * a few lines only checks those lines.
+   *
+   * @param type        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @param x           Column of the top left corner of the tetrimino.
+   * @param y           Line of the top left corner of the tetrimino.
+   * @param max         Most lines to sweep.
+   * @return Number of free lines below the tetrimino, at most {@code max}.
+   */
+  public int dropDistance(Mino type, Orientation orientation, int x, int y, int max) {
+    int distance = 0;
+    while (distance < max && !collides(type, orientation, x, y + distance + 1)) {
+      distance++;
+    }
+    return distance;
+  }
+
+  /**
+   * Writes a tetrimino on the board. Minos falling outside of the board are ignored.
+   *
+   * @param type        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @param x           Column of the top left corner of the tetrimino.
+   * @param y           Line of the top left corner of the tetrimino.
+   * @return Mask of the lines that received a mino, the bit {@code y} standing for the line
+   *     {@code y}.
+   */
+  public int place(Mino type, Orientation orientation, int x, int y) {
+    int shape = ShapeTable.index(type, orientation);
+    int touched = 0;
+    for (int i = ShapeTable.minY(shape); i <= ShapeTable.maxY(shape); ++i) {
+      int line = y + i;
+      if (line < 0 || line >= HEIGHT) {
+        continue;
+      }
+      int mask = shift(ShapeTable.line(shape, i), x) & FULL_LINE;
+      int color = shift(ShapeTable.colorLine(shape, i), x * COLOR_BITS) & COLOR_PLANE;
+      if (mask == 0) {
+        continue;
+      }
+      for (int bits = mask; bits != 0; bits &= bits - 1) {
+        toggle(Integer.numberOfTrailingZeros(bits), line);
+      }
+      lines[line] |= mask;
+      colors[line] = (colors[line] & ~spread(mask)) | color;
+      touched |= 1 << line;
+      top = Math.min(top, line);
+      for (int bits = mask; bits != 0; bits &= bits - 1) {
+        toggle(Integer.numberOfTrailingZeros(bits), line);
+      }
+    }
+    dirty |= touched;
+    return touched;
+  }
+
+  /**
+   * Shifts a packed line to a column, to the left for positive columns and to the right for
+   * negative ones.
+   *
+   * @param bits   Packed line.
+   * @param offset Number of bits to shift.
+   * @return The shifted line.
+   */
+  static int shift(int bits, int offset) {
+    return offset >= 0 ? bits << offset : bits >>> -offset;
+  }
+
+  /**
+   * Spreads an occupancy mask to the colour plane, every occupied column becoming a full colour
+   * slot.
+   *
+   * @param mask Occupancy mask.
+   * @return Colour plane mask of the occupied columns.
+   */
+  static int spread(int mask) {
+    int spread = 0;
+    while (mask != 0) {
+      int column = Integer.numberOfTrailingZeros(mask);
+      spread |= COLOR_MASK << (column * COLOR_BITS);
+      mask &= mask - 1;
+    }
+    return spread;
+  }
+
+  /**
+   * Removes a line, moving every line above it one line down.
+   *
+   * @param y Index of the line to remove.
+   */
+  public void removeLine(int y) {
+    if (y < 0 || y >= HEIGHT) {
+      throw new IllegalArgumentException("You cannot remove a line that is out of the game");
+    }
+    removeLines(1 << y);
+  }
+
+  /**
+   * Removes several lines at once. The remaining lines are compacted in a single pass from the
+   * lowest removed line up, each of them moving down once.
+   *
+   * @param mask Mask of the lines to remove, the bit {@code y} standing for the line {@code y}.
+   */
+  public void removeLines(int mask) {
+    if ((mask >>> HEIGHT) != 0) {
+      throw new IllegalArgumentException("You cannot remove a line that is out of the game");
+    }
+    if (mask == 0) {
+      return;
+    }
+    int write = 31 - Integer.numberOfLeadingZeros(mask);
+    int bottom = write;
+    dirty |= (2 << write) - (1 << Math.min(top, write));
+    // The lines above the lowest removed one all move, their minos are hashed again once moved.
+    toggleLines(top, bottom);
+    for (int read = write; read >= top; --read) {
+      if ((mask & (1 << read)) == 0) {
+        lines[write] = lines[read];
+        colors[write] = colors[read];
+        write--;
+      }
+    }
+    for (; write >= top; --write) {
+      lines[write] = 0;
+      colors[write] = 0;
+    }
+    top = Math.min(top + Integer.bitCount(mask >>> top), HEIGHT);
+    while (top < HEIGHT && lines[top] == 0) {
+      top++;
+    }
+    toggleLines(top, bottom);
+  }
+
+  /**
+   * Builds the matrix of minos represented by this board.
+   *
+   * @return A new matrix of minos.
+   */
+  public Mino[][] toMinos() {
+    Mino[][] minos = new Mino[HEIGHT][WIDTH];
+    for (int y = 0; y < HEIGHT; ++y) {
+      if (lines[y] == 0) {
+        continue;
+      }
+      for (int x = 0; x < WIDTH; ++x) {
+        minos[y][x] = getMino(x, y);
+      }
+    }
+    return minos;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+
+/**
+ * Change of the board of a game. A change first clears some lines, the lines above them moving
+ * down, then sets the content of some cells. Each cell is packed in an int holding its position
+ * {@code y * WIDTH + x} followed by the ordinal of its mino plus one, zero meaning empty.
+ */
+public final class BoardChange {
+
+  private static final Mino[] MINOS = Mino.values();
+
+  private static final int COLOR_MASK = (1 << Bitboard.COLOR_BITS) - 1;
+
+  private final int[] cells;
+  private final int clearedLines;
+
+  /**
+   * Creates a change of board.
+   *
+   * @param cells        Packed cells that have changed.
+   * @param clearedLines Mask of the lines cleared before the cells are set.
+   */
+  BoardChange(int[] cells, int clearedLines) {
+    this.cells = cells;
+    this.clearedLines = clearedLines;
+  }
+
+  /**
+   * Packs a cell.
+   *
+   * @param position Position {@code y * WIDTH + x} of the cell.
+   * @param mino     Mino of the cell or null if it is empty.
+   * @return Packed cell.
+   */
+  static int pack(int position, Mino mino) {
+    return (position << Bitboard.COLOR_BITS) | (mino == null ? 0 : mino.ordinal() + 1);
+  }
+
+  /**
+   * Gets the lines cleared by the change, before the cells are set.
+   *
+   * @return Mask of the lines, the bit {@code y} standing for the line {@code y}.
+   */
+  public int getClearedLines() {
+    return clearedLines;
+  }
+
+  /**
+   * Gets the number of cells set by the change.
+   *
+   * @return Number of cells.
+   */
+  public int size() {
+    return cells.length;
+  }
+
+  /**
+   * Gets the column of a cell.
+   *
+   * @param i Index of the cell in the change.
+   * @return Column of the cell.
+   */
+  public int getX(int i) {
+    return (cells[i] >>> Bitboard.COLOR_BITS) % WIDTH;
+  }
+
+  /**
+   * Gets the line of a cell.
+   *
+   * @param i Index of the cell in the change.
+   * @return Line of the cell.
+   */
+  public int getY(int i) {
+    return (cells[i] >>> Bitboard.COLOR_BITS) / WIDTH;
+  }
+
+  /**
+   * Gets the new content of a cell.
+   *
+   * @param i Index of the cell in the change.
+   * @return Mino of the cell or null if it is now empty.
+   */
+  public Mino getMino(int i) {
+    int color = cells[i] & COLOR_MASK;
+    return color == 0 ? null : MINOS[color - 1];
+  }
+}
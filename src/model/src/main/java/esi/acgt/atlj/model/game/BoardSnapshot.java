@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Immutable board as it is displayed, the falling tetrimino included. A snapshot is derived from
+ * the previous one by rebuilding only the lines that have changed, the other lines being shared
+ * between both versions, so taking a snapshot costs the changed lines and a snapshot can be handed
+ * to any thread without copying it.
+ */
+public final class BoardSnapshot implements Serializable {
+
+  /**
+   * Snapshot of an empty board.
+   */
+  public static final BoardSnapshot EMPTY = new BoardSnapshot(emptyRows(), 0, -1, 0, 0);
+
+  private static final Mino[] MINOS = Mino.values();
+
+  private static final int COLOR_MASK = (1 << Bitboard.COLOR_BITS) - 1;
+
+  private final Row[] rows;
+
+  /**
+   * Mask of the lines showing the falling tetrimino, rebuilt by the next snapshot if the tetrimino
+   * has moved.
+   */
+  private final int pieceRows;
+
+  /**
+   * Shape and position of the falling tetrimino, the shape being -1 if there is none.
+   */
+  private final int pieceShape;
+  private final int pieceX;
+  private final int pieceY;
+
+  private BoardSnapshot(Row[] rows, int pieceRows, int pieceShape, int pieceX, int pieceY) {
+    this.rows = rows;
+    this.pieceRows = pieceRows;
+    this.pieceShape = pieceShape;
+    this.pieceX = pieceX;
+    this.pieceY = pieceY;
+  }
+
+  /**
+   * Derives the snapshot of a board from the previous snapshot of the same board.
+   *
+   * @param previous    Previous snapshot of the board.
+   * @param board       Board to take, the lines changed since the previous snapshot being taken
+   *                    from it.
+   * @param type        Type of the falling tetrimino, null if there is none.
+   * @param orientation Orientation of the falling tetrimino.
+   * @param x           Column of the falling tetrimino.
+   * @param y           Line of the falling tetrimino.
+   * @return The new snapshot, or the previous one if nothing has changed.
+   */
+  static BoardSnapshot derive(BoardSnapshot previous, Bitboard board, Mino type,
+      Orientation orientation, int x, int y) {
+    int shape = type == null ? -1 : ShapeTable.index(type, orientation);
+    int pieceRows = 0;
+    if (shape >= 0) {
+      for (int i = ShapeTable.minY(shape); i <= ShapeTable.maxY(shape); ++i) {
+        int line = y + i;
+        if (line >= 0 && line < HEIGHT
+            && (Bitboard.shift(ShapeTable.line(shape, i), x) & Bitboard.FULL_LINE) != 0) {
+          pieceRows |= 1 << line;
+        }
+      }
+    }
+
+    boolean moved = shape != previous.pieceShape || x != previous.pieceX || y != previous.pieceY;
+    int rebuild = board.takeDirty() | (moved ? previous.pieceRows | pieceRows : 0);
+    if (rebuild == 0) {
+      return previous;
+    }
+
+    Row[] rows = previous.rows.clone();
+    boolean changed = moved;
+    while (rebuild != 0) {
+      int line = Integer.numberOfTrailingZeros(rebuild);
+      rebuild &= rebuild - 1;
+      int mask = board.getLine(line);
+      int colors = board.getColors(line);
+      if ((pieceRows & (1 << line)) != 0) {
+        int i = line - y;
+        int pieceMask = Bitboard.shift(ShapeTable.line(shape, i), x) & Bitboard.FULL_LINE;
+        int pieceColors = Bitboard.shift(ShapeTable.colorLine(shape, i), x * Bitboard.COLOR_BITS)
+            & ((1 << (WIDTH * Bitboard.COLOR_BITS)) - 1);
+        mask |= pieceMask;
+        colors = (colors & ~Bitboard.spread(pieceMask)) | pieceColors;
+      }
+      Row row = rows[line];
+      if (row.mask != mask || row.colors != colors) {
+        rows[line] = mask == 0 ? Row.EMPTY : new Row(mask, colors);
+        changed = true;
+      }
+    }
+    return changed ? new BoardSnapshot(rows, pieceRows, shape, x, y) : previous;
+  }
+
+  /**
+   * Builds the snapshot of a board sent as its colour planes, without falling tetrimino.
+   *
+   * @param colors Colour planes of the bottom lines of the board, the lines above being empty.
+   * @return Snapshot of the board.
+   * @see #getColors(int)
+   */
+  public static BoardSnapshot fromColors(int[] colors) {
+    if (colors.length > HEIGHT) {
+      throw new IllegalArgumentException("The board has only " + HEIGHT + " lines");
+    }
+    Row[] rows = emptyRows();
+    for (int i = 0; i < colors.length; ++i) {
+      int mask = 0;
+      for (int x = 0; x < WIDTH; ++x) {
+        if (((colors[i] >>> (x * Bitboard.COLOR_BITS)) & COLOR_MASK) != 0) {
+          mask |= 1 << x;
+        }
+      }
+      if (mask != 0) {
+        rows[HEIGHT - colors.length + i] = new Row(mask, colors[i]);
+      }
+    }
+    return new BoardSnapshot(rows, 0, -1, 0, 0);
+  }
+
+  /**
+   * Gets the mino displayed at a cell.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return Mino at the cell or null if it is empty.
+   */
+  public Mino getMino(int x, int y) {
+    int color = (rows[y].colors >>> (x * Bitboard.COLOR_BITS)) & COLOR_MASK;
+    return color == 0 ? null : MINOS[color - 1];
+  }
+
+  /**
+   * Gets the occupancy mask of a line.
+   *
+   * @param y Index of the line.
+   * @return Occupancy mask of the line, the bit {@code x} standing for the column {@code x}.
+   */
+  public int getLine(int y) {
+    return rows[y].mask;
+  }
+
+  /**
+   * Gets the colour plane of a line.
+   *
+   * @param y Index of the line.
+   * @return Colour plane of the line, {@value Bitboard#COLOR_BITS} bits per column.
+   */
+  public int getColors(int y) {
+    return rows[y].colors;
+  }
+
+  /**
+   * Tells if a line is the same in two snapshots, which is the case of every line that has not
+   * changed between two versions of a board. Lets a view skip the lines it has already drawn.
+   *
+   * @param other Other snapshot.
+   * @param y     Index of the line.
+   * @return True if both snapshots share the line.
+   */
+  public boolean sharesLine(BoardSnapshot other, int y) {
+    return rows[y] == other.rows[y];
+  }
+
+  /**
+   * Builds the matrix of minos of the snapshot.
+   *
+   * @return A new matrix of minos, indexed by line then column.
+   */
+  public Mino[][] toMinos() {
+    Mino[][] minos = new Mino[HEIGHT][WIDTH];
+    for (int y = 0; y < HEIGHT; ++y) {
+      if (rows[y].mask == 0) {
+        continue;
+      }
+      for (int x = 0; x < WIDTH; ++x) {
+        minos[y][x] = getMino(x, y);
+      }
+    }
+    return minos;
+  }
+
+  private static Row[] emptyRows() {
+    Row[] rows = new Row[HEIGHT];
+    Arrays.fill(rows, Row.EMPTY);
+    return rows;
+  }
+
+  /**
+   * Immutable line of a snapshot, shared by the snapshots in which it has not changed.
+   */
+  private static final class Row implements Serializable {
+
+    private static final Row EMPTY = new Row(0, 0);
+
+    private final int mask;
+    private final int colors;
+
+    private Row(int mask, int colors) {
+      this.mask = mask;
+      this.colors = colors;
+    }
+  }
+}
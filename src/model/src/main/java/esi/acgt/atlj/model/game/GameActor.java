@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event loop of a game. Any thread can post tasks to the mailbox of the actor, and the tasks are run
+ * one at a time in the order they have been posted, so the state of the game is only ever written
+ * by the task running on its actor and needs no lock.
+ *
+ * <p>The actor does not own a thread: when tasks are posted to an idle actor, a drain of the
+ * mailbox is handed to its executor. Actors of different games drain concurrently on the shared
+ * executor, an actor using a direct executor drains on the thread that posts to it.
+ *
+ * <p>A task that throws is handed to the uncaught exception handler of the draining thread and the
+ * drain goes on with the next task, except on a direct actor where the exception is thrown back to
+ * the poster so that deterministic runs fail loudly.
+ */
+public final class GameActor implements Executor {
+
+  /**
+   * Executor shared by the actors of every game of the JVM.
+   */
+  private static final ExecutorService SHARED = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(), new ActorThreadFactory());
+
+  private final Executor executor;
+  private final boolean rethrow;
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Tells if a drain of the mailbox has been handed to the executor and has not finished yet.
+   */
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  /**
+   * Thread draining the mailbox, null if the actor is idle.
+   */
+  private volatile Thread owner;
+
+  /**
+   * Creates an actor draining its mailbox on an executor.
+   *
+   * @param executor Executor running the drains of the mailbox.
+   */
+  public GameActor(Executor executor) {
+    this(executor, false);
+  }
+
+  private GameActor(Executor executor, boolean rethrow) {
+    this.executor = executor;
+    this.rethrow = rethrow;
+  }
+
+  /**
+   * Creates an actor running on the executor shared by every game.
+   *
+   * @return New actor.
+   */
+  public static GameActor shared() {
+    return new GameActor(SHARED);
+  }
+
+  /**
+   * Creates an actor running its tasks on the thread that posts them, tasks posted by a running
+   * task being run once it has returned. Used by the simulations to stay deterministic. A failing
+   * task throws out of the call that drains it, the tasks left in the mailbox being run by the next
+   * post.
+   *
+   * @return New actor.
+   */
+  public static GameActor direct() {
+    return new GameActor(Runnable::run, true);
+  }
+
+  /**
+   * Posts a task to the mailbox of the actor.
+   *
+   * @param task Task to run on the actor.
+   */
+  @Override
+  public void execute(Runnable task) {
+    mailbox.add(task);
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Tells if the calling thread is the one running the tasks of the actor.
+   *
+   * @return True if called from a task of the actor.
+   */
+  public boolean isCurrent() {
+    return owner == Thread.currentThread();
+  }
+
+  /**
+   * Runs the tasks of the mailbox until it is empty.
+   */
+  private void drain() {
+    owner = Thread.currentThread();
+    try {
+      Runnable task;
+      while ((task = mailbox.poll()) != null) {
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          if (rethrow) {
+            throw e;
+          }
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+      }
+    } finally {
+      owner = null;
+      scheduled.set(false);
+    }
+    if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Creates the daemon threads of the shared executor.
+   */
+  private static final class ActorThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "game-actor-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -24,6 +24,7 @@
 
 package esi.acgt.atlj.model.game;
 
+import esi.acgt.atlj.model.shape.Orientation;
 import esi.acgt.atlj.model.tetrimino.Mino;
 import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 import java.beans.PropertyChangeListener;
@@ -54,7 +55,47 @@ public interface GameInterface {
    */
   int getScore();
 
+  /**
+   * Tells if a tetrimino can be placed on the board at a given position and orientation, without
+   * overlapping a locked mino or leaving the board.
+   *
+   * @param tetrimino   Tetrimino to test.
+   * @param x           Column of the top left corner of the tetrimino.
+   * @param y           Line of the top left corner of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @return True if the tetrimino fits.
+   */
+  boolean fits(TetriminoInterface tetrimino, int x, int y, Orientation orientation);
+
+  /**
+   * Computes how many lines a tetrimino can fall from its current position before landing.
+   *
+   * @param tetrimino Tetrimino to drop.
+   * @return Number of free lines below the tetrimino.
+   */
+  int dropDistance(TetriminoInterface tetrimino);
 
+  /**
+   * Computes how many lines a tetrimino can fall from its current position, up to a limit.
+   *
+   * @param tetrimino Tetrimino to drop.
+   * @param max       Most lines to check.
+   * @return Number of free lines below the tetrimino, at most {@code max}.
+   */
+  int dropDistance(TetriminoInterface tetrimino, int max);
+
+  /**
+   * Generates a mask of the free cells of an area of the board. Kept for the mask based callers,
+   * {@link #fits(TetriminoInterface, int, int, Orientation)} does not allocate.
+   *
+   * @param height  Height of the area.
+   * @param width   Width of the area.
+   * @param xStart  Column of the reference cell.
+   * @param yStart  Line of the reference cell.
+   * @param xMargin Number of columns of the area on the left of the reference cell.
+   * @param yMargin Number of lines of the area above the reference cell.
+   * @return Mask where free cells are true.
+   */
   boolean[][] generateFreeMask(int height, int width, int xStart, int yStart, int xMargin,
       int yMargin);
 
@@ -100,4 +141,47 @@ public interface GameInterface {
    */
   void removePropertyChangeListener(PropertyChangeListener listener);
 
+  /**
+   * Adds a listener of the changes of the board, told only about the cells that have changed.
+   *
+   * @param listener Listener to add.
+   */
+  void addBoardListener(BoardListener listener);
+
+  /**
+   * Removes a listener of the changes of the board.
+   *
+   * @param listener Listener to remove.
+   */
+  void removeBoardListener(BoardListener listener);
+
+  /**
+   * Adds a listener told once per update about everything the update has changed.
+   *
+   * @param listener Listener to add.
+   */
+  void addUpdateListener(GameUpdateListener listener);
+
+  /**
+   * Removes a listener of the updates.
+   *
+   * @param listener Listener to remove.
+   */
+  void removeUpdateListener(GameUpdateListener listener);
+
+  /**
+   * Posts an action to the event loop of the game. Actions run one at a time in the order they
+   * have been posted, every change of the game has to be made this way.
+   *
+   * @param action Action to run on the game.
+   */
+  void submit(Runnable action);
+
+  /**
+   * Gets the state of the game at the end of its last update, readable from any thread.
+   *
+   * @return Last snapshot of the game.
+   */
+  GameSnapshot getSnapshot();
+
 }
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
+
+/**
+ * Immutable state of a game at the end of an update. The game publishes a new snapshot each time
+ * an update is committed on its actor, so any thread can read a consistent state of the game
+ * without taking a lock or posting to the actor. The board is a {@link BoardSnapshot} sharing its
+ * unchanged lines with the previous snapshot.
+ */
+public final class GameSnapshot {
+
+  private final String username;
+  private final int score;
+  private final int level;
+  private final int nbLine;
+  private final Mino hold;
+  private final Mino next;
+  private final GameStatus status;
+  private final BoardSnapshot board;
+
+  /**
+   * Falling tetrimino, the type being null if there is none.
+   */
+  private final Mino type;
+  private final Orientation orientation;
+  private final int x;
+  private final int y;
+
+  /**
+   * Zobrist hash of the board, the held mino and the falling tetrimino.
+   */
+  private final long hash;
+
+  /**
+   * Copies the state of a game.
+   *
+   * @param game     Game to copy, only read from its actor.
+   * @param status   Status of the game, null if the game does not have one.
+   * @param previous Board of the previous snapshot of the game.
+   */
+  GameSnapshot(AbstractGame game, GameStatus status, BoardSnapshot previous) {
+    this.username = game.username;
+    this.score = game.score;
+    this.level = game.level;
+    this.nbLine = game.nbLine;
+    this.hold = game.hold;
+    this.next = game.nextTetrimino == null ? null : game.nextTetrimino.getType();
+    this.status = status;
+    TetriminoInterface actual = game.actualTetrimino;
+    this.type = actual == null ? null : actual.getType();
+    this.orientation = actual == null ? null : actual.getOrientation();
+    this.x = actual == null ? 0 : actual.getX();
+    this.y = actual == null ? 0 : actual.getY();
+    this.board = BoardSnapshot.derive(previous, game.board, type, orientation, x, y);
+    this.hash = game.getHash();
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public int getNbLine() {
+    return nbLine;
+  }
+
+  public Mino getHold() {
+    return hold;
+  }
+
+  /**
+   * Gets the type of the next tetrimino.
+   *
+   * @return Type of the next tetrimino, null if there is none.
+   */
+  public Mino getNext() {
+    return next;
+  }
+
+  /**
+   * Gets the status of the game.
+   *
+   * @return Status of the game, null for a game without status like the one of the opponent.
+   */
+  public GameStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * Gets the type of the falling tetrimino.
+   *
+   * @return Type of the falling tetrimino, null if there is none.
+   */
+  public Mino getType() {
+    return type;
+  }
+
+  public Orientation getOrientation() {
+    return orientation;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  /**
+   * Gets the hash of the game when the snapshot has been taken.
+   *
+   * @return Zobrist hash of the game.
+   * @see AbstractGame#getHash()
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Gets the mino displayed at a cell, the falling tetrimino hiding the board.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return Mino at the cell or null if it is empty.
+   */
+  public Mino getMino(int x, int y) {
+    return board.getMino(x, y);
+  }
+
+  /**
+   * Gets the board with the falling tetrimino, immutable and shared with the other snapshots.
+   *
+   * @return Snapshot of the board.
+   */
+  public BoardSnapshot getBoardSnapshot() {
+    return board;
+  }
+
+  /**
+   * Gets a copy of the board with the falling tetrimino.
+   *
+   * @return Minos of the board, indexed by line then column.
+   */
+  public Mino[][] getBoard() {
+    return board.toMinos();
+  }
+}
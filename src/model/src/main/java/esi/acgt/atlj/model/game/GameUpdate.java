@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import java.beans.PropertyChangeEvent;
+import java.util.List;
+
+/**
+ * Everything an update of a game has changed: the change of the board and the last event of each
+ * property that has changed.
+ */
+public final class GameUpdate {
+
+  private final BoardChange boardChange;
+  private final List<PropertyChangeEvent> events;
+
+  /**
+   * Creates an update.
+   *
+   * @param boardChange Change of the board, null if the board has not changed.
+   * @param events      Last event of each property that has changed.
+   */
+  GameUpdate(BoardChange boardChange, List<PropertyChangeEvent> events) {
+    this.boardChange = boardChange;
+    this.events = events;
+  }
+
+  /**
+   * Gets the change of the board.
+   *
+   * @return The change or null if the board has not changed.
+   */
+  public BoardChange getBoardChange() {
+    return boardChange;
+  }
+
+  /**
+   * Gets the events of the properties that have changed, in the order of their last change.
+   *
+   * @return Unmodifiable list of events.
+   */
+  public List<PropertyChangeEvent> getEvents() {
+    return events;
+  }
+}
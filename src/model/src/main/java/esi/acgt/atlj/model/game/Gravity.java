@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+/**
+ * Gravity of the managed games, expressed in rows per frame for a fixed frame rate. The gravity of
+ * each level is precomputed once as a 16.16 fixed point number, the fractional rows being
+ * accumulated from frame to frame by the {@link TickHandler} of each game. The gravity is capped at
+ * 20G, a piece then falling to the floor on the first frame.
+ */
+final class Gravity {
+
+  /**
+   * Number of frames per second.
+   */
+  static final int FRAME_RATE = 60;
+
+  /**
+   * One row in 16.16 fixed point.
+   */
+  static final int ONE_ROW = 1 << 16;
+
+  /**
+   * Highest gravity, in rows per frame.
+   */
+  static final int MAX_ROWS_PER_FRAME = 20;
+
+  /**
+   * Highest level with its own gravity, higher levels having the same gravity.
+   */
+  static final int MAX_LEVEL = 30;
+
+  /**
+   * Gravity of each level in rows per frame, 16.16 fixed point.
+   */
+  private static final int[] ROWS_PER_FRAME = new int[MAX_LEVEL + 1];
+
+  /**
+   * Time needed to fall one row at each level, in milliseconds.
+   */
+  private static final long[] ROW_DELAYS = new long[MAX_LEVEL + 1];
+
+  static {
+    for (int level = 1; level <= MAX_LEVEL; level++) {
+      double secondsPerRow = Math.pow(0.8 - ((level - 1) * 0.007), level - 1);
+      double rows = Math.ceil(ONE_ROW / (secondsPerRow * FRAME_RATE));
+      ROWS_PER_FRAME[level] = (int) Math.min(rows, (double) MAX_ROWS_PER_FRAME * ONE_ROW);
+      int frames = (ONE_ROW + ROWS_PER_FRAME[level] - 1) / ROWS_PER_FRAME[level];
+      ROW_DELAYS[level] = frames * 1000L / FRAME_RATE;
+    }
+    ROWS_PER_FRAME[0] = ROWS_PER_FRAME[1];
+    ROW_DELAYS[0] = ROW_DELAYS[1];
+  }
+
+  private Gravity() {
+  }
+
+  /**
+   * Gets the gravity of a level.
+   *
+   * @param level Level of the game.
+   * @return Rows per frame in 16.16 fixed point.
+   */
+  static int rowsPerFrame(int level) {
+    return ROWS_PER_FRAME[clamp(level)];
+  }
+
+  /**
+   * Gets the time needed to fall one row at a level.
+   *
+   * @param level Level of the game.
+   * @return Milliseconds per row, at least one frame.
+   */
+  static long rowDelay(int level) {
+    return ROW_DELAYS[clamp(level)];
+  }
+
+  private static int clamp(int level) {
+    return Math.max(0, Math.min(level, MAX_LEVEL));
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tick scheduler backed by a hashed wheel timer. A single daemon thread advances a wheel of buckets
+ * every tick duration and posts the handlers of the current bucket whose deadline is reached to the
+ * actors of their games, so thousands of games share one thread instead of owning a
+ * {@code java.util.Timer} each. Handlers are linked directly in the buckets, rescheduling a handler
+ * only moves it to another bucket.
+ */
+public class HashedWheelTickScheduler implements TickScheduler {
+
+  /**
+   * Scheduler shared by every game of the JVM.
+   */
+  static final HashedWheelTickScheduler SHARED = new HashedWheelTickScheduler(1, 512);
+
+  /**
+   * Duration of a tick of the wheel in nanoseconds.
+   */
+  private final long tickNanos;
+
+  /**
+   * Mask to get the bucket of a tick, the number of buckets being a power of two.
+   */
+  private final int mask;
+
+  /**
+   * First handler of each bucket.
+   */
+  private final TickHandler[] buckets;
+
+  /**
+   * Time at which the wheel has started.
+   */
+  private final long startNanos;
+
+  /**
+   * Next tick the wheel has to process.
+   */
+  private long tick;
+
+  /**
+   * Number of handlers in the wheel.
+   */
+  private int pending;
+
+  /**
+   * Handlers expired by the current tick, run outside of the lock of the wheel.
+   */
+  private TickHandler[] expired;
+
+  /**
+   * Sequence of each expired handler when it expired, to skip it if it has been rescheduled or
+   * cancelled before running.
+   */
+  private long[] expiredSequences;
+
+  /**
+   * Thread advancing the wheel, started with the first tick.
+   */
+  private Thread worker;
+
+  /**
+   * Creates a hashed wheel scheduler.
+   *
+   * @param tickDuration Duration of a tick of the wheel in milliseconds.
+   * @param wheelSize    Minimum number of buckets of the wheel.
+   */
+  public HashedWheelTickScheduler(long tickDuration, int wheelSize) {
+    if (tickDuration < 1) {
+      throw new IllegalArgumentException("The tick duration must be positive");
+    }
+    if (wheelSize < 1) {
+      throw new IllegalArgumentException("The wheel must have at least one bucket");
+    }
+    int size = Integer.highestOneBit(wheelSize - 1) << 1;
+    this.buckets = new TickHandler[Math.max(size, 1)];
+    this.mask = buckets.length - 1;
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+    this.startNanos = System.nanoTime();
+    this.expired = new TickHandler[16];
+    this.expiredSequences = new long[16];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void schedule(TickHandler handler, long delay) {
+    unlink(handler);
+    handler.sequence++;
+    long now = (System.nanoTime() - startNanos) / tickNanos;
+    if (pending == 0) {
+      tick = Math.max(tick, now);
+    }
+    // The delay runs from now even if the worker is late on the ticks before it.
+    long ticks = Math.max(1, (TimeUnit.MILLISECONDS.toNanos(delay) + tickNanos - 1) / tickNanos);
+    long target = Math.max(tick, now + ticks - 1);
+    handler.rounds = (target - tick) / buckets.length;
+    handler.bucket = (int) (target & mask);
+    link(handler);
+
+    if (worker == null) {
+      worker = new Thread(this::work, "tick-wheel");
+      worker.setDaemon(true);
+      worker.start();
+    } else if (pending == 1) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void cancel(TickHandler handler) {
+    unlink(handler);
+    handler.sequence++;
+  }
+
+  /**
+   * Adds a handler at the head of its bucket.
+   *
+   * @param handler Handler to add.
+   */
+  private void link(TickHandler handler) {
+    TickHandler head = buckets[handler.bucket];
+    handler.next = head;
+    handler.previous = null;
+    if (head != null) {
+      head.previous = handler;
+    }
+    buckets[handler.bucket] = handler;
+    handler.scheduler = this;
+    pending++;
+  }
+
+  /**
+   * Removes a handler from its bucket if it is in the wheel.
+   *
+   * @param handler Handler to remove.
+   */
+  private void unlink(TickHandler handler) {
+    if (handler.scheduler != this) {
+      return;
+    }
+    if (handler.previous != null) {
+      handler.previous.next = handler.next;
+    } else {
+      buckets[handler.bucket] = handler.next;
+    }
+    if (handler.next != null) {
+      handler.next.previous = handler.previous;
+    }
+    handler.next = null;
+    handler.previous = null;
+    handler.scheduler = null;
+    pending--;
+  }
+
+  /**
+   * Loop of the worker thread.
+   */
+  private void work() {
+    while (true) {
+      long deadline;
+      synchronized (this) {
+        while (pending == 0) {
+          try {
+            wait();
+          } catch (InterruptedException ignored) {
+          }
+        }
+        deadline = startNanos + (tick + 1) * tickNanos;
+      }
+
+      long sleep;
+      while ((sleep = deadline - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(this, sleep);
+      }
+
+      int count = expire();
+      for (int i = 0; i < count; ++i) {
+        TickHandler handler = expired[i];
+        expired[i] = null;
+        if (isCurrent(handler, expiredSequences[i])) {
+          handler.expire(expiredSequences[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tells if an expired handler has not been rescheduled or cancelled since it expired.
+   *
+   * @param handler  Expired handler.
+   * @param sequence Sequence of the handler when it expired.
+   * @return True if the handler still has to run.
+   */
+  private synchronized boolean isCurrent(TickHandler handler, long sequence) {
+    return handler.sequence == sequence;
+  }
+
+  /**
+   * Removes the handlers of the current bucket whose rounds are over and advances the wheel.
+   *
+   * @return Number of handlers copied to the expired handlers.
+   */
+  private synchronized int expire() {
+    int count = 0;
+    TickHandler handler = buckets[(int) (tick & mask)];
+    while (handler != null) {
+      TickHandler next = handler.next;
+      if (handler.rounds <= 0) {
+        unlink(handler);
+        if (count == expired.length) {
+          expired = Arrays.copyOf(expired, count * 2);
+          expiredSequences = Arrays.copyOf(expiredSequences, count * 2);
+        }
+        expired[count] = handler;
+        expiredSequences[count] = handler.sequence;
+        count++;
+      } else {
+        handler.rounds--;
+      }
+      handler = next;
+    }
+    tick++;
+    return count;
+  }
+}
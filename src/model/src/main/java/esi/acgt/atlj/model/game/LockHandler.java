@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+/**
+ * Hook told once per locked tetrimino, with everything the lock has changed.
+ */
+@FunctionalInterface
+public interface LockHandler {
+
+  /**
+   * Called once a tetrimino is locked and the lines it has completed are cleared.
+   *
+   * @param piece        State of the locked tetrimino, packed by
+   *                     {@link esi.acgt.atlj.model.tetrimino.PieceState}.
+   * @param clearedLines Mask of the cleared lines, the bit {@code y} standing for the line
+   *                     {@code y}.
+   * @param score        Score of the game after the lock.
+   * @param nbLines      Number of lines cleared since the start of the game.
+   * @param fingerprint  Hash of the board after the lock, for the mirrors of the game to check
+   *                     they still match it.
+   * @see Bitboard#getHash()
+   */
+  void locked(int piece, int clearedLines, int score, int nbLines, long fingerprint);
+}
@@ -25,70 +25,101 @@
 package esi.acgt.atlj.model.game;
 
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.model.tetrimino.Tetrimino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
 import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Timer;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
- * Game that is going to be played by the playing player.
+ * Game that is going to be played by the playing player. Inputs, ticks and pieces coming from the
+ * network are all posted to the actor of the game, and the hooks are called from it.
  */
 public class ManagedGame extends AbstractGame {
 
   /**
-   * Tells server to lock tetrimino
+   * Tells server to lock tetrimino, with the lines it has cleared and the new score
    */
-  Consumer<TetriminoInterface> tetriminoLock;
-
-  /**
-   * All lines that have been destroyed by game in an array to send to server
-   */
-  Consumer<List<Integer>> lineDestroyed;
+  LockHandler tetriminoLock = (piece, clearedLines, score, nbLines, fingerprint) -> {
+  };
 
   /**
    * Lambda expression to ask client for next piece in bag.
    */
-  Runnable askNextMino;
+  Runnable askNextMino = () -> {
+  };
 
   /**
    * Sends to server that you lost.
    */
-  Runnable iLost;
+  Runnable iLost = () -> {
+  };
 
   /**
-   * Locked tetrimino to send to server.
+   * Packed state of the moved tetrimino to send to server.
    */
-  Consumer<TetriminoInterface> addTetrimino;
+  IntConsumer addTetrimino = piece -> {
+  };
 
   /**
    * Hold tetrimino to send to server
    */
-  Consumer<Mino> holdMino;
+  Consumer<Mino> holdMino = mino -> {
+  };
 
   /**
    * Sends current score to the server
    */
-  Consumer<Integer> setScoreServer;
+  Consumer<Integer> setScoreServer = score -> {
+  };
 
   private GameStatus status;
-  private final Timer timer;
-  private TickHandler tickHandler;
+  private final TickScheduler scheduler;
+  private final TickHandler tickHandler;
   private boolean hasAlreadyHolded;
 
+  /**
+   * What the update in progress has to send to the hooks once it is committed.
+   */
+  private int lockedPiece = PieceState.NONE;
+  private int lockedLines;
+  private boolean tetriminoMoved;
+  private boolean scoreChanged;
+  private boolean lost;
+
   /**
    * Establishes a new managed game
    *
    * @param username Username of player.
    */
   public ManagedGame(String username) {
-    super(username);
+    this(username, TickScheduler.shared());
+  }
+
+  /**
+   * Establishes a new managed game ticked by a given scheduler
+   *
+   * @param username  Username of player.
+   * @param scheduler Scheduler of the ticks of the game.
+   */
+  public ManagedGame(String username, TickScheduler scheduler) {
+    this(username, scheduler, GameActor.shared());
+  }
+
+  /**
+   * Establishes a new managed game ticked by a given scheduler and confined to a given actor
+   *
+   * @param username  Username of player.
+   * @param scheduler Scheduler of the ticks of the game.
+   * @param actor     Actor running the changes of the game.
+   */
+  public ManagedGame(String username, TickScheduler scheduler, GameActor actor) {
+    super(username, actor);
     hasAlreadyHolded = false;
     this.status = GameStatus.NOT_STARTED;
     this.level = 1;
-    this.timer = new Timer(true);
+    this.scheduler = scheduler;
     this.tickHandler = new TickHandler(this);
+    publishSnapshot();
   }
 
   /**
@@ -113,7 +144,7 @@ public class ManagedGame extends AbstractGame {
    *
    * @param myTT Lambda to connect
    */
-  public void connectTetriminoLock(Consumer<TetriminoInterface> myTT) {
+  public void connectTetriminoLock(LockHandler myTT) {
     this.tetriminoLock = myTT;
   }
 
@@ -139,18 +170,17 @@ public class ManagedGame extends AbstractGame {
   /**
    * Connects lambda expression to add tetrimino to server
    *
-   * @param addTetrimino Laùbda expression to connect
+   * @param addTetrimino Lambda expression to connect, given the packed state of the tetrimino
    */
-  public void connectAddTetrimino(Consumer<TetriminoInterface> addTetrimino) {
+  public void connectAddTetrimino(IntConsumer addTetrimino) {
     this.addTetrimino = addTetrimino;
   }
 
   /**
    * Game starts making tetriminos fall
    */
-  public synchronized void start() {
-    Mino[][] emptyBoard = new Mino[HEIGHT][WIDTH];
-    this.changeSupport.firePropertyChange("board", emptyBoard, this.getBoard());
+  public void start() {
+    fireBoardReset();
     setStatus(GameStatus.TETRIMINO_FALLING);
   }
 
@@ -160,91 +190,105 @@ public class ManagedGame extends AbstractGame {
    * @param direction Direction in wich to move
    * @return True if tetrimino is able to move
    */
-  public synchronized boolean move(Direction direction) {
-    Mino[][] oldBoard = this.getBoard();
-
-    boolean moved = this.actualTetrimino.move(direction,
-        generateFreeMask(6, 6, actualTetrimino.getX(), actualTetrimino.getY(), 1, 1));
-
-    this.changeSupport.firePropertyChange("board", oldBoard, this.getBoard());
-
+  public boolean move(Direction direction) {
+    beginUpdate();
+    boolean moved = this.actualTetrimino.move(direction, this);
     if (moved) {
+      tetriminoMoved = true;
       if (status == GameStatus.LOCK_DOWN) {
         setStatus(GameStatus.TETRIMINO_FALLING);
       }
-
-      if (status == GameStatus.TETRIMINO_HARD_DROPPING) {
-        increaseScore(2);
-      }
     }
-    addTetrimino.accept(actualTetrimino);
+    commitUpdate();
     return moved;
   }
 
-  public void connectLineDestroyed(Consumer<List<Integer>> lineDestroyed) {
-    this.lineDestroyed = lineDestroyed;
+  /**
+   * Makes the tetrimino fall under the gravity, several lines being checked in one sweep.
+   *
+   * @param lines Number of lines to fall.
+   * @return Number of lines the tetrimino has fallen, 0 if it has landed.
+   */
+  public int fall(int lines) {
+    beginUpdate();
+    int fallen = this.actualTetrimino.fall(lines, this);
+    tetriminoMoved |= fallen > 0;
+    commitUpdate();
+    return fallen;
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public synchronized void setHold(Mino hold) {
+  public void setHold(Mino hold) {
     this.hold = hold;
     holdMino.accept(hold);
-    this.changeSupport.firePropertyChange("hold", null, this.getHold());
+    firePropertyChange("hold", null, this.getHold());
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public synchronized void setNextTetrimino(TetriminoInterface nextTetrimino) {
+  public void setNextTetrimino(TetriminoInterface nextTetrimino) {
     this.nextTetrimino = nextTetrimino;
-    this.changeSupport.firePropertyChange("next", null, this.getNextTetrimino());
+    firePropertyChange("next", null, nextTetrimino == null ? null : nextTetrimino.getType());
   }
 
   /**
-   * Adds a tetrimino to the hold case
+   * Adds a tetrimino to the hold case. The held piece comes back in the current tetrimino, which
+   * is reset in place, and the next piece is drawn when the hold case was empty.
    */
-  public synchronized void hold() {
+  public void hold() {
     if (!hasAlreadyHolded) {
-      if (hold == null) {
-        this.setHold(this.actualTetrimino.getType());
+      beginUpdate();
+      Mino held = this.getHold();
+      this.setHold(this.actualTetrimino.getType());
+      if (held == null) {
+        this.spare = this.actualTetrimino;
         this.setActualTetrimino(this.nextTetrimino);
+        askNextMino.run();
       } else {
-        TetriminoInterface temp = Tetrimino.createTetrimino(this.getHold());
-        this.setHold(this.actualTetrimino.getType());
-        this.setActualTetrimino(temp);
+        this.actualTetrimino.setState(PieceState.spawn(held));
       }
+      tetriminoMoved = true;
       hasAlreadyHolded = true;
+      this.tickHandler.resetGravity();
       setStatus(GameStatus.TETRIMINO_FALLING);
+      commitUpdate();
     }
-
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public synchronized void setActualTetrimino(TetriminoInterface actualTetrimino) {
-    Mino[][] oldBoard = this.getBoard();
+  public void setActualTetrimino(TetriminoInterface actualTetrimino) {
+    beginUpdate();
     this.actualTetrimino = actualTetrimino;
-    this.changeSupport.firePropertyChange("board", oldBoard, this.getBoard());
+    commitUpdate();
   }
 
   /**
    * Soft drops a tetrimino.
    */
-  public synchronized void softDrop() {
+  public void softDrop() {
     setStatus(GameStatus.SOFT_DROPPING);
   }
 
   /**
-   * Makes a tetrimino hard drop automatically locking it in place.
+   * Makes a tetrimino hard drop automatically locking it in place. The landing line is computed in
+   * one sweep and the opponent receives the final position with the lock.
    */
-  public synchronized void hardDrop() {
-    setStatus(GameStatus.TETRIMINO_HARD_DROPPING);
+  public void hardDrop() {
+    beginUpdate();
+    int distance = this.actualTetrimino.hardDrop(this);
+    if (distance > 0) {
+      increaseScore(Action.HARD_DROP.getScore() * distance);
+    }
+    lock();
+    commitUpdate();
   }
 
   /**
@@ -252,14 +296,11 @@ public class ManagedGame extends AbstractGame {
    *
    * @param clockwise True if tetrimino should rotate clockwise.
    */
-  public synchronized boolean rotate(boolean clockwise) {
-    var oldBoard = getBoard();
-    boolean rotated = actualTetrimino.rotate(clockwise,
-        this.generateFreeMask(4, 4, actualTetrimino.getX(),
-            actualTetrimino.getY(), 0, 0));
-    if (rotated) {
-      this.changeSupport.firePropertyChange("board", oldBoard, getBoard());
-    }
+  public boolean rotate(boolean clockwise) {
+    beginUpdate();
+    boolean rotated = actualTetrimino.rotate(clockwise, this);
+    tetriminoMoved |= rotated;
+    commitUpdate();
     return rotated;
   }
 
@@ -268,23 +309,23 @@ public class ManagedGame extends AbstractGame {
    *
    * @param score Score to set to.
    */
-  public synchronized void setScore(int score) {
+  public void setScore(int score) {
     int oldScore = this.score;
     this.score = score;
-    this.changeSupport.firePropertyChange("score", oldScore, this.score);
-    this.setScoreServer.accept(this.score);
+    scoreChanged = true;
+    firePropertyChange("score", oldScore, this.score);
   }
 
-  public synchronized void increaseScore(int increment) {
+  public void increaseScore(int increment) {
     setScore(score + increment);
   }
 
-  public synchronized void increaseScore(Action action) {
+  public void increaseScore(Action action) {
     int multiplier = action.getMultiplyLevel() ? this.level : 1;
     increaseScore(action.getScore() * multiplier);
   }
 
-  public synchronized void incrementNbLines(int increment) {
+  public void incrementNbLines(int increment) {
     setNbLine(nbLine + increment);
   }
 
@@ -293,7 +334,7 @@ public class ManagedGame extends AbstractGame {
    *
    * @return Current status of the game
    */
-  public synchronized GameStatus getStatus() {
+  public GameStatus getStatus() {
     return this.status;
   }
 
@@ -303,54 +344,102 @@ public class ManagedGame extends AbstractGame {
    *
    * @param status Status to set game to.
    */
-  public synchronized void setStatus(GameStatus status) {
-    this.tickHandler.cancel();
-    this.tickHandler = new TickHandler(this);
+  public void setStatus(GameStatus status) {
+    beginUpdate();
     this.status = status;
 
     switch (status) {
       case TETRIMINO_FALLING -> {
-        timer.schedule(this.tickHandler, TickHandler.tickDelay(this.level));
+        scheduler.schedule(this.tickHandler, this.tickHandler.fallDelay(this.level));
         this.playerStatus("", 0);
       }
       case LOCK_DOWN -> {
-        this.timer.schedule(this.tickHandler, 500);
+        this.scheduler.schedule(this.tickHandler, 500);
         this.playerStatus("LOCK DOWN", 0.2);
       }
       case TETRIMINO_HARD_DROPPING,
           ROTATING_CLOCKWISE,
           ROTATING_ANTI_CLOCKWISE,
-          SOFT_DROPPING -> this.timer.schedule(this.tickHandler, 1);
-      case LOCK_OUT -> this.playerStatus("LOCK OUT", 0.9);
+          SOFT_DROPPING -> this.scheduler.schedule(this.tickHandler, 1);
+      case LOCK_OUT -> {
+        this.scheduler.cancel(this.tickHandler);
+        this.playerStatus("LOCK OUT", 0.9);
+      }
+      default -> this.scheduler.cancel(this.tickHandler);
     }
+    commitUpdate();
   }
 
   /**
-   * Locks a tetrimino making it unable to move.
+   * {@inheritDoc}
    */
-  public synchronized void lock() {
-    placeTetrimino(this.actualTetrimino);
-    tetriminoLock.accept(actualTetrimino);
+  @Override
+  protected GameStatus getSnapshotStatus() {
+    return status;
+  }
+
+  /**
+   * Locks a tetrimino making it unable to move. Everything the lock changes is published as one
+   * update and sent to the server as one message.
+   */
+  public void lock() {
+    beginUpdate();
+    int touched = board.place(actualTetrimino.getType(), actualTetrimino.getOrientation(),
+        actualTetrimino.getX(), actualTetrimino.getY());
+    markTetrimino(actualTetrimino);
+    this.lockedPiece = actualTetrimino.getState();
+    this.spare = actualTetrimino;
     this.hasAlreadyHolded = false;
-    setActualTetrimino(this.nextTetrimino);
+    this.tickHandler.resetGravity();
+    this.actualTetrimino = this.nextTetrimino;
     askNextMino.run();
-    List<Integer> lines = getFullLines();
+    int lines = board.fullLines(touched);
+    this.lockedLines = lines;
 
-    if (lines.size() != 0) {
-      removeLines(lines);
-      lineDestroyed.accept(lines);
-      increaseScore(Action.getActionByFullLines(lines.size()));
-      incrementNbLines(lines.size());
+    if (lines != 0) {
+      clearLines(lines);
+      increaseScore(Action.getActionByFullLines(Integer.bitCount(lines)));
+      incrementNbLines(Integer.bitCount(lines));
     }
 
     if (outOfBound()) {
       setActualTetrimino(null);
       setStatus(GameStatus.LOCK_OUT);
-      iLost.run();
+      lost = true;
     } else {
       setStatus(GameStatus.TETRIMINO_FALLING);
     }
+    commitUpdate();
+  }
 
+  /**
+   * Sends what the update has changed to the hooks: the locked tetrimino with the cleared lines and
+   * the score if a tetrimino has been locked, otherwise the new position and score.
+   */
+  @Override
+  protected void flushUpdate() {
+    int locked = lockedPiece;
+    boolean moved = tetriminoMoved;
+    boolean scored = scoreChanged;
+    boolean hasLost = lost;
+    lockedPiece = PieceState.NONE;
+    tetriminoMoved = false;
+    scoreChanged = false;
+    lost = false;
+
+    if (locked != PieceState.NONE) {
+      tetriminoLock.locked(locked, lockedLines, score, nbLine, board.getHash());
+    } else {
+      if (moved && actualTetrimino != null) {
+        addTetrimino.accept(actualTetrimino.getState());
+      }
+      if (scored) {
+        setScoreServer.accept(score);
+      }
+    }
+    if (hasLost) {
+      iLost.run();
+    }
   }
 
   /**
@@ -359,43 +448,17 @@ public class ManagedGame extends AbstractGame {
    * @param winnerName Name of the winner
    * @param reason     Reason from player to have won, sometimes it's just skill :}
    */
-  public synchronized void fireEndGame(String winnerName, String reason) {
-    this.changeSupport.firePropertyChange("winner", winnerName, reason);
+  public void fireEndGame(String winnerName, String reason) {
+    firePropertyChange("winner", winnerName, reason);
   }
 
   /**
-   * Gets all the line of the whole board
+   * Tells if the stack has reached the two top lines of the board after a lock, which locks the
+   * player out. Only the top of the stack tracked by the board is read.
    *
-   * @return All the line
-   */
-  private synchronized List<Integer> getFullLines() {
-    List<Integer> lines = new ArrayList<>();
-    for (int i = 0; i < minos.length; ++i) {
-      boolean full = true;
-      for (int j = 0; j < minos[i].length; ++j) {
-        if (minos[i][j] == null) {
-          full = false;
-          break;
-        }
-      }
-
-      if (full) {
-        lines.add(i);
-      }
-    }
-
-    return lines;
-  }
-
+   * @return True if the highest occupied line is one of the two top lines.
+   */
   boolean outOfBound() {
-    for (int i = 0; i < 2; ++i) {
-      for (int j = 0; j < minos[i].length; ++j) {
-        if (minos[i][j] != null) {
-          return true;
-        }
-      }
-    }
-
-    return false;
+    return board.getTop() < 2;
   }
 }
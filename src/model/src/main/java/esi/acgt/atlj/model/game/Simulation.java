@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.Random;
+
+/**
+ * Headless game driven by a virtual clock. Pieces come from a 7-bag shuffled with a seeded random
+ * generator and ticks only run when the simulation is stepped, so a simulation gives the same
+ * result for the same seed and the same inputs, as fast as the CPU allows. The game runs on a direct
+ * actor, so inputs and ticks run on the thread driving the simulation.
+ */
+public class Simulation {
+
+  private static final Mino[] MINOS = Mino.values();
+
+  private final VirtualTickScheduler clock;
+  private final ManagedGame game;
+  private final Random random;
+  private final Mino[] bag;
+  private int bagIndex;
+
+  /**
+   * Creates a simulation.
+   *
+   * @param username Username of the simulated player.
+   * @param seed     Seed of the bag of pieces.
+   */
+  public Simulation(String username, long seed) {
+    this.clock = new VirtualTickScheduler();
+    this.game = new ManagedGame(username, clock, GameActor.direct());
+    this.random = new Random(seed);
+    this.bag = MINOS.clone();
+    this.bagIndex = bag.length;
+    game.connectAskNewMino(() -> game.setNextMino(nextMino()));
+  }
+
+  /**
+   * Gets the simulated game, to send it inputs or read its state.
+   *
+   * @return Simulated game.
+   */
+  public ManagedGame getGame() {
+    return game;
+  }
+
+  /**
+   * Gets the virtual clock of the simulation.
+   *
+   * @return Virtual clock.
+   */
+  public VirtualTickScheduler getClock() {
+    return clock;
+  }
+
+  /**
+   * Starts the simulated game with the first pieces of the bag.
+   */
+  public void start() {
+    game.setActualPiece(PieceState.spawn(nextMino()));
+    game.setNextMino(nextMino());
+    game.start();
+  }
+
+  /**
+   * Runs the next ticks of the game.
+   *
+   * @param ticks Maximum number of ticks to run.
+   * @return Number of ticks that have run.
+   */
+  public int step(int ticks) {
+    return clock.step(ticks);
+  }
+
+  /**
+   * Moves the virtual clock forward, running every tick reached on the way.
+   *
+   * @param millis Number of milliseconds to move forward.
+   */
+  public void advance(long millis) {
+    clock.advance(millis);
+  }
+
+  /**
+   * Tells if the simulated game is over.
+   *
+   * @return True if the game is lost.
+   */
+  public boolean isOver() {
+    return game.getStatus() == GameStatus.LOCK_OUT;
+  }
+
+  /**
+   * Draws the next mino of the bag, shuffling a new bag when the current one is empty.
+   *
+   * @return Next mino.
+   */
+  private Mino nextMino() {
+    if (bagIndex == bag.length) {
+      for (int i = bag.length - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        Mino swap = bag[i];
+        bag[i] = bag[j];
+        bag[j] = swap;
+      }
+      bagIndex = 0;
+    }
+    return bag[bagIndex++];
+  }
+}
@@ -24,33 +24,115 @@
 
 package esi.acgt.atlj.model.game;
 
-import java.util.TimerTask;
+import java.util.concurrent.Executor;
 
-public class TickHandler extends TimerTask {
+/**
+ * Tick of a managed game. A game owns a single handler for its whole life, the handler being
+ * rescheduled on its {@link TickScheduler} each time the status of the game changes. The scheduler
+ * only posts the expired tick to the actor of the game, so the timer thread never waits for the
+ * game and the tick runs between two inputs.
+ */
+public class TickHandler implements Runnable {
 
   private final ManagedGame managedBoard;
 
+  /**
+   * Actor of the game, on which the tick runs.
+   */
+  private final Executor actor;
+
+  /**
+   * Scheduler in which the handler is pending, null if it is not pending.
+   */
+  TickScheduler scheduler;
+
+  /**
+   * Incremented each time the handler is scheduled or cancelled. Only written by the actor of the
+   * game, under the lock of the scheduler.
+   */
+  long sequence;
+
+  /**
+   * Bucket of the handler in a hashed wheel, or its slot in the queue of a virtual clock.
+   */
+  int bucket;
+
+  /**
+   * Time at which the handler expires on a virtual clock.
+   */
+  long deadline;
+
+  /**
+   * Number of rotations of the hashed wheel before the handler expires.
+   */
+  long rounds;
+
+  /**
+   * Neighbours of the handler in its bucket.
+   */
+  TickHandler previous;
+  TickHandler next;
+
+  /**
+   * Fraction of row accumulated by the gravity, 16.16 fixed point.
+   */
+  private int fallen;
+
+  /**
+   * Gravity in rows per frame when the fall has been scheduled, 16.16 fixed point.
+   */
+  private int rowsPerFrame;
+
+  /**
+   * Number of frames until the scheduled fall.
+   */
+  private int frames;
+
+  /**
+   * Thousandths of frame left over by the rounding of the previous delays to milliseconds.
+   */
+  private int leftover;
+
   public TickHandler(ManagedGame managedBoard) {
+    this(managedBoard, managedBoard.getActor());
+  }
+
+  /**
+   * Creates the handler of a game running on an actor.
+   *
+   * @param managedBoard Game to tick.
+   * @param actor        Actor of the game.
+   */
+  TickHandler(ManagedGame managedBoard, Executor actor) {
     this.managedBoard = managedBoard;
+    this.actor = actor;
+  }
+
+  /**
+   * Called by the scheduler when the handler expires. The tick is posted to the actor of the game
+   * and dropped there if the handler has been rescheduled or cancelled in the meantime.
+   *
+   * @param sequence Sequence of the handler when it expired.
+   */
+  void expire(long sequence) {
+    actor.execute(() -> {
+      if (this.sequence == sequence) {
+        run();
+      }
+    });
   }
 
   @Override
-  public synchronized void run() {
+  public void run() {
     switch (managedBoard.getStatus()) {
       case TETRIMINO_FALLING -> {
-        if (!managedBoard.move(Direction.DOWN)) {
+        if (managedBoard.fall(fallenRows()) == 0) {
           managedBoard.setStatus(GameStatus.LOCK_DOWN);
         } else {
           managedBoard.setStatus(GameStatus.TETRIMINO_FALLING);
         }
       }
-      case TETRIMINO_HARD_DROPPING -> {
-        if (!managedBoard.move(Direction.DOWN)) {
-          managedBoard.lock();
-        } else {
-          managedBoard.setStatus(GameStatus.TETRIMINO_HARD_DROPPING);
-        }
-      }
+      case TETRIMINO_HARD_DROPPING -> managedBoard.hardDrop();
       case LOCK_DOWN -> managedBoard.lock();
       case ROTATING_CLOCKWISE -> {
         if (managedBoard.rotate(true)) {
@@ -70,7 +152,48 @@ public class TickHandler extends TimerTask {
     }
   }
 
+  /**
+   * Gets the time needed to fall one row at a level.
+   *
+   * @param level Level of the game.
+   * @return Milliseconds per row.
+   */
   public static long tickDelay(int level) {
-    return (int) ((Math.pow(0.8 - ((level - 1) * 0.007), level - 1)) * 1000);
+    return Gravity.rowDelay(level);
+  }
+
+  /**
+   * Computes the delay until the gravity makes the piece fall at least one row. The delay is a
+   * whole number of frames, so a game costs at most one tick per frame whatever its level.
+   *
+   * @param level Level of the game.
+   * @return Delay in milliseconds.
+   */
+  long fallDelay(int level) {
+    rowsPerFrame = Gravity.rowsPerFrame(level);
+    frames = Math.max(1, (Gravity.ONE_ROW - fallen + rowsPerFrame - 1) / rowsPerFrame);
+    leftover += frames * 1000;
+    long delay = leftover / Gravity.FRAME_RATE;
+    leftover %= Gravity.FRAME_RATE;
+    return delay;
+  }
+
+  /**
+   * Accumulates the gravity of the frames elapsed since the fall has been scheduled.
+   *
+   * @return Number of whole rows to fall.
+   */
+  int fallenRows() {
+    fallen += rowsPerFrame * frames;
+    int rows = fallen >>> 16;
+    fallen &= Gravity.ONE_ROW - 1;
+    return rows;
+  }
+
+  /**
+   * Forgets the fraction of row accumulated, when a new piece spawns.
+   */
+  void resetGravity() {
+    fallen = 0;
   }
 }
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+/**
+ * Schedules the ticks of the games. A game owns a single {@link TickHandler} that is rescheduled
+ * each time its status changes, so implementations must keep at most one pending tick per handler
+ * and must not allocate when a handler is rescheduled.
+ */
+public interface TickScheduler {
+
+  /**
+   * Schedules the next tick of a handler, replacing its pending tick if there is one.
+   *
+   * @param handler Handler to run.
+   * @param delay   Delay in milliseconds before the tick.
+   */
+  void schedule(TickHandler handler, long delay);
+
+  /**
+   * Cancels the pending tick of a handler. Has no effect if the handler has no pending tick.
+   *
+   * @param handler Handler to cancel.
+   */
+  void cancel(TickHandler handler);
+
+  /**
+   * Gets the scheduler shared by every game of the JVM.
+   *
+   * @return The shared scheduler.
+   */
+  static TickScheduler shared() {
+    return HashedWheelTickScheduler.SHARED;
+  }
+}
@@ -27,7 +27,8 @@ import esi.acgt.atlj.model.tetrimino.Mino;
 import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
 
 /**
- * Game that is going to be updated by server. Opponent.
+ * Game that is going to be updated by server. Opponent. The messages of the server are posted to
+ * the actor of the game.
  */
 public class UnmanagedGame extends AbstractGame {
 
@@ -44,9 +45,9 @@ public class UnmanagedGame extends AbstractGame {
    * @param tetrimino Tetrimino to set.
    */
   public void setActualTetrimino(TetriminoInterface tetrimino) {
-    Mino[][] oldBoard = this.getBoard();
+    beginUpdate();
     this.actualTetrimino = tetrimino;
-    this.changeSupport.firePropertyChange("board", oldBoard, this.getBoard());
+    commitUpdate();
   }
 
   /**
@@ -56,7 +57,7 @@ public class UnmanagedGame extends AbstractGame {
    */
   public void setNextTetrimino(TetriminoInterface tetrimino) {
     this.nextTetrimino = tetrimino;
-    this.changeSupport.firePropertyChange("next", null, this.getNextTetrimino());
+    firePropertyChange("next", null, tetrimino == null ? null : tetrimino.getType());
   }
 
   /**
@@ -66,7 +67,7 @@ public class UnmanagedGame extends AbstractGame {
    */
   public void setScore(int score) {
     this.score = score;
-    this.changeSupport.firePropertyChange("score", null, this.score);
+    firePropertyChange("score", null, this.score);
   }
 
   /**
@@ -76,17 +77,7 @@ public class UnmanagedGame extends AbstractGame {
    */
   public void setUsername(String username) {
     this.username = username;
-    this.changeSupport.firePropertyChange("username", null, this.username);
-  }
-
-  /**
-   * Sets the number of line the players has destroyed.
-   *
-   * @param nbLine Number of line to set to.
-   */
-  public void setNbLine(int nbLine) {
-    this.nbLine += nbLine;
-    this.changeSupport.firePropertyChange("line", null, this.nbLine);
+    firePropertyChange("username", null, this.username);
   }
 
   /**
@@ -95,7 +86,7 @@ public class UnmanagedGame extends AbstractGame {
   @Override
   public void setHold(Mino hold) {
     this.hold = hold;
-    this.changeSupport.firePropertyChange("hold", null, this.hold);
+    firePropertyChange("hold", null, this.hold);
   }
 
 
@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import java.util.Arrays;
+
+/**
+ * Tick scheduler driven by a virtual clock. Nothing happens on its own: ticks only run when the
+ * clock is stepped or advanced by the caller, on the calling thread when the games use a
+ * {@link GameActor#direct() direct actor}, so games run as fast as the CPU allows and always
+ * produce the same result for the same inputs. Ticks with the same deadline run in the order they
+ * have been scheduled.
+ */
+public class VirtualTickScheduler implements TickScheduler {
+
+  /**
+   * Pending handlers, kept as a binary heap ordered by deadline then by scheduling order.
+   */
+  private TickHandler[] queue;
+
+  /**
+   * Scheduling order of each slot of the queue.
+   */
+  private long[] orders;
+
+  /**
+   * Number of pending handlers.
+   */
+  private int size;
+
+  /**
+   * Number of ticks scheduled since the creation of the clock.
+   */
+  private long scheduled;
+
+  /**
+   * Current time of the clock in milliseconds.
+   */
+  private long now;
+
+  /**
+   * Creates a virtual clock starting at zero.
+   */
+  public VirtualTickScheduler() {
+    this.queue = new TickHandler[4];
+    this.orders = new long[4];
+  }
+
+  /**
+   * Gets the current time of the clock.
+   *
+   * @return Milliseconds elapsed since the creation of the clock.
+   */
+  public synchronized long now() {
+    return now;
+  }
+
+  /**
+   * Tells if a tick is pending.
+   *
+   * @return True if at least one handler is scheduled.
+   */
+  public synchronized boolean hasPending() {
+    return size > 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void schedule(TickHandler handler, long delay) {
+    remove(handler);
+    handler.sequence++;
+    handler.deadline = now + Math.max(0, delay);
+    if (size == queue.length) {
+      queue = Arrays.copyOf(queue, size * 2);
+      orders = Arrays.copyOf(orders, size * 2);
+    }
+    handler.scheduler = this;
+    place(handler, scheduled++, size++);
+    siftUp(size - 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void cancel(TickHandler handler) {
+    remove(handler);
+    handler.sequence++;
+  }
+
+  /**
+   * Runs the next pending tick, moving the clock to its deadline.
+   *
+   * @return True if a tick has run, false if no tick was pending.
+   */
+  public boolean step() {
+    TickHandler handler;
+    long sequence;
+    synchronized (this) {
+      if (size == 0) {
+        return false;
+      }
+      handler = queue[0];
+      now = Math.max(now, handler.deadline);
+      remove(handler);
+      sequence = handler.sequence;
+    }
+    handler.expire(sequence);
+    return true;
+  }
+
+  /**
+   * Runs the next ticks, moving the clock to the deadline of each of them.
+   *
+   * @param ticks Maximum number of ticks to run.
+   * @return Number of ticks that have run.
+   */
+  public int step(int ticks) {
+    int count = 0;
+    while (count < ticks && step()) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Moves the clock forward, running every tick whose deadline is reached on the way.
+   *
+   * @param millis Number of milliseconds to move forward.
+   */
+  public void advance(long millis) {
+    long target;
+    synchronized (this) {
+      target = now + millis;
+    }
+    while (true) {
+      synchronized (this) {
+        if (size == 0 || queue[0].deadline > target) {
+          now = target;
+          return;
+        }
+      }
+      step();
+    }
+  }
+
+  /**
+   * Removes a handler from the queue if it is pending on this clock.
+   *
+   * @param handler Handler to remove.
+   */
+  private void remove(TickHandler handler) {
+    if (handler.scheduler != this) {
+      return;
+    }
+    int slot = handler.bucket;
+    handler.scheduler = null;
+    size--;
+    if (slot != size) {
+      place(queue[size], orders[size], slot);
+      siftDown(slot);
+      siftUp(slot);
+    }
+    queue[size] = null;
+  }
+
+  /**
+   * Puts a handler in a slot of the queue.
+   *
+   * @param handler Handler to put.
+   * @param order   Scheduling order of the handler.
+   * @param slot    Slot of the queue.
+   */
+  private void place(TickHandler handler, long order, int slot) {
+    queue[slot] = handler;
+    orders[slot] = order;
+    handler.bucket = slot;
+  }
+
+  /**
+   * Tells if the handler of a slot has to run before the handler of another slot.
+   *
+   * @param a First slot.
+   * @param b Second slot.
+   * @return True if the first slot runs first.
+   */
+  private boolean before(int a, int b) {
+    if (queue[a].deadline != queue[b].deadline) {
+      return queue[a].deadline < queue[b].deadline;
+    }
+    return orders[a] < orders[b];
+  }
+
+  /**
+   * Swaps two slots of the queue.
+   *
+   * @param a First slot.
+   * @param b Second slot.
+   */
+  private void swap(int a, int b) {
+    TickHandler handler = queue[a];
+    long order = orders[a];
+    place(queue[b], orders[b], a);
+    place(handler, order, b);
+  }
+
+  private void siftUp(int slot) {
+    while (slot > 0) {
+      int parent = (slot - 1) / 2;
+      if (!before(slot, parent)) {
+        return;
+      }
+      swap(slot, parent);
+      slot = parent;
+    }
+  }
+
+  private void siftDown(int slot) {
+    while (true) {
+      int smallest = slot;
+      int left = 2 * slot + 1;
+      int right = left + 1;
+      if (left < size && before(left, smallest)) {
+        smallest = left;
+      }
+      if (right < size && before(right, smallest)) {
+        smallest = right;
+      }
+      if (smallest == slot) {
+        return;
+      }
+      swap(slot, smallest);
+      slot = smallest;
+    }
+  }
+}
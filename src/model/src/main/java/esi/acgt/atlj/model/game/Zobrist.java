@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+
+/**
+ * Random keys of the Zobrist hashes of the games. The hash of a state is the exclusive or of the
+ * keys of its parts, so it is updated by toggling the keys of the parts that change. The keys are
+ * drawn from a fixed seed: the same state has the same hash in every process, which lets the
+ * client and the server compare their hashes.
+ */
+public final class Zobrist {
+
+  /**
+   * Seed of the keys, part of the protocol: changing it changes every hash.
+   */
+  private static final long SEED = 0x5A0B2157_7E7215L;
+
+  private static final int CELLS = HEIGHT * WIDTH;
+
+  private static final int MINOS = Mino.values().length;
+
+  /**
+   * Key of each occupied cell, whatever its mino.
+   */
+  private static final long[] CELL_KEYS = keys(0, CELLS);
+
+  /**
+   * Key of each mino on each cell, indexed by {@code ordinal * CELLS + position}.
+   */
+  private static final long[] MINO_KEYS = keys(CELLS, MINOS * CELLS);
+
+  /**
+   * Key of each held mino, the last one standing for an empty hold case.
+   */
+  private static final long[] HOLD_KEYS = keys((MINOS + 1) * CELLS, MINOS + 1);
+
+  /**
+   * Offset of the keys of the current pieces, drawn on demand as they are too many to be tabled.
+   */
+  private static final long PIECE_OFFSET = (MINOS + 1L) * CELLS + MINOS + 1;
+
+  private Zobrist() {
+  }
+
+  /**
+   * Gets the key of an occupied cell, the same for every mino.
+   *
+   * @param x Column of the cell.
+   * @param y Line of the cell.
+   * @return Key of the cell.
+   */
+  public static long cell(int x, int y) {
+    return CELL_KEYS[y * WIDTH + x];
+  }
+
+  /**
+   * Gets the key of a mino on a cell.
+   *
+   * @param x    Column of the cell.
+   * @param y    Line of the cell.
+   * @param mino Mino on the cell.
+   * @return Key of the mino on the cell.
+   */
+  public static long mino(int x, int y, Mino mino) {
+    return MINO_KEYS[mino.ordinal() * CELLS + y * WIDTH + x];
+  }
+
+  /**
+   * Gets the key of the held mino.
+   *
+   * @param hold Held mino, null if the hold case is empty.
+   * @return Key of the hold case.
+   */
+  public static long hold(Mino hold) {
+    return HOLD_KEYS[hold == null ? HOLD_KEYS.length - 1 : hold.ordinal()];
+  }
+
+  /**
+   * Gets the key of the current piece.
+   *
+   * @param piece Packed state of the piece, {@link PieceState#NONE} for no piece.
+   * @return Key of the piece, zero when there is none.
+   */
+  public static long piece(int piece) {
+    return piece == PieceState.NONE ? 0 : key(PIECE_OFFSET + Integer.toUnsignedLong(piece));
+  }
+
+  private static long[] keys(int offset, int size) {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; ++i) {
+      keys[i] = key(offset + i);
+    }
+    return keys;
+  }
+
+  /**
+   * Draws the key of an index, splitmix64 over the index from the seed.
+   */
+  private static long key(long index) {
+    long z = SEED + (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
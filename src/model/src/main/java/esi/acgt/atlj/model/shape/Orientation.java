@@ -30,16 +30,13 @@ public enum Orientation {
   SOUTH,
   WEST;
 
-  public static Orientation next(Orientation actual, boolean clockwise) {
-    var values = Orientation.values();
-    var actualIndex = actual.ordinal();
-    int nextIndex = 0;
-    if (clockwise) {
-      nextIndex = (actualIndex + 1) % values.length;
-    } else {
-      nextIndex = !(actualIndex - 1 < 0) ? (actualIndex - 1) : (values.length - 1 - nextIndex);
-    }
+  /**
+   * All orientations indexed by their ordinal, cached to avoid cloning {@code values()}.
+   */
+  private static final Orientation[] VALUES = values();
 
-    return values[nextIndex];
+  public static Orientation next(Orientation actual, boolean clockwise) {
+    int step = clockwise ? 1 : VALUES.length - 1;
+    return VALUES[(actual.ordinal() + step) % VALUES.length];
   }
 }
@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.shape;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import java.util.Map;
+
+/**
+ * Precomputed table of every tetrimino shape in every orientation. A shape is identified by the
+ * index returned by {@link #index(Mino, Orientation)} and is stored as four packed lines where the
+ * bit {@code j} of a line is set when the column {@code j} of the 4x4 matrix holds a mino. The
+ * bounding box and the lowest mino of each column are computed once so collision, drop distance
+ * and placement code never has to walk a {@code Mino[][]}.
+ */
+public final class ShapeTable {
+
+  /**
+   * Size of the square matrix of a shape.
+   */
+  public static final int SIZE = 4;
+
+  /**
+   * Number of bits used by a column in a packed colour line.
+   */
+  public static final int COLOR_BITS = 3;
+
+  /**
+   * Number of orientations.
+   */
+  private static final int ORIENTATIONS = Orientation.values().length;
+
+  /**
+   * Number of shapes in the table.
+   */
+  private static final int SHAPES = Mino.values().length * ORIENTATIONS;
+
+  /**
+   * Packed lines of every shape.
+   */
+  private static final int[] LINES = new int[SHAPES * SIZE];
+
+  /**
+   * Packed colour lines of every shape, each column holding the ordinal of the mino plus one.
+   */
+  private static final int[] COLORS = new int[SHAPES * SIZE];
+
+  /**
+   * Lowest line holding a mino for each column of every shape, -1 for an empty column.
+   */
+  private static final int[] BOTTOMS = new int[SHAPES * SIZE];
+
+  /**
+   * Bounding box of every shape.
+   */
+  private static final int[] MIN_X = new int[SHAPES];
+  private static final int[] MAX_X = new int[SHAPES];
+  private static final int[] MIN_Y = new int[SHAPES];
+  private static final int[] MAX_Y = new int[SHAPES];
+
+  /**
+   * Matrix view of every shape, shared by every tetrimino.
+   */
+  private static final Mino[][][] MINOS = new Mino[SHAPES][][];
+
+  static {
+    for (Mino mino : Mino.values()) {
+      Map<Orientation, Mino[][]> shapes = shapesOf(mino);
+      for (Orientation orientation : Orientation.values()) {
+        int index = index(mino, orientation);
+        Mino[][] minos = shapes.get(orientation);
+        MINOS[index] = minos;
+        MIN_X[index] = SIZE;
+        MIN_Y[index] = SIZE;
+        MAX_X[index] = -1;
+        MAX_Y[index] = -1;
+        for (int j = 0; j < SIZE; ++j) {
+          BOTTOMS[index * SIZE + j] = -1;
+        }
+
+        for (int i = 0; i < SIZE; ++i) {
+          for (int j = 0; j < SIZE; ++j) {
+            if (minos[i][j] == null) {
+              continue;
+            }
+            LINES[index * SIZE + i] |= 1 << j;
+            COLORS[index * SIZE + i] |= (mino.ordinal() + 1) << (j * COLOR_BITS);
+            BOTTOMS[index * SIZE + j] = i;
+            MIN_X[index] = Math.min(MIN_X[index], j);
+            MAX_X[index] = Math.max(MAX_X[index], j);
+            MIN_Y[index] = Math.min(MIN_Y[index], i);
+            MAX_Y[index] = Math.max(MAX_Y[index], i);
+          }
+        }
+      }
+    }
+  }
+
+  private ShapeTable() {
+  }
+
+  /**
+   * Gets the shapes of a mino as declared by its shape interface.
+   *
+   * @param mino Mino of the tetrimino.
+   * @return Shapes of the tetrimino by orientation.
+   */
+  private static Map<Orientation, Mino[][]> shapesOf(Mino mino) {
+    return switch (mino) {
+      case I_MINO -> IShape.shapes;
+      case J_MINO -> JShape.shapes;
+      case L_MINO -> LShape.shapes;
+      case O_MINO -> OShape.shapes;
+      case S_MINO -> SShape.shapes;
+      case T_MINO -> TShape.shapes;
+      case Z_MINO -> ZShape.shapes;
+    };
+  }
+
+  /**
+   * Gets the index of a shape in the table.
+   *
+   * @param mino        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @return Index of the shape.
+   */
+  public static int index(Mino mino, Orientation orientation) {
+    return mino.ordinal() * ORIENTATIONS + orientation.ordinal();
+  }
+
+  /**
+   * Gets a packed line of a shape.
+   *
+   * @param index Index of the shape.
+   * @param line  Line of the 4x4 matrix.
+   * @return Mask of the columns holding a mino.
+   */
+  public static int line(int index, int line) {
+    return LINES[index * SIZE + line];
+  }
+
+  /**
+   * Gets a packed colour line of a shape.
+   *
+   * @param index Index of the shape.
+   * @param line  Line of the 4x4 matrix.
+   * @return Colour plane of the line, {@link #COLOR_BITS} bits per column.
+   */
+  public static int colorLine(int index, int line) {
+    return COLORS[index * SIZE + line];
+  }
+
+  /**
+   * Gets the lowest line holding a mino in a column of a shape.
+   *
+   * @param index  Index of the shape.
+   * @param column Column of the 4x4 matrix.
+   * @return Line of the lowest mino or -1 if the column is empty.
+   */
+  public static int bottom(int index, int column) {
+    return BOTTOMS[index * SIZE + column];
+  }
+
+  /**
+   * Gets the first column holding a mino.
+   *
+   * @param index Index of the shape.
+   * @return Leftmost column of the bounding box.
+   */
+  public static int minX(int index) {
+    return MIN_X[index];
+  }
+
+  /**
+   * Gets the last column holding a mino.
+   *
+   * @param index Index of the shape.
+   * @return Rightmost column of the bounding box.
+   */
+  public static int maxX(int index) {
+    return MAX_X[index];
+  }
+
+  /**
+   * Gets the first line holding a mino.
+   *
+   * @param index Index of the shape.
+   * @return Top line of the bounding box.
+   */
+  public static int minY(int index) {
+    return MIN_Y[index];
+  }
+
+  /**
+   * Gets the last line holding a mino.
+   *
+   * @param index Index of the shape.
+   * @return Bottom line of the bounding box.
+   */
+  public static int maxY(int index) {
+    return MAX_Y[index];
+  }
+
+  /**
+   * Gets the matrix view of a shape. The matrix is shared and must not be modified.
+   *
+   * @param mino        Mino of the tetrimino.
+   * @param orientation Orientation of the tetrimino.
+   * @return Matrix of minos of the shape.
+   */
+  public static Mino[][] minos(Mino mino, Orientation orientation) {
+    return MINOS[index(mino, orientation)];
+  }
+}
@@ -24,7 +24,6 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.shape.IShape;
-import esi.acgt.atlj.model.shape.Orientation;
 
 public class ITetrimino extends Tetrimino implements IShape {
 
@@ -36,9 +35,4 @@ public class ITetrimino extends Tetrimino implements IShape {
     this.minos = shapes.get(orientation);
     this.type = Mino.I_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
@@ -25,7 +25,6 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.shape.JShape;
-import esi.acgt.atlj.model.shape.Orientation;
 
 public class JTetrimino extends Tetrimino implements JShape {
 
@@ -42,9 +41,4 @@ public class JTetrimino extends Tetrimino implements JShape {
     };
     this.type = Mino.J_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
@@ -25,7 +25,6 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.shape.LShape;
-import esi.acgt.atlj.model.shape.Orientation;
 
 public class LTetrimino extends Tetrimino implements LShape {
 
@@ -42,9 +41,4 @@ public class LTetrimino extends Tetrimino implements LShape {
     };
     this.type = Mino.L_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
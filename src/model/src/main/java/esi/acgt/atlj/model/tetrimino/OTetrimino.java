@@ -25,7 +25,6 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.shape.OShape;
-import esi.acgt.atlj.model.shape.Orientation;
 
 public class OTetrimino extends Tetrimino implements OShape {
 
@@ -42,9 +41,4 @@ public class OTetrimino extends Tetrimino implements OShape {
     };
     this.type = Mino.O_MINO;
   }
-  
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.tetrimino;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+
+/**
+ * Packs the state of a tetrimino in a single {@code int}, so pieces can be stored, compared and
+ * sent without allocating. The low five bits are the index of the shape in
+ * {@link esi.acgt.atlj.model.shape.ShapeTable}, the type in bits 2 to 4 and the orientation in bits
+ * 0 and 1, followed by the column and the line as signed bytes.
+ *
+ * <pre>
+ *   31      24 23      16 15       8 7   5 4    2 1   0
+ *  +----------+----------+----------+-----+------+-----+
+ *  |  unused  |    y     |    x     |  0  | type | ori |
+ *  +----------+----------+----------+-----+------+-----+
+ * </pre>
+ */
+public final class PieceState {
+
+  /**
+   * State standing for no piece.
+   */
+  public static final int NONE = -1;
+
+  /**
+   * Column where the pieces spawn.
+   */
+  public static final int SPAWN_X = 3;
+
+  /**
+   * Line where the pieces spawn.
+   */
+  public static final int SPAWN_Y = 0;
+
+  private static final Mino[] MINOS = Mino.values();
+  private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+  private static final int ORIENTATION_MASK = 0x3;
+  private static final int SHAPE_MASK = 0x1F;
+  private static final int X_SHIFT = 8;
+  private static final int Y_SHIFT = 16;
+  private static final int BYTE = 0xFF;
+
+  private PieceState() {
+  }
+
+  /**
+   * Packs the state of a piece.
+   *
+   * @param type        Type of the piece.
+   * @param orientation Orientation of the piece.
+   * @param x           Column of the top left corner of the piece.
+   * @param y           Line of the top left corner of the piece.
+   * @return Packed state.
+   */
+  public static int of(Mino type, Orientation orientation, int x, int y) {
+    return (type.ordinal() << 2) | orientation.ordinal() | (x & BYTE) << X_SHIFT
+        | (y & BYTE) << Y_SHIFT;
+  }
+
+  /**
+   * Packs the state of a piece that has just spawned.
+   *
+   * @param type Type of the piece.
+   * @return Packed state.
+   */
+  public static int spawn(Mino type) {
+    return of(type, Orientation.NORTH, SPAWN_X, SPAWN_Y);
+  }
+
+  /**
+   * Packs the state of a tetrimino.
+   *
+   * @param tetrimino Tetrimino to pack, may be null.
+   * @return Packed state, {@link #NONE} for a null tetrimino.
+   */
+  public static int of(TetriminoInterface tetrimino) {
+    return tetrimino == null ? NONE : tetrimino.getState();
+  }
+
+  /**
+   * Tells if an int is a packed state, or {@link #NONE}: the unused bits are clear, the type is
+   * known and every mino of the piece is on the board. Used to check the states received from the
+   * network, the board shifting the lines of a piece by its column.
+   *
+   * @param state Int to check.
+   * @return True if the int is a packed state.
+   */
+  public static boolean isValid(int state) {
+    if (state == NONE) {
+      return true;
+    }
+    if (state >>> 24 != 0 || (state & BYTE) >= MINOS.length << 2) {
+      return false;
+    }
+    int shape = state & SHAPE_MASK;
+    return x(state) + ShapeTable.minX(shape) >= 0 && x(state) + ShapeTable.maxX(shape) < WIDTH
+        && y(state) + ShapeTable.minY(shape) >= 0 && y(state) + ShapeTable.maxY(shape) < HEIGHT;
+  }
+
+  public static Mino type(int state) {
+    return MINOS[(state & SHAPE_MASK) >>> 2];
+  }
+
+  public static Orientation orientation(int state) {
+    return ORIENTATIONS[state & ORIENTATION_MASK];
+  }
+
+  public static int x(int state) {
+    return (byte) (state >>> X_SHIFT);
+  }
+
+  public static int y(int state) {
+    return (byte) (state >>> Y_SHIFT);
+  }
+
+  /**
+   * Gets the index of the shape of a piece in the shape table.
+   *
+   * @param state Packed state.
+   * @return Index of the shape.
+   */
+  public static int shape(int state) {
+    return state & SHAPE_MASK;
+  }
+
+  /**
+   * Moves a piece.
+   *
+   * @param state Packed state.
+   * @param dx    Columns to move by.
+   * @param dy    Lines to move by.
+   * @return State of the moved piece.
+   */
+  public static int moved(int state, int dx, int dy) {
+    return (state & SHAPE_MASK) | ((x(state) + dx) & BYTE) << X_SHIFT
+        | ((y(state) + dy) & BYTE) << Y_SHIFT;
+  }
+
+  /**
+   * Rotates a piece without moving it.
+   *
+   * @param state     Packed state.
+   * @param clockwise True to rotate clockwise.
+   * @return State of the rotated piece.
+   */
+  public static int rotated(int state, boolean clockwise) {
+    int orientation = (state + (clockwise ? 1 : ORIENTATION_MASK)) & ORIENTATION_MASK;
+    return (state & ~ORIENTATION_MASK) | orientation;
+  }
+}
@@ -24,7 +24,6 @@
 
 package esi.acgt.atlj.model.tetrimino;
 
-import esi.acgt.atlj.model.shape.Orientation;
 import esi.acgt.atlj.model.shape.SShape;
 
 public class STetrimino extends Tetrimino implements SShape {
@@ -42,9 +41,4 @@ public class STetrimino extends Tetrimino implements SShape {
     };
     this.type = Mino.S_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
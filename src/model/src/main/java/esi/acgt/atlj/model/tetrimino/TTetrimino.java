@@ -24,7 +24,6 @@
 
 package esi.acgt.atlj.model.tetrimino;
 
-import esi.acgt.atlj.model.shape.Orientation;
 import esi.acgt.atlj.model.shape.TShape;
 
 public class TTetrimino extends Tetrimino implements TShape {
@@ -42,9 +41,4 @@ public class TTetrimino extends Tetrimino implements TShape {
     };
     this.type = Mino.T_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
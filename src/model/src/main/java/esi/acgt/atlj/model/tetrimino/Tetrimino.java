@@ -24,7 +24,9 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.game.Direction;
+import esi.acgt.atlj.model.game.GameInterface;
 import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
 import java.io.Serializable;
 
 public abstract class Tetrimino implements TetriminoInterface, Serializable {
@@ -73,27 +75,157 @@ public abstract class Tetrimino implements TetriminoInterface, Serializable {
     };
   }
 
+  /**
+   * Create a tetrimino from a packed state
+   *
+   * @param state State packed by {@link PieceState}.
+   * @return New tetrimino in the state
+   */
+  public static TetriminoInterface fromState(int state) {
+    TetriminoInterface tetrimino = createTetrimino(PieceState.type(state));
+    tetrimino.setState(state);
+    return tetrimino;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setState(int state) {
+    this.type = PieceState.type(state);
+    this.orientation = PieceState.orientation(state);
+    this.x = PieceState.x(state);
+    this.y = PieceState.y(state);
+    this.minos = ShapeTable.minos(type, orientation);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public boolean rotate(boolean clockwise, boolean[][] freeMask) {
     Orientation nextOrientation = Orientation.next(orientation, clockwise);
-    Mino[][] rotated = rotatedShape(clockwise);
+    if (!fitsMask(nextOrientation, freeMask, 0, 0)) {
+      return false;
+    }
+
+    minos = getShape(nextOrientation);
+    orientation = nextOrientation;
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean move(Direction direction, boolean[][] freeMask) {
+    if (!fitsMask(orientation, freeMask, 1 + direction.getDeltaX(), 1 + direction.getDeltaY())) {
+      return false;
+    }
+
+    this.x += direction.getDeltaX();
+    this.y += direction.getDeltaY();
+    return true;
+  }
 
-    for (int i = 0; i < minos.length; i++) {
-      for (int j = 0; j < minos[1].length; j++) {
-        if (!freeMask[i][j] && rotated[i][j] != null) {
+  /**
+   * Tells if the cells of the shape are free in a mask, reading the packed lines of the shape
+   * table. Cells outside the mask count as occupied.
+   *
+   * @param orientation Orientation of the shape.
+   * @param freeMask    Mask where free cells are true.
+   * @param xOffset     Column of the mask under the left column of the shape.
+   * @param yOffset     Line of the mask under the top line of the shape.
+   * @return True if every cell of the shape is free.
+   */
+  private boolean fitsMask(Orientation orientation, boolean[][] freeMask, int xOffset,
+      int yOffset) {
+    int shape = ShapeTable.index(type, orientation);
+    for (int line = ShapeTable.minY(shape); line <= ShapeTable.maxY(shape); ++line) {
+      int y = line + yOffset;
+      for (int bits = ShapeTable.line(shape, line); bits != 0; bits &= bits - 1) {
+        int x = Integer.numberOfTrailingZeros(bits) + xOffset;
+        if (y < 0 || y >= freeMask.length || x < 0 || x >= freeMask[y].length
+            || !freeMask[y][x]) {
           return false;
         }
       }
     }
+    return true;
+  }
 
-    minos = rotated;
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean rotate(boolean clockwise, GameInterface game) {
+    Orientation nextOrientation = Orientation.next(orientation, clockwise);
+    if (!game.fits(this, x, y, nextOrientation)) {
+      return false;
+    }
+
+    minos = getShape(nextOrientation);
     orientation = nextOrientation;
     return true;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean move(Direction direction, GameInterface game) {
+    int nextX = x + direction.getDeltaX();
+    int nextY = y + direction.getDeltaY();
+    if (!game.fits(this, nextX, nextY, orientation)) {
+      return false;
+    }
+
+    this.x = nextX;
+    this.y = nextY;
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hardDrop(GameInterface game) {
+    int distance = game.dropDistance(this);
+    this.y += distance;
+    return distance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int fall(int lines, GameInterface game) {
+    int distance = game.dropDistance(this, lines);
+    this.y += distance;
+    return distance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Mino[][] getShape(Orientation orientation) {
+    return ShapeTable.minos(type, orientation);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Mino[][] rotatedShape(boolean clockwise) {
+    return getShape(Orientation.next(orientation, clockwise));
+  }
+
+  @Override
+  public Orientation getOrientation() {
+    return this.orientation;
+  }
+
   @Override
   public int getX() {
     return this.x;
@@ -114,30 +246,6 @@ public abstract class Tetrimino implements TetriminoInterface, Serializable {
     return this.type;
   }
 
-  @Override
-  public boolean move(Direction direction, boolean[][] freeMask) {
-    Mino[][] minos = this.getMinos();
-    boolean movable = true;
-    for (int i = 0; i < minos.length; i++) {
-      for (int j = 0; j < minos[i].length; j++) {
-        int x = j + 1 + direction.getDeltaX();
-        int y = i + 1 + direction.getDeltaY();
-
-        if (!freeMask[y][x] && minos[i][j] != null) {
-          movable = false;
-        }
-      }
-    }
-
-    if (movable) {
-      this.x += direction.getDeltaX();
-      this.y += direction.getDeltaY();
-      return true;
-    }
-    return false;
-  }
-
-
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
@@ -24,6 +24,8 @@
 package esi.acgt.atlj.model.tetrimino;
 
 import esi.acgt.atlj.model.game.Direction;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.shape.Orientation;
 
 /**
  * The TetriminoInterface
@@ -51,6 +53,21 @@ public interface TetriminoInterface {
    */
   Mino[][] getMinos();
 
+  /**
+   * Get the orientation
+   *
+   * @return the orientation of the tetrimino
+   */
+  Orientation getOrientation();
+
+  /**
+   * Get the matrix of minos of the tetrimino in a given orientation
+   *
+   * @param orientation Orientation of the shape.
+   * @return the tetrimino as minos matrix in that orientation
+   */
+  Mino[][] getShape(Orientation orientation);
+
   /**
    * Get the minos wich the matrix is made of
    *
@@ -59,20 +76,77 @@ public interface TetriminoInterface {
   Mino getType();
 
   /**
-   * Rotate the Tetrimino
+   * Rotate the Tetrimino if the rotated shape fits in an area. Kept for the mask based callers,
+   * {@link #rotate(boolean, GameInterface)} does not need a mask.
    *
    * @param clockwise       true if clockwise
-   * @param surroundingArea Area of surrounding blocks.
+   * @param surroundingArea Area of surrounding blocks, starting at the top left corner of the
+   *                        tetrimino, where free cells are true.
    * @throws IllegalArgumentException if non valid parameters.
    */
   boolean rotate(boolean clockwise, boolean[][] surroundingArea);
 
   /**
-   * Moves the tetrimino in a direction
+   * Moves the tetrimino in a direction if its cells stay free in an area. Kept for the mask based
+   * callers, {@link #move(Direction, GameInterface)} does not need a mask.
    *
    * @param direction Direction to move tetrimino in.
+   * @param freeMask  Area around the tetrimino, with a margin of one cell on each side, where free
+   *                  cells are true.
    */
   boolean move(Direction direction, boolean[][] freeMask);
 
+  /**
+   * Rotate the Tetrimino if the rotated shape fits on the board of the game.
+   *
+   * @param clockwise true if clockwise
+   * @param game      Game to test the collisions against.
+   * @return True if the tetrimino has rotated.
+   */
+  boolean rotate(boolean clockwise, GameInterface game);
+
+  /**
+   * Moves the tetrimino in a direction if it fits on the board of the game.
+   *
+   * @param direction Direction to move tetrimino in.
+   * @param game      Game to test the collisions against.
+   * @return True if the tetrimino has moved.
+   */
+  boolean move(Direction direction, GameInterface game);
+
+  /**
+   * Moves the tetrimino down until it lands on the board of the game.
+   *
+   * @param game Game to test the collisions against.
+   * @return Number of lines the tetrimino has fallen.
+   */
+  int hardDrop(GameInterface game);
+
+  /**
+   * Moves the tetrimino down a number of lines, stopping if it lands on the board of the game.
+   *
+   * @param lines Maximum number of lines to fall.
+   * @param game  Game to test the collisions against.
+   * @return Number of lines the tetrimino has fallen.
+   */
+  int fall(int lines, GameInterface game);
+
   Mino[][] rotatedShape(boolean clockwise);
+
+  /**
+   * Gets the state of the tetrimino packed in an int.
+   *
+   * @return State packed by {@link PieceState}.
+   */
+  default int getState() {
+    return PieceState.of(getType(), getOrientation(), getX(), getY());
+  }
+
+  /**
+   * Sets the tetrimino from a packed state, type included, so a single tetrimino can be reused as
+   * the view of successive pieces.
+   *
+   * @param state State packed by {@link PieceState}.
+   */
+  void setState(int state);
 }
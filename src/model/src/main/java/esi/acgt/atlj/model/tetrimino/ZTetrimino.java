@@ -24,7 +24,6 @@
 
 package esi.acgt.atlj.model.tetrimino;
 
-import esi.acgt.atlj.model.shape.Orientation;
 import esi.acgt.atlj.model.shape.ZShape;
 
 public class ZTetrimino extends Tetrimino implements ZShape {
@@ -42,9 +41,4 @@ public class ZTetrimino extends Tetrimino implements ZShape {
     };
     this.type = Mino.Z_MINO;
   }
-
-  @Override
-  public Mino[][] rotatedShape(boolean clockwise) {
-    return shapes.get(Orientation.next(orientation, clockwise));
-  }
 }
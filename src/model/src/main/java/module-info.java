@@ -4,4 +4,5 @@ module atlj.model {
   exports esi.acgt.atlj.model.game;
   exports esi.acgt.atlj.model.tetrimino;
   exports esi.acgt.atlj.model.shape;
+  exports esi.acgt.atlj.model.ai;
 }
\ No newline at end of file
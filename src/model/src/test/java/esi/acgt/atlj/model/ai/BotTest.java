@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.game.Simulation;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class BotTest {
+
+  /**
+   * Builds a board whose four bottom lines are full but for their last column.
+   */
+  private static Bitboard well() {
+    Bitboard board = new Bitboard();
+    for (int y = GameInterface.HEIGHT - 4; y < GameInterface.HEIGHT; ++y) {
+      for (int x = 0; x < GameInterface.WIDTH - 1; ++x) {
+        board.setMino(x, y, Mino.J_MINO);
+      }
+    }
+    return board;
+  }
+
+  @Nested
+  class Decisions {
+
+    @Test
+    public void tetrisIsChosenWhenAvailable() {
+      Bot bot = new Bot(null, Evaluator.DEFAULT, null);
+      int best = bot.choose(well(), PieceState.spawn(Mino.I_MINO), null);
+
+      int piece = bot.getPlacements().getPiece(best);
+      Bitboard board = well();
+      board.place(PieceState.type(piece), PieceState.orientation(piece), PieceState.x(piece),
+          PieceState.y(piece));
+      assertEquals(4, Integer.bitCount(board.fullLines(-1 >>> (32 - GameInterface.HEIGHT))),
+          "four lines");
+    }
+
+    @Test
+    public void parallelAndSequentialSearchesAgree() {
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        Bot parallel = new Bot(null, Evaluator.DEFAULT, pool);
+        Bot sequential = new Bot(null, Evaluator.DEFAULT, null);
+        Bitboard board = well();
+        board.setMino(9, 17, Mino.S_MINO);
+        for (Mino mino : Mino.values()) {
+          int piece = PieceState.spawn(mino);
+          int expected = sequential.choose(board, piece, Mino.T_MINO);
+          assertEquals(expected, parallel.choose(board, piece, Mino.T_MINO), mino.name());
+          assertEquals(sequential.getValue(expected), parallel.getValue(expected), mino.name());
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  @Nested
+  class Games {
+
+    @Test
+    public void botClearsLinesWithoutLosing() {
+      Simulation simulation = new Simulation("bot", 11);
+      simulation.start();
+      Bot bot = new Bot(simulation.getGame());
+      for (int i = 0; i < 200; ++i) {
+        assertTrue(bot.play(), "piece " + i);
+      }
+
+      assertFalse(simulation.isOver(), "still playing");
+      assertTrue(simulation.getGame().getScore() > 0, "lines cleared");
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.game.Direction;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.game.ManagedGame;
+import esi.acgt.atlj.model.game.Simulation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.Arrays;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class MoveGeneratorTest {
+
+  /**
+   * Tells if a placement covers a cell of the board.
+   */
+  private static boolean covers(int piece, int x, int y) {
+    int shape = PieceState.shape(piece);
+    int line = y - PieceState.y(piece);
+    int column = x - PieceState.x(piece);
+    return line >= 0 && line < ShapeTable.SIZE && column >= 0 && column < ShapeTable.SIZE
+        && (ShapeTable.line(shape, line) & (1 << column)) != 0;
+  }
+
+  @Nested
+  class EmptyBoard {
+
+    @Test
+    public void everyColumnAndOrientationIsFound() {
+      MoveGenerator generator = new MoveGenerator();
+      Placements placements = new Placements();
+      Bitboard board = new Bitboard();
+
+      assertEquals(34, generator.generate(board, PieceState.spawn(Mino.T_MINO), placements), "T");
+      assertEquals(9, generator.generate(board, PieceState.spawn(Mino.O_MINO), placements), "O");
+      assertEquals(17, generator.generate(board, PieceState.spawn(Mino.I_MINO), placements), "I");
+    }
+
+    @Test
+    public void pathsEndWithTheHardDrop() {
+      MoveGenerator generator = new MoveGenerator();
+      Placements placements = new Placements();
+      generator.generate(new Bitboard(), PieceState.spawn(Mino.L_MINO), placements);
+
+      for (int i = 0; i < placements.size(); ++i) {
+        int last = placements.getPathLength(i) - 1;
+        assertEquals(Input.HARD_DROP, placements.getInput(i, last), "placement " + i);
+      }
+    }
+
+    @Test
+    public void blockedSpawnHasNoPlacement() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < GameInterface.WIDTH; ++x) {
+        board.setMino(x, 1, Mino.Z_MINO);
+      }
+
+      assertEquals(0, new MoveGenerator().generate(board, PieceState.spawn(Mino.T_MINO),
+          new Placements()), "no placement");
+    }
+  }
+
+  @Nested
+  class Paths {
+
+    @Test
+    public void replayedPathsReachTheirPlacement() {
+      Simulation simulation = new Simulation("bot", 7);
+      simulation.start();
+      ManagedGame game = simulation.getGame();
+      Placements placements = new Placements();
+      new MoveGenerator().generate(game.getBitboard(),
+          PieceState.of(game.getActualTetrimino()), placements);
+
+      for (int i = 0; i < placements.size(); ++i) {
+        Simulation replay = new Simulation("bot", 7);
+        replay.start();
+        ManagedGame player = replay.getGame();
+        for (int step = 0; step < placements.getPathLength(i) - 1; ++step) {
+          switch (placements.getInput(i, step)) {
+            case LEFT -> assertTrue(player.move(Direction.LEFT), "left");
+            case RIGHT -> assertTrue(player.move(Direction.RIGHT), "right");
+            case SOFT_DROP -> assertTrue(player.move(Direction.DOWN), "down");
+            case ROTATE_CLOCKWISE -> assertTrue(player.rotate(true), "clockwise");
+            case ROTATE_ANTI_CLOCKWISE -> assertTrue(player.rotate(false), "anti clockwise");
+            default -> throw new AssertionError("hard drop in the middle of a path");
+          }
+        }
+        int landed = PieceState.moved(PieceState.of(player.getActualTetrimino()), 0,
+            player.dropDistance(player.getActualTetrimino()));
+        assertEquals(placements.getPiece(i), landed, "placement " + i);
+      }
+    }
+
+    @Test
+    public void tuckUnderOverhangIsFound() {
+      Bitboard board = new Bitboard();
+      board.setMino(0, 19, Mino.Z_MINO);
+      board.setMino(1, 19, Mino.Z_MINO);
+      for (int x = 4; x < GameInterface.WIDTH; ++x) {
+        board.setMino(x, 20, Mino.Z_MINO);
+        board.setMino(x, 21, Mino.Z_MINO);
+      }
+      Placements placements = new Placements();
+      new MoveGenerator().generate(board, PieceState.spawn(Mino.O_MINO), placements);
+
+      int tuck = -1;
+      for (int i = 0; i < placements.size(); ++i) {
+        int piece = placements.getPiece(i);
+        if (covers(piece, 0, 20) && covers(piece, 1, 21)) {
+          tuck = i;
+        }
+      }
+      assertTrue(tuck >= 0, "tuck found");
+      assertTrue(Arrays.asList(placements.getPath(tuck)).contains(Input.SOFT_DROP),
+          "soft drop in the path");
+    }
+
+    @Test
+    public void dropsStayOnTheInitialLine() {
+      MoveGenerator generator = new MoveGenerator();
+      Placements placements = new Placements();
+      generator.generateDrops(new Bitboard(), PieceState.spawn(Mino.T_MINO), placements);
+
+      assertEquals(34, placements.size(), "same placements as a full search on an empty board");
+      for (int i = 0; i < placements.size(); ++i) {
+        assertFalse(Arrays.asList(placements.getPath(i)).contains(Input.SOFT_DROP), "no drop");
+      }
+    }
+  }
+}
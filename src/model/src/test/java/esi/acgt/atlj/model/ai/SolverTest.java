@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.ai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import esi.acgt.atlj.model.game.Bitboard;
+import esi.acgt.atlj.model.game.GameInterface;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class SolverTest {
+
+  private static final Mino[] O_QUEUE = {Mino.O_MINO, Mino.O_MINO, Mino.O_MINO, Mino.O_MINO,
+      Mino.O_MINO, Mino.O_MINO};
+
+  /**
+   * Places the pieces of a solution on a copy of a board, clearing the full lines.
+   */
+  private static Bitboard replay(Bitboard board, Solution solution) {
+    Bitboard result = new Bitboard(board);
+    for (int i = 0; i < solution.size(); ++i) {
+      int piece = solution.getPiece(i);
+      int touched = result.place(PieceState.type(piece), PieceState.orientation(piece),
+          PieceState.x(piece), PieceState.y(piece));
+      result.removeLines(result.fullLines(touched));
+    }
+    return result;
+  }
+
+  @Nested
+  class PerfectClear {
+
+    @Test
+    public void lastPieceClearsTheBoard() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < GameInterface.WIDTH; ++x) {
+        if (x < 3 || x > 6) {
+          board.setMino(x, GameInterface.HEIGHT - 1, Mino.Z_MINO);
+        }
+      }
+      Solution solution = new Solver().perfectClear(board,
+          new Mino[]{Mino.I_MINO, Mino.T_MINO}, 1000);
+
+      assertNotNull(solution, "solution");
+      assertEquals(1, solution.size(), "one piece");
+      assertEquals(GameInterface.HEIGHT, replay(board, solution).getTop(), "empty board");
+    }
+
+    @Test
+    public void fewestPiecesAreUsed() {
+      Bitboard board = new Bitboard();
+      Solution solution = new Solver().perfectClear(board, O_QUEUE, 1000);
+
+      assertNotNull(solution, "solution");
+      assertEquals(5, solution.size(), "two lines of squares");
+      assertEquals(GameInterface.HEIGHT, replay(board, solution).getTop(), "empty board");
+    }
+
+    @Test
+    public void impossibleQueueHasNoSolution() {
+      Mino[] queue = {Mino.S_MINO, Mino.S_MINO, Mino.S_MINO, Mino.S_MINO, Mino.S_MINO};
+
+      assertNull(new Solver().perfectClear(new Bitboard(), queue, 1000), "no solution");
+    }
+
+    @Test
+    public void parallelSearchFindsASolution() {
+      ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+        Bitboard board = new Bitboard();
+        Solution solution = new Solver(pool).perfectClear(board, O_QUEUE, 1000);
+
+        assertNotNull(solution, "solution");
+        assertEquals(GameInterface.HEIGHT, replay(board, solution).getTop(), "empty board");
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    public void regionsMustHoldWholePieces() {
+      Bitboard board = new Bitboard();
+      board.setMino(2, GameInterface.HEIGHT - 1, Mino.Z_MINO);
+
+      assertEquals(false, Solver.isFillable(board, 1), "two regions of 2 and 7 cells");
+    }
+  }
+
+  @Nested
+  class Finesse {
+
+    @Test
+    public void shortestPathReachesTheTarget() {
+      Bitboard board = new Bitboard();
+      int spawn = PieceState.spawn(Mino.T_MINO);
+      int target = PieceState.moved(spawn, -3, board.dropDistance(Mino.T_MINO,
+          PieceState.orientation(spawn), 0, PieceState.y(spawn)));
+      Input[] path = new Solver().finesse(board, spawn, target);
+
+      assertArrayEquals(new Input[]{Input.LEFT, Input.LEFT, Input.LEFT, Input.HARD_DROP}, path,
+          "three moves and a drop");
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class BitboardTest {
+
+  @Nested
+  class Cells {
+
+    @Test
+    public void setAndGet() {
+      Bitboard board = new Bitboard();
+      board.setMino(0, 21, Mino.I_MINO);
+      board.setMino(9, 21, Mino.T_MINO);
+
+      assertEquals(Mino.I_MINO, board.getMino(0, 21), "first column");
+      assertEquals(Mino.T_MINO, board.getMino(9, 21), "last column");
+      assertNull(board.getMino(5, 21), "empty cell");
+      assertEquals(0b1000000001, board.getLine(21), "occupancy mask");
+    }
+
+    @Test
+    public void clear() {
+      Bitboard board = new Bitboard();
+      board.setMino(4, 10, Mino.Z_MINO);
+      board.setMino(4, 10, null);
+
+      assertNull(board.getMino(4, 10), "cleared cell");
+      assertTrue(board.isEmpty(10), "empty line");
+    }
+
+    @Test
+    public void outOfBoundIsOccupied() {
+      Bitboard board = new Bitboard();
+
+      assertTrue(board.isOccupied(-1, 0), "left wall");
+      assertTrue(board.isOccupied(10, 0), "right wall");
+      assertTrue(board.isOccupied(0, 22), "floor");
+      assertFalse(board.isOccupied(0, 0), "free cell");
+    }
+  }
+
+  @Nested
+  class Shapes {
+
+    @Test
+    public void placeAndCollide() {
+      Bitboard board = new Bitboard();
+      board.place(Mino.T_MINO, Orientation.NORTH, 3, 20);
+
+      assertEquals(Mino.T_MINO, board.getMino(4, 20), "top of the T");
+      assertEquals(0b0000111000, board.getLine(21), "bottom of the T");
+      assertTrue(board.collides(Mino.T_MINO, Orientation.NORTH, 3, 20), "same place");
+      assertTrue(board.collides(Mino.T_MINO, Orientation.NORTH, 3, 21), "floor");
+      assertFalse(board.collides(Mino.T_MINO, Orientation.NORTH, 3, 18), "above");
+    }
+
+    @Test
+    public void walls() {
+      Bitboard board = new Bitboard();
+
+      assertFalse(board.collides(Mino.I_MINO, Orientation.EAST, -2, 0), "against left wall");
+      assertTrue(board.collides(Mino.I_MINO, Orientation.EAST, -3, 0), "through left wall");
+      assertFalse(board.collides(Mino.I_MINO, Orientation.NORTH, 6, 0), "against right wall");
+      assertTrue(board.collides(Mino.I_MINO, Orientation.NORTH, 7, 0), "through right wall");
+    }
+
+    @Test
+    public void dropDistance() {
+      Bitboard board = new Bitboard();
+      board.setMino(4, 15, Mino.O_MINO);
+
+      assertEquals(20, board.dropDistance(Mino.I_MINO, Orientation.NORTH, 0, 0), "empty columns");
+      assertEquals(13, board.dropDistance(Mino.T_MINO, Orientation.NORTH, 3, 0), "on a mino");
+      assertEquals(1, board.dropDistance(Mino.T_MINO, Orientation.NORTH, 3, 0, 1), "one line");
+      assertEquals(13, board.dropDistance(Mino.T_MINO, Orientation.NORTH, 3, 0, 20), "landed");
+    }
+
+    @Test
+    public void placeKeepsOtherColors() {
+      Bitboard board = new Bitboard();
+      board.setMino(0, 21, Mino.Z_MINO);
+      board.place(Mino.I_MINO, Orientation.NORTH, 1, 20);
+
+      assertEquals(Mino.Z_MINO, board.getMino(0, 21), "untouched cell");
+      assertEquals(Mino.I_MINO, board.getMino(4, 21), "placed cell");
+    }
+  }
+
+  @Nested
+  class Lines {
+
+    @Test
+    public void removeLine() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < GameInterface.WIDTH; ++x) {
+        board.setMino(x, 21, Mino.O_MINO);
+      }
+      board.setMino(2, 20, Mino.S_MINO);
+
+      assertTrue(board.isFull(21), "full line");
+      board.removeLine(21);
+
+      assertFalse(board.isFull(21), "line removed");
+      assertEquals(Mino.S_MINO, board.getMino(2, 21), "line above moved down");
+      assertTrue(board.isEmpty(20), "line above is now empty");
+      assertEquals(21, board.getTop(), "watermark moved down");
+    }
+
+    @Test
+    public void removeSeveralLines() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < GameInterface.WIDTH; ++x) {
+        board.setMino(x, 21, Mino.O_MINO);
+        board.setMino(x, 19, Mino.I_MINO);
+      }
+      board.setMino(1, 20, Mino.S_MINO);
+      board.setMino(2, 18, Mino.T_MINO);
+      board.removeLines((1 << 21) | (1 << 19));
+
+      assertEquals(Mino.S_MINO, board.getMino(1, 21), "line between moved down once");
+      assertEquals(Mino.T_MINO, board.getMino(2, 20), "line above moved down twice");
+      assertTrue(board.isEmpty(19), "top emptied");
+      assertEquals(20, board.getTop(), "watermark");
+    }
+
+    @Test
+    public void fullLinesAmongTouched() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < GameInterface.WIDTH - 1; ++x) {
+        board.setMino(x, 21, Mino.O_MINO);
+        board.setMino(x, 20, Mino.O_MINO);
+      }
+      int touched = board.place(Mino.I_MINO, Orientation.EAST, 7, 18);
+
+      assertEquals(0b1111 << 18, touched, "touched lines");
+      assertEquals(0b11 << 20, board.fullLines(touched), "full lines");
+      assertEquals(1, board.getFill(18), "fill of a touched line");
+    }
+
+    @Test
+    public void watermark() {
+      Bitboard board = new Bitboard();
+      assertEquals(GameInterface.HEIGHT, board.getTop(), "empty board");
+
+      board.place(Mino.I_MINO, Orientation.EAST, 0, 10);
+      assertEquals(10, board.getTop(), "top of the piece");
+
+      board.setMino(2, 10, null);
+      assertEquals(11, board.getTop(), "top cleared");
+    }
+  }
+
+  @Nested
+  class Hashes {
+
+    @Test
+    public void emptyBoardHasNoKey() {
+      Bitboard board = new Bitboard();
+      board.place(Mino.T_MINO, Orientation.NORTH, 3, 18);
+      board.setMino(4, 18, null);
+      board.setMino(3, 19, null);
+      board.setMino(4, 19, null);
+      board.setMino(5, 19, null);
+
+      assertEquals(0, board.getHash(), "hash");
+      assertEquals(0, board.getShapeHash(), "shape hash");
+    }
+
+    @Test
+    public void orderDoesNotMatter() {
+      Bitboard first = new Bitboard();
+      first.place(Mino.I_MINO, Orientation.NORTH, 0, 20);
+      first.place(Mino.O_MINO, Orientation.NORTH, 4, 19);
+      Bitboard second = new Bitboard();
+      second.place(Mino.O_MINO, Orientation.NORTH, 4, 19);
+      second.place(Mino.I_MINO, Orientation.NORTH, 0, 20);
+
+      assertEquals(first.getHash(), second.getHash(), "hash");
+      assertEquals(first.getShapeHash(), new Bitboard(second).getShapeHash(), "copy");
+    }
+
+    @Test
+    public void colorsOnlyChangeTheHash() {
+      Bitboard first = new Bitboard();
+      first.setMino(2, 21, Mino.S_MINO);
+      Bitboard second = new Bitboard();
+      second.setMino(2, 21, Mino.Z_MINO);
+
+      assertFalse(first.getHash() == second.getHash(), "hash");
+      assertEquals(first.getShapeHash(), second.getShapeHash(), "shape hash");
+    }
+
+    @Test
+    public void overwrittenCellsKeepOneKey() {
+      Bitboard board = new Bitboard();
+      board.setMino(5, 21, Mino.J_MINO);
+      board.place(Mino.I_MINO, Orientation.NORTH, 3, 20);
+      Bitboard expected = new Bitboard();
+      expected.place(Mino.I_MINO, Orientation.NORTH, 3, 20);
+
+      assertEquals(expected.getHash(), board.getHash(), "hash");
+      assertEquals(expected.getShapeHash(), board.getShapeHash(), "shape hash");
+    }
+
+    @Test
+    public void removedLinesMoveTheKeys() {
+      Bitboard board = new Bitboard();
+      for (int x = 0; x < 10; ++x) {
+        board.setMino(x, 21, Mino.L_MINO);
+        board.setMino(x, 19, Mino.L_MINO);
+      }
+      board.setMino(3, 20, Mino.T_MINO);
+      board.setMino(7, 18, Mino.Z_MINO);
+      board.removeLines(1 << 21 | 1 << 19);
+      Bitboard expected = new Bitboard();
+      expected.setMino(3, 21, Mino.T_MINO);
+      expected.setMino(7, 20, Mino.Z_MINO);
+
+      assertEquals(expected.getHash(), board.getHash(), "hash");
+      assertEquals(expected.getShapeHash(), board.getShapeHash(), "shape hash");
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static esi.acgt.atlj.model.game.GameInterface.WIDTH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.Tetrimino;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class BoardChangeTest {
+
+  /**
+   * Board rebuilt from the changes only, the way a view would do.
+   */
+  private static class Mirror implements BoardListener {
+
+    private final Mino[][] minos = new Mino[HEIGHT][WIDTH];
+    private final List<BoardChange> changes = new ArrayList<>();
+
+    @Override
+    public void boardChanged(BoardChange change) {
+      changes.add(change);
+      int write = HEIGHT - 1;
+      for (int read = HEIGHT - 1; read >= 0; read--) {
+        if ((change.getClearedLines() & (1 << read)) == 0) {
+          minos[write--] = minos[read].clone();
+        }
+      }
+      for (; write >= 0; write--) {
+        minos[write] = new Mino[WIDTH];
+      }
+      for (int i = 0; i < change.size(); i++) {
+        minos[change.getY(i)][change.getX(i)] = change.getMino(i);
+      }
+    }
+  }
+
+  @Nested
+  class Deltas {
+
+    @Test
+    public void moveSendsOnlyTetriminoCells() {
+      Simulation simulation = new Simulation("bot", 3);
+      Mirror mirror = new Mirror();
+      simulation.getGame().addBoardListener(mirror);
+      simulation.start();
+      mirror.changes.clear();
+      simulation.getGame().move(Direction.LEFT);
+
+      assertEquals(1, mirror.changes.size(), "one change");
+      assertTrue(mirror.changes.get(0).size() <= 8, "cells from and to");
+      assertEquals(0, mirror.changes.get(0).getClearedLines(), "no line cleared");
+    }
+
+    @Test
+    public void blockedMoveSendsNothing() {
+      Simulation simulation = new Simulation("bot", 3);
+      Mirror mirror = new Mirror();
+      simulation.getGame().addBoardListener(mirror);
+      simulation.start();
+      for (int i = 0; i < WIDTH; i++) {
+        simulation.getGame().move(Direction.LEFT);
+      }
+      mirror.changes.clear();
+      simulation.getGame().move(Direction.LEFT);
+
+      assertTrue(mirror.changes.isEmpty(), "no change");
+    }
+
+    @Test
+    public void removeLinesSendsMask() {
+      UnmanagedGame game = new UnmanagedGame();
+      Mirror mirror = new Mirror();
+      game.addBoardListener(mirror);
+      game.removeLines(1 << 21);
+
+      assertEquals(1 << 21, mirror.changes.get(0).getClearedLines(), "cleared lines");
+    }
+  }
+
+  @Nested
+  class Updates {
+
+    @Test
+    public void lockIsPublishedOnce() {
+      Simulation simulation = new Simulation("bot", 5);
+      ManagedGame game = simulation.getGame();
+      simulation.start();
+      List<GameUpdate> updates = new ArrayList<>();
+      List<Integer> locks = new ArrayList<>();
+      List<Integer> scores = new ArrayList<>();
+      game.addUpdateListener(updates::add);
+      game.connectTetriminoLock(
+          (tetrimino, clearedLines, score, nbLines, hash) -> locks.add(score));
+      game.connectSendScoreServer(scores::add);
+      game.hardDrop();
+
+      assertEquals(1, updates.size(), "one update");
+      assertEquals(List.of(game.getScore()), locks, "one lock with the score");
+      assertTrue(scores.isEmpty(), "score sent with the lock");
+      assertTrue(updates.get(0).getBoardChange() != null, "board changed");
+      assertTrue(updates.get(0).getEvents().stream()
+          .anyMatch(event -> event.getPropertyName().equals("score")), "score changed");
+    }
+
+    @Test
+    public void opponentLockIsPublishedOnce() {
+      UnmanagedGame game = new UnmanagedGame();
+      List<GameUpdate> updates = new ArrayList<>();
+      game.addUpdateListener(updates::add);
+      game.lockTetrimino(Tetrimino.createTetrimino(Mino.I_MINO), 0, 120, 3);
+
+      assertEquals(1, updates.size(), "one update");
+      assertEquals(120, game.getScore(), "score");
+      assertEquals(2, updates.get(0).getEvents().size(), "score and lines");
+    }
+  }
+
+  @Nested
+  class Replay {
+
+    @Test
+    public void mirrorMatchesBoard() {
+      Simulation simulation = new Simulation("bot", 11);
+      Mirror mirror = new Mirror();
+      simulation.getGame().addBoardListener(mirror);
+      simulation.start();
+      for (int turn = 0; turn < 300 && !simulation.isOver(); turn++) {
+        simulation.step(2);
+        simulation.getGame().move(turn % 4 < 2 ? Direction.LEFT : Direction.RIGHT);
+        simulation.getGame().rotate(turn % 3 == 0);
+        if (turn % 2 == 0) {
+          simulation.getGame().hardDrop();
+        }
+      }
+
+      Mino[][] board = simulation.getGame().getBoard();
+      for (int y = 0; y < HEIGHT; y++) {
+        assertArrayEquals(board[y], mirror.minos[y], "line " + y);
+      }
+    }
+  }
+}
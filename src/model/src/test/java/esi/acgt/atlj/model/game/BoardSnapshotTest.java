@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static esi.acgt.atlj.model.game.GameInterface.HEIGHT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class BoardSnapshotTest {
+
+  private static Simulation started(long seed) {
+    Simulation simulation = new Simulation("snapshot", seed);
+    simulation.start();
+    return simulation;
+  }
+
+  @Nested
+  class Sharing {
+
+    @Test
+    public void moveOnlyRebuildsTheLinesOfThePiece() {
+      Simulation simulation = started(1);
+      ManagedGame game = simulation.getGame();
+      BoardSnapshot before = game.getSnapshot().getBoardSnapshot();
+      game.move(Direction.LEFT);
+      BoardSnapshot after = game.getSnapshot().getBoardSnapshot();
+
+      int y = game.getActualTetrimino().getY();
+      for (int line = 0; line < HEIGHT; ++line) {
+        if (line < y || line > y + 3) {
+          assertTrue(after.sharesLine(before, line), "line " + line);
+        }
+      }
+    }
+
+    @Test
+    public void unchangedGameKeepsItsSnapshot() {
+      Simulation simulation = started(2);
+      ManagedGame game = simulation.getGame();
+      BoardSnapshot before = game.getSnapshot().getBoardSnapshot();
+      game.setScore(10);
+      assertSame(before, game.getSnapshot().getBoardSnapshot());
+    }
+
+    @Test
+    public void emptyLinesAreShared() {
+      for (int line = 0; line < HEIGHT; ++line) {
+        assertTrue(BoardSnapshot.EMPTY.sharesLine(BoardSnapshot.EMPTY, line));
+        assertEquals(0, BoardSnapshot.EMPTY.getLine(line));
+      }
+    }
+  }
+
+  @Nested
+  class Consistency {
+
+    @Test
+    public void snapshotMatchesTheBoardDuringAGame() {
+      Simulation simulation = started(3);
+      ManagedGame game = simulation.getGame();
+      int turn = 0;
+      while (!simulation.isOver() && turn < 300) {
+        simulation.step(2);
+        if (simulation.isOver()) {
+          break;
+        }
+        game.move(turn % 3 == 0 ? Direction.LEFT : Direction.RIGHT);
+        if (turn % 2 == 0) {
+          game.hardDrop();
+        }
+        Mino[][] board = game.getBoard();
+        Mino[][] snapshot = game.getSnapshot().getBoard();
+        for (int y = 0; y < HEIGHT; ++y) {
+          assertArrayEquals(board[y], snapshot[y], "turn " + turn + ", line " + y);
+        }
+        turn++;
+      }
+    }
+
+    @Test
+    public void snapshotIsNotChangedByTheGame() {
+      Simulation simulation = started(4);
+      ManagedGame game = simulation.getGame();
+      game.hardDrop();
+      BoardSnapshot snapshot = game.getSnapshot().getBoardSnapshot();
+      Mino[][] before = snapshot.toMinos();
+
+      for (int i = 0; i < 10 && !simulation.isOver(); ++i) {
+        game.hardDrop();
+      }
+
+      Mino[][] after = snapshot.toMinos();
+      for (int y = 0; y < HEIGHT; ++y) {
+        assertArrayEquals(before[y], after[y], "line " + y);
+      }
+      assertFalse(snapshot == game.getSnapshot().getBoardSnapshot());
+    }
+  }
+}
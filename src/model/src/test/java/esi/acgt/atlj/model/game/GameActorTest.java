@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.Tetrimino;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class GameActorTest {
+
+  /**
+   * Waits for the tasks posted to an actor before the call to have run.
+   */
+  private static void await(GameActor actor) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    actor.execute(done::countDown);
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  @Nested
+  class Mailbox {
+
+    @Test
+    public void tasksOfSeveralThreadsRunOneAtATimeInOrder() throws InterruptedException {
+      GameActor actor = GameActor.shared();
+      int producers = 4;
+      int tasks = 10_000;
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger overlaps = new AtomicInteger();
+      int[] last = new int[producers];
+      List<Integer> disorders = new ArrayList<>();
+
+      List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; ++p) {
+        int producer = p;
+        threads.add(new Thread(() -> {
+          for (int i = 1; i <= tasks; ++i) {
+            int task = i;
+            actor.execute(() -> {
+              if (running.incrementAndGet() != 1) {
+                overlaps.incrementAndGet();
+              }
+              if (last[producer] != task - 1) {
+                disorders.add(task);
+              }
+              last[producer] = task;
+              running.decrementAndGet();
+            });
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      await(actor);
+
+      assertEquals(0, overlaps.get());
+      assertTrue(disorders.isEmpty());
+      for (int p = 0; p < producers; ++p) {
+        assertEquals(tasks, last[p]);
+      }
+    }
+
+    @Test
+    public void directActorRunsNestedTasksAfterTheCurrentOne() {
+      GameActor actor = GameActor.direct();
+      List<String> runs = new ArrayList<>();
+      actor.execute(() -> {
+        actor.execute(() -> runs.add("nested"));
+        runs.add("outer");
+      });
+      assertEquals(List.of("outer", "nested"), runs);
+    }
+
+    @Test
+    public void failingTaskDoesNotStopTheActor() throws InterruptedException {
+      GameActor actor = GameActor.shared();
+      AtomicInteger runs = new AtomicInteger();
+      actor.execute(() -> {
+        throw new IllegalStateException("failure");
+      });
+      actor.execute(runs::incrementAndGet);
+      await(actor);
+      assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void directActorRethrowsFailures() {
+      GameActor actor = GameActor.direct();
+      List<String> runs = new ArrayList<>();
+      assertThrows(IllegalStateException.class, () -> actor.execute(() -> {
+        actor.execute(() -> runs.add("nested"));
+        throw new IllegalStateException("failure");
+      }));
+      assertTrue(runs.isEmpty());
+
+      actor.execute(() -> runs.add("next"));
+      assertEquals(List.of("nested", "next"), runs);
+    }
+  }
+
+  @Nested
+  class Snapshots {
+
+    @Test
+    public void inputsArePublishedInTheSnapshot() throws InterruptedException {
+      ManagedGame game = new ManagedGame("player", new VirtualTickScheduler(),
+          GameActor.shared());
+      assertEquals(GameStatus.NOT_STARTED, game.getSnapshot().getStatus());
+
+      game.submit(() -> {
+        game.setActualTetrimino(Tetrimino.createTetrimino(Mino.T_MINO));
+        game.setNextTetrimino(Tetrimino.createTetrimino(Mino.I_MINO));
+        game.start();
+      });
+      game.submit(() -> game.move(Direction.LEFT));
+      game.submit(game::hardDrop);
+      await(game.getActor());
+
+      GameSnapshot snapshot = game.getSnapshot();
+      assertEquals(GameStatus.TETRIMINO_FALLING, snapshot.getStatus());
+      assertEquals(Mino.I_MINO, snapshot.getType());
+      assertTrue(snapshot.getScore() > 0);
+      int cells = 0;
+      for (Mino[] line : snapshot.getBoard()) {
+        for (Mino mino : line) {
+          cells += mino == Mino.T_MINO ? 1 : 0;
+        }
+      }
+      assertEquals(4, cells);
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterUpdates() throws InterruptedException {
+      UnmanagedGame game = new UnmanagedGame();
+      game.submit(() -> game.setScore(100));
+      await(game.getActor());
+      GameSnapshot before = game.getSnapshot();
+
+      game.submit(() -> {
+        game.setScore(200);
+        game.setActualTetrimino(null);
+      });
+      await(game.getActor());
+
+      assertEquals(100, before.getScore());
+      assertFalse(before.getType() == null);
+      assertEquals(200, game.getSnapshot().getScore());
+      assertNull(game.getSnapshot().getType());
+      assertNull(game.getSnapshot().getStatus());
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package esi.acgt.atlj.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class HashedWheelTickSchedulerTest {
+
+  private static final ManagedGame GAME = new ManagedGame("probe", new VirtualTickScheduler(),
+      GameActor.direct());
+
+  /**
+   * Wheel of 1 ms ticks small enough for the delays of the tests to wrap around it.
+   */
+  private final HashedWheelTickScheduler wheel = new HashedWheelTickScheduler(1, 4);
+
+  private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Handler recording when and in which order it runs, on the thread of the wheel.
+   */
+  private final class Probe extends TickHandler {
+
+    private final String name;
+    private final AtomicInteger runs = new AtomicInteger();
+    private final CountDownLatch ran = new CountDownLatch(1);
+    private long scheduledAt;
+    private volatile long ranAt;
+
+    Probe(String name) {
+      super(GAME, Runnable::run);
+      this.name = name;
+    }
+
+    void schedule(long delay) {
+      scheduledAt = System.nanoTime();
+      wheel.schedule(this, delay);
+    }
+
+    void await() throws InterruptedException {
+      assertTrue(ran.await(5, TimeUnit.SECONDS), name + " has run");
+    }
+
+    long elapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(ranAt - scheduledAt);
+    }
+
+    @Override
+    public void run() {
+      ranAt = System.nanoTime();
+      runs.incrementAndGet();
+      order.add(name);
+      ran.countDown();
+    }
+  }
+
+  @Nested
+  class Schedule {
+
+    @Test
+    public void handlerRunsOnceAfterItsDelay() throws InterruptedException {
+      Probe probe = new Probe("probe");
+      probe.schedule(20);
+      probe.await();
+
+      assertTrue(probe.elapsedMillis() >= 19, "ran after " + probe.elapsedMillis() + " ms");
+      Probe sentinel = new Probe("sentinel");
+      sentinel.schedule(10);
+      sentinel.await();
+      assertEquals(1, probe.runs.get());
+    }
+
+    @Test
+    public void handlersRunInDeadlineOrderAcrossRotations() throws InterruptedException {
+      long[] delays = {30, 5, 17, 9, 2, 13};
+      List<Probe> probes = new ArrayList<>();
+      for (long delay : delays) {
+        Probe probe = new Probe(String.valueOf(delay));
+        probes.add(probe);
+        probe.schedule(delay);
+      }
+      for (Probe probe : probes) {
+        probe.await();
+      }
+
+      assertEquals(List.of("2", "5", "9", "13", "17", "30"), order);
+      for (int i = 0; i < delays.length; ++i) {
+        Probe probe = probes.get(i);
+        assertTrue(probe.elapsedMillis() >= delays[i] - 1,
+            probe.name + " ran after " + probe.elapsedMillis() + " ms");
+      }
+    }
+  }
+
+  @Nested
+  class Cancel {
+
+    @Test
+    public void cancelledHandlerDoesNotRun() throws InterruptedException {
+      Probe cancelled = new Probe("cancelled");
+      Probe sentinel = new Probe("sentinel");
+      cancelled.schedule(10);
+      sentinel.schedule(30);
+      wheel.cancel(cancelled);
+      sentinel.await();
+
+      assertEquals(0, cancelled.runs.get());
+      assertEquals(List.of("sentinel"), order);
+    }
+
+    @Test
+    public void cancellingAnIdleHandlerHasNoEffect() throws InterruptedException {
+      Probe probe = new Probe("probe");
+      wheel.cancel(probe);
+      probe.schedule(5);
+      probe.await();
+
+      assertEquals(1, probe.runs.get());
+    }
+  }
+
+  @Nested
+  class Reschedule {
+
+    @Test
+    public void rescheduleReplacesThePendingTick() throws InterruptedException {
+      Probe probe = new Probe("probe");
+      probe.schedule(10);
+      probe.schedule(40);
+      Probe sentinel = new Probe("sentinel");
+      sentinel.schedule(60);
+      sentinel.await();
+
+      assertEquals(1, probe.runs.get());
+      assertTrue(probe.elapsedMillis() >= 39, "ran after " + probe.elapsedMillis() + " ms");
+      assertEquals(List.of("probe", "sentinel"), order);
+    }
+
+    @Test
+    public void rescheduleCanBringTheTickForward() throws InterruptedException {
+      Probe probe = new Probe("probe");
+      Probe sentinel = new Probe("sentinel");
+      probe.schedule(50);
+      sentinel.schedule(20);
+      probe.schedule(5);
+      sentinel.await();
+
+      assertEquals(1, probe.runs.get());
+      assertEquals(List.of("probe", "sentinel"), order);
+    }
+  }
+}
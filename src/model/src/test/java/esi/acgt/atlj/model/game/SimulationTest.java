@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.ai.Bot;
+import esi.acgt.atlj.model.ai.Evaluator;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import esi.acgt.atlj.model.tetrimino.TetriminoInterface;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class SimulationTest {
+
+  /**
+   * Plays a game, hard dropping every few ticks and moving pieces from side to side.
+   */
+  private static Simulation play(long seed) {
+    Simulation simulation = new Simulation("bot", seed);
+    simulation.start();
+    int turn = 0;
+    while (!simulation.isOver() && turn < 500) {
+      simulation.step(3);
+      simulation.getGame().move(turn % 2 == 0 ? Direction.LEFT : Direction.RIGHT);
+      simulation.getGame().rotate(turn % 3 == 0);
+      simulation.getGame().hardDrop();
+      turn++;
+    }
+    return simulation;
+  }
+
+  @Nested
+  class Clock {
+
+    @Test
+    public void ticksRunInDeadlineOrder() {
+      VirtualTickScheduler clock = new VirtualTickScheduler();
+      List<Long> runs = new ArrayList<>();
+      TickHandler late = new RecordingHandler(clock, runs);
+      TickHandler early = new RecordingHandler(clock, runs);
+      clock.schedule(late, 300);
+      clock.schedule(early, 100);
+
+      assertEquals(1, clock.step(1), "one tick");
+      assertEquals(100, clock.now(), "clock at first deadline");
+      clock.advance(1000);
+      assertEquals(List.of(100L, 300L), runs, "run times");
+      assertEquals(1100, clock.now(), "clock after advance");
+      assertFalse(clock.hasPending(), "nothing pending");
+    }
+
+    @Test
+    public void cancelledTickDoesNotRun() {
+      VirtualTickScheduler clock = new VirtualTickScheduler();
+      List<Long> runs = new ArrayList<>();
+      TickHandler handler = new RecordingHandler(clock, runs);
+      clock.schedule(handler, 10);
+      clock.cancel(handler);
+
+      assertEquals(0, clock.step(5), "no tick");
+      assertTrue(runs.isEmpty(), "no run");
+    }
+  }
+
+  @Nested
+  class Determinism {
+
+    @Test
+    public void gravityMovesPiece() {
+      Simulation simulation = new Simulation("bot", 1);
+      simulation.start();
+      int y = simulation.getGame().getActualTetrimino().getY();
+      simulation.advance(TickHandler.tickDelay(1) * 3);
+
+      assertEquals(y + 3, simulation.getGame().getActualTetrimino().getY(), "three rows");
+    }
+
+    @Test
+    public void sameSeedSameGame() {
+      Simulation first = play(42);
+      Simulation second = play(42);
+
+      assertEquals(first.getGame().getScore(), second.getGame().getScore(), "score");
+      assertEquals(first.getClock().now(), second.getClock().now(), "duration");
+      Mino[][] board = first.getGame().getBoard();
+      for (int y = 0; y < board.length; y++) {
+        assertArrayEquals(board[y], second.getGame().getBoard()[y], "line " + y);
+      }
+    }
+
+    @Test
+    public void hashFollowsTheGame() {
+      Simulation first = play(42);
+      Simulation second = play(42);
+      ManagedGame game = first.getGame();
+      Bitboard rebuilt = new Bitboard();
+      for (int y = 0; y < GameInterface.HEIGHT; y++) {
+        for (int x = 0; x < GameInterface.WIDTH; x++) {
+          rebuilt.setMino(x, y, game.getBitboard().getMino(x, y));
+        }
+      }
+
+      assertEquals(rebuilt.getHash(), game.getBitboard().getHash(), "board after the clears");
+      assertEquals(game.getHash(), second.getGame().getHash(), "same game");
+      assertEquals(game.getHash(), game.getSnapshot().getHash(), "snapshot");
+
+      Simulation held = new Simulation("bot", 7);
+      Simulation moved = new Simulation("bot", 7);
+      held.start();
+      moved.start();
+      long start = held.getGame().getHash();
+      held.getGame().hold();
+      moved.getGame().move(Direction.LEFT);
+      assertNotEquals(start, held.getGame().getHash(), "held piece");
+      assertNotEquals(start, moved.getGame().getHash(), "moved piece");
+      moved.getGame().move(Direction.RIGHT);
+      assertEquals(start, moved.getGame().getHash(), "piece moved back");
+    }
+  }
+
+  @Nested
+  class Mirrors {
+
+    @Test
+    public void mirrorMatchesEveryLock() {
+      Simulation simulation = new Simulation("bot", 42);
+      UnmanagedGame mirror = new UnmanagedGame();
+      List<Boolean> matches = new ArrayList<>();
+      simulation.getGame().connectTetriminoLock((piece, clearedLines, score, nbLines, hash) -> {
+        mirror.lockTetrimino(piece, clearedLines, score, nbLines);
+        matches.add(mirror.matches(hash));
+      });
+      simulation.start();
+      for (int turn = 0; turn < 40 && !simulation.isOver(); turn++) {
+        simulation.getGame().move(turn % 2 == 0 ? Direction.LEFT : Direction.RIGHT);
+        simulation.getGame().hardDrop();
+      }
+
+      assertFalse(matches.isEmpty(), "locks");
+      assertFalse(matches.contains(false), "mirror in sync");
+    }
+
+    @Test
+    public void mirrorKeepsTheLineCount() {
+      Simulation simulation = new Simulation("bot", 7);
+      ManagedGame game = simulation.getGame();
+      UnmanagedGame mirror = new UnmanagedGame();
+      game.connectTetriminoLock((piece, clearedLines, score, nbLines, hash) ->
+          mirror.lockTetrimino(piece, clearedLines, score, nbLines));
+      Bot bot = new Bot(game, Evaluator.DEFAULT, null);
+      simulation.start();
+      for (int piece = 0; piece < 60 && bot.play(); piece++) {
+        assertEquals(game.getNbLine(), mirror.getNbLine(), "lines after piece " + piece);
+      }
+
+      assertTrue(game.getNbLine() > 1, "lines cleared");
+      assertEquals(game.getNbLine(), mirror.getNbLine(), "mirror lines");
+    }
+
+    @Test
+    public void resyncRestoresTheMirror() {
+      Simulation simulation = play(42);
+      ManagedGame game = simulation.getGame();
+      UnmanagedGame mirror = new UnmanagedGame();
+      mirror.placePiece(PieceState.spawn(Mino.T_MINO));
+      long hash = game.getBitboard().getHash();
+
+      assertFalse(mirror.matches(hash), "out of sync");
+      mirror.resync(game.packBoard());
+      assertTrue(mirror.matches(hash), "in sync");
+      assertEquals(GameInterface.HEIGHT - game.getBitboard().getTop(), game.packBoard().length,
+          "packed lines");
+    }
+  }
+
+  @Nested
+  class Gravity {
+
+    @Test
+    public void twentyGLandsInOneFrame() {
+      Simulation simulation = new Simulation("bot", 1);
+      simulation.getGame().setLevel(25);
+      simulation.start();
+      var tetrimino = simulation.getGame().getActualTetrimino();
+      int floor = tetrimino.getY() + simulation.getGame().dropDistance(tetrimino);
+
+      assertEquals(1, simulation.step(1), "one tick");
+      assertEquals(floor, tetrimino.getY(), "on the floor");
+      assertTrue(simulation.getClock().now() <= 17, "within one frame");
+    }
+
+    @Test
+    public void fastLevelsTickOncePerFrameAtMost() {
+      Simulation simulation = new Simulation("bot", 1);
+      simulation.getGame().setLevel(15);
+      simulation.start();
+      int ticks = 0;
+      while (simulation.getGame().getStatus() == GameStatus.TETRIMINO_FALLING) {
+        ticks += simulation.step(1);
+      }
+
+      assertTrue(ticks <= 20, "ticks " + ticks);
+      assertTrue(simulation.getClock().now() >= ticks * 16L, "frame paced");
+    }
+  }
+
+  @Nested
+  class Pieces {
+
+    @Test
+    public void spawnsReuseTheLockedTetriminos() {
+      Simulation simulation = new Simulation("bot", 8);
+      simulation.start();
+      Set<TetriminoInterface> views = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (int turn = 0; turn < 20 && !simulation.isOver(); turn++) {
+        simulation.getGame().move(turn % 2 == 0 ? Direction.LEFT : Direction.RIGHT);
+        simulation.getGame().hardDrop();
+        views.add(simulation.getGame().getActualTetrimino());
+        views.add(simulation.getGame().getNextTetrimino());
+      }
+      views.remove(null);
+      assertTrue(views.size() <= 3, "views " + views.size());
+    }
+
+    @Test
+    public void holdSwapsTheCurrentPiece() {
+      Simulation simulation = new Simulation("bot", 9);
+      simulation.start();
+      ManagedGame game = simulation.getGame();
+      Mino first = game.getActualTetrimino().getType();
+      Mino second = game.getNextTetrimino().getType();
+
+      game.hold();
+      assertEquals(first, game.getHold(), "held");
+      assertEquals(second, game.getActualTetrimino().getType(), "next piece");
+      assertFalse(game.getActualTetrimino() == game.getNextTetrimino(), "next piece drawn");
+
+      game.hardDrop();
+      game.hold();
+      assertEquals(first, game.getActualTetrimino().getType(), "held piece back");
+      assertEquals(PieceState.spawn(first), game.getActualTetrimino().getState(), "spawned");
+    }
+  }
+
+  /**
+   * Handler recording the time of each of its ticks.
+   */
+  private static class RecordingHandler extends TickHandler {
+
+    private final VirtualTickScheduler clock;
+    private final List<Long> runs;
+
+    RecordingHandler(VirtualTickScheduler clock, List<Long> runs) {
+      super(null, Runnable::run);
+      this.clock = clock;
+      this.runs = runs;
+    }
+
+    @Override
+    public void run() {
+      runs.add(clock.now());
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.model.tetrimino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.model.shape.Orientation;
+import esi.acgt.atlj.model.shape.ShapeTable;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class PieceStateTest {
+
+  @Nested
+  class Packing {
+
+    @Test
+    public void roundTrip() {
+      for (Mino mino : Mino.values()) {
+        for (Orientation orientation : Orientation.values()) {
+          for (int x = -2; x <= 10; ++x) {
+            for (int y = -2; y <= 22; ++y) {
+              int state = PieceState.of(mino, orientation, x, y);
+              assertEquals(mino, PieceState.type(state), "type");
+              assertEquals(orientation, PieceState.orientation(state), "orientation");
+              assertEquals(x, PieceState.x(state), "x");
+              assertEquals(y, PieceState.y(state), "y");
+              assertEquals(ShapeTable.index(mino, orientation), PieceState.shape(state), "shape");
+            }
+          }
+        }
+      }
+    }
+
+    @Test
+    public void moveAndRotate() {
+      int state = PieceState.spawn(Mino.T_MINO);
+      int moved = PieceState.moved(state, -4, 2);
+      assertEquals(-1, PieceState.x(moved), "x");
+      assertEquals(2, PieceState.y(moved), "y");
+      assertEquals(Mino.T_MINO, PieceState.type(moved), "type");
+
+      int rotated = PieceState.rotated(moved, false);
+      assertEquals(Orientation.WEST, PieceState.orientation(rotated), "anti-clockwise");
+      assertEquals(moved, PieceState.rotated(rotated, true), "clockwise");
+    }
+
+    @Test
+    public void validity() {
+      assertTrue(PieceState.isValid(PieceState.NONE), "none");
+      assertTrue(PieceState.isValid(PieceState.of(Mino.T_MINO, Orientation.WEST, 8, 19)),
+          "last type");
+      assertFalse(PieceState.isValid(Mino.values().length << 2), "unknown type");
+      assertFalse(PieceState.isValid(0x20), "bit 5");
+      assertFalse(PieceState.isValid(1 << 24), "unused byte");
+    }
+
+    @Test
+    public void validityOfThePosition() {
+      assertTrue(PieceState.isValid(PieceState.of(Mino.I_MINO, Orientation.EAST, -2, 0)),
+          "left wall");
+      assertTrue(PieceState.isValid(PieceState.of(Mino.I_MINO, Orientation.NORTH, 6, 20)),
+          "bottom right corner");
+      assertFalse(PieceState.isValid(PieceState.of(Mino.I_MINO, Orientation.EAST, -3, 0)),
+          "left of the board");
+      assertFalse(PieceState.isValid(PieceState.of(Mino.I_MINO, Orientation.NORTH, 7, 0)),
+          "right of the board");
+      assertFalse(PieceState.isValid(PieceState.of(Mino.T_MINO, Orientation.NORTH, 3, -1)),
+          "above the board");
+      assertFalse(PieceState.isValid(PieceState.of(Mino.T_MINO, Orientation.NORTH, 3, 21)),
+          "below the board");
+      assertFalse(PieceState.isValid(PieceState.of(Mino.O_MINO, Orientation.NORTH, 100, 0)),
+          "far column");
+    }
+  }
+
+  @Nested
+  class View {
+
+    @Test
+    public void tetriminoFollowsItsState() {
+      TetriminoInterface tetrimino = Tetrimino.createTetrimino(Mino.I_MINO);
+      assertEquals(PieceState.spawn(Mino.I_MINO), tetrimino.getState(), "spawn state");
+
+      int state = PieceState.of(Mino.S_MINO, Orientation.SOUTH, 5, 12);
+      tetrimino.setState(state);
+      assertEquals(Mino.S_MINO, tetrimino.getType(), "type");
+      assertEquals(Orientation.SOUTH, tetrimino.getOrientation(), "orientation");
+      assertEquals(5, tetrimino.getX(), "x");
+      assertEquals(12, tetrimino.getY(), "y");
+      assertSame(ShapeTable.minos(Mino.S_MINO, Orientation.SOUTH), tetrimino.getMinos(),
+          "shared shape");
+      assertEquals(state, Tetrimino.fromState(state).getState(), "created from state");
+    }
+  }
+}
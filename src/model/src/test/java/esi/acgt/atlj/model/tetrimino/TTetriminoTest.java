@@ -26,7 +26,12 @@ package esi.acgt.atlj.model.tetrimino;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import esi.acgt.atlj.model.game.Direction;
+import esi.acgt.atlj.model.shape.Orientation;
+import java.util.Arrays;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -157,4 +162,49 @@ class TTetriminoTest {
       }
     }
   }
+
+  @Nested
+  class Masks {
+
+    private boolean[][] freeArea(int size) {
+      boolean[][] area = new boolean[size][size];
+      for (boolean[] line : area) {
+        Arrays.fill(line, true);
+      }
+      return area;
+    }
+
+    @Test
+    public void rotationBlockedByAnOccupiedCell() {
+      TTetrimino tetrimino = new TTetrimino();
+      boolean[][] area = freeArea(4);
+      area[1][2] = false;
+
+      assertFalse(tetrimino.rotate(true, area), "rotated into a mino");
+      assertEquals(Orientation.NORTH, tetrimino.getOrientation(), "orientation");
+      assertTrue(tetrimino.rotate(false, area), "rotated away from the mino");
+      assertEquals(Orientation.WEST, tetrimino.getOrientation(), "orientation");
+    }
+
+    @Test
+    public void moveChecksTheShiftedCells() {
+      TTetrimino tetrimino = new TTetrimino();
+      boolean[][] area = freeArea(6);
+      area[2][4] = false;
+
+      assertFalse(tetrimino.move(Direction.RIGHT, area), "moved into a mino");
+      assertEquals(3, tetrimino.getX(), "x after the blocked move");
+      assertTrue(tetrimino.move(Direction.LEFT, area), "moved away from the mino");
+      assertEquals(2, tetrimino.getX(), "x after the move");
+      assertTrue(tetrimino.move(Direction.DOWN, area), "moved down");
+      assertEquals(1, tetrimino.getY(), "y after the move");
+    }
+
+    @Test
+    public void cellsOutsideTheMaskAreOccupied() {
+      TTetrimino tetrimino = new TTetrimino();
+      assertFalse(tetrimino.move(Direction.DOWN, freeArea(3)), "moved out of the mask");
+      assertEquals(0, tetrimino.getY(), "y");
+    }
+  }
 }
\ No newline at end of file
@@ -29,11 +29,12 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * All necessary definition to run a server.
+ * All necessary definition to run a server. The clients are served either by a thread each, or by
+ * a few event loops multiplexing their channels, which scales to many more clients.
  */
 public abstract class AbstractServer implements Runnable {
 
@@ -66,10 +67,34 @@ public abstract class AbstractServer implements Runnable {
   private int backlog = 10;
 
   /**
-   * The thread group associated with client threads. Each member of the thread group is a <code>
-   * ConnectionToClient </code>.
+   * Connections with the clients, each one removed once closed.
    */
-  private final List<Thread> threads;
+  private final Set<ClientConnection> connections;
+
+  /**
+   * Number of event loops serving the clients, 0 for a thread per client.
+   */
+  private final int eventLoops;
+
+  /**
+   * Event loops serving the clients, null for a thread per client or until the server listens.
+   */
+  private EventLoopGroup loopGroup;
+
+  /**
+   * Id of the next client.
+   */
+  private int nextId;
+
+  /**
+   * Limits of the outbound queues of the clients connected from now on.
+   */
+  private volatile OutboundLimits outboundLimits = OutboundLimits.DEFAULT;
+
+  /**
+   * Metrics of the outbound queues of the clients.
+   */
+  private final OutboundMetrics outboundMetrics = new OutboundMetrics();
 
   /**
    * Indicates if the listening thread is ready to stop. Set to true by default.
@@ -77,13 +102,27 @@ public abstract class AbstractServer implements Runnable {
   private boolean readyToStop = true;
 
   /**
-   * Constructs a new server.
+   * Constructs a new server serving each client with its own thread.
    *
    * @param port the port number on which to listen.
    */
   public AbstractServer(int port) {
+    this(port, 0);
+  }
+
+  /**
+   * Constructs a new server.
+   *
+   * @param port       the port number on which to listen.
+   * @param eventLoops Number of event loops serving the clients, 0 for a thread per client.
+   */
+  public AbstractServer(int port, int eventLoops) {
+    if (eventLoops < 0) {
+      throw new IllegalArgumentException("Negative number of event loops: " + eventLoops);
+    }
     this.port = port;
-    threads = new ArrayList<>();
+    this.eventLoops = eventLoops;
+    connections = ConcurrentHashMap.newKeySet();
   }
 
   /**
@@ -95,6 +134,13 @@ public abstract class AbstractServer implements Runnable {
    * @throws IOException if an I/O error occurs while closing the server socket.
    */
   final public void close() throws IOException {
+    if (loopGroup != null) {
+      stopListening();
+      loopGroup.close();
+      loopGroup = null;
+      serverClosed();
+      return;
+    }
     if (serverSocket == null) {
       return;
     }
@@ -103,9 +149,9 @@ public abstract class AbstractServer implements Runnable {
       serverSocket.close();
     } finally {
       synchronized (this) {
-        for (Thread clientThreadList1 : threads) {
+        for (ClientConnection client : connections) {
           try {
-            ((CustomClientThread) clientThreadList1).close();
+            client.close();
           } catch (Exception ignored) {
           }
         }
@@ -134,6 +180,9 @@ public abstract class AbstractServer implements Runnable {
    * @return true if the server is listening.
    */
   final public boolean isListening() {
+    if (loopGroup != null) {
+      return loopGroup.isListening();
+    }
     return connectionListener != null && connectionListener.isAlive(); // modified in version 2.31
   }
 
@@ -144,6 +193,16 @@ public abstract class AbstractServer implements Runnable {
    * @throws IOException if an I/O error occurs when creating the server socket.
    */
   final public void listen() throws IOException {
+    if (eventLoops > 0) {
+      if (!isListening()) {
+        EventLoopGroup group = new EventLoopGroup(this, eventLoops);
+        group.listen(port);
+        loopGroup = group;
+        readyToStop = false;
+        serverStarted(port);
+      }
+      return;
+    }
     if (!isListening()) {
       if (serverSocket == null) {
         serverSocket = new ServerSocket(getPort(), backlog);
@@ -158,7 +217,70 @@ public abstract class AbstractServer implements Runnable {
    * Causes the server to stop accepting new connections.
    */
   final public void stopListening() {
+    boolean stopped = readyToStop;
     readyToStop = true;
+    if (loopGroup != null) {
+      loopGroup.stopListening();
+      if (!stopped) {
+        serverStopped();
+      }
+    }
+  }
+
+  /**
+   * Gets the limits of the outbound queues of the clients connected from now on.
+   *
+   * @return Limits of the outbound queues.
+   */
+  final public OutboundLimits getOutboundLimits() {
+    return outboundLimits;
+  }
+
+  /**
+   * Sets the limits of the outbound queues of the clients connected from now on.
+   *
+   * @param limits Limits of the outbound queues.
+   */
+  final public void setOutboundLimits(OutboundLimits limits) {
+    this.outboundLimits = limits;
+  }
+
+  /**
+   * Gets the metrics of the outbound queues of the clients.
+   *
+   * @return Metrics of the outbound queues.
+   */
+  final public OutboundMetrics getOutboundMetrics() {
+    return outboundMetrics;
+  }
+
+  /**
+   * Gets the id of the next client.
+   *
+   * @return Unique id of a client.
+   */
+  synchronized int nextClientId() {
+    return nextId++;
+  }
+
+  /**
+   * Keeps an accepted connection, to close it with the server.
+   *
+   * @param client Connection with the client.
+   */
+  void connectionAccepted(ClientConnection client) {
+    connections.add(client);
+  }
+
+  /**
+   * Forgets a closed connection and calls {@link #clientDisconnected(ClientConnection)}.
+   *
+   * @param client Connection with the client.
+   */
+  void connectionClosed(ClientConnection client) {
+    if (connections.remove(client)) {
+      clientDisconnected(client);
+    }
   }
 
   /**
@@ -168,7 +290,7 @@ public abstract class AbstractServer implements Runnable {
    *
    * @param client the connection connected to the client.
    */
-  protected void clientConnected(CustomClientThread client) {
+  protected void clientConnected(ClientConnection client) {
   }
 
   /**
@@ -180,7 +302,7 @@ public abstract class AbstractServer implements Runnable {
    * @param client the connection with the client.
    */
   synchronized protected void clientDisconnected(
-      CustomClientThread client) {
+      ClientConnection client) {
   }
 
   /**
@@ -195,7 +317,17 @@ public abstract class AbstractServer implements Runnable {
    * @param exception the exception thrown.
    */
   synchronized protected void clientException(
-      CustomClientThread client, Throwable exception) {
+      ClientConnection client, Throwable exception) {
+  }
+
+  /**
+   * Hook method called when a client is evicted for not reading its messages, before its
+   * connection is closed. The default implementation does nothing. This method may be overridden
+   * by subclasses.
+   *
+   * @param client the client evicted.
+   */
+  protected void clientEvicted(ClientConnection client) {
   }
 
   /**
@@ -235,7 +367,7 @@ public abstract class AbstractServer implements Runnable {
    *
    * @param e Client to add to list.
    */
-  protected synchronized void addSpectator(CustomClientThread e, int matchId) {
+  protected synchronized void addSpectator(ClientConnection e, int matchId) {
   }
 
   /**
@@ -243,7 +375,7 @@ public abstract class AbstractServer implements Runnable {
    *
    * @param client Client to add to match-up
    */
-  protected synchronized void addPlayer(CustomClientThread client, int matchId) {
+  protected synchronized void addPlayer(ClientConnection client, int matchId) {
   }
 
   /**
@@ -259,9 +391,10 @@ public abstract class AbstractServer implements Runnable {
           Socket clientSocket = serverSocket.accept();
           synchronized (this) {
             if (!readyToStop) {
-              CustomClientThread client = new CustomClientThread(
-                  clientSocket, this, threads.size());
-              this.threads.add(client);
+              CustomClientThread client = new CustomClientThread(clientSocket, this,
+                  nextClientId());
+              connectionAccepted(client);
+              client.start();
             }
           }
         } catch (InterruptedIOException exception) {
@@ -23,6 +23,7 @@
  */
 package esi.acgt.atlj.server;
 
+import esi.acgt.atlj.server.utils.Threads;
 import java.io.IOException;
 
 public class App {
@@ -30,15 +31,30 @@ public class App {
   /**
    * Main class to launch server.
    *
-   * @param args Port on which to launch server.
+   * <p>With {@code -Datlj.virtualThreads=true}, the clients and the match-ups run on virtual
+   * threads and each client gets its own thread by default.
+   *
+   * @param args Port on which to launch server, then number of event loops serving the clients (0
+   *             for a thread per client, one per processor by default).
    */
   public static void main(String[] args) {
     int port = 6969;
+    int eventLoops = Runtime.getRuntime().availableProcessors();
+    if (Boolean.getBoolean("atlj.virtualThreads")) {
+      if (Threads.useVirtual(true)) {
+        eventLoops = 0;
+      } else {
+        System.err.println("Virtual threads are not supported by this JVM, using platform threads");
+      }
+    }
     if (args.length > 0) {
       port = Integer.parseInt(args[0]);
     }
+    if (args.length > 1) {
+      eventLoops = Integer.parseInt(args[1]);
+    }
     try {
-      Server s = new Server(port);
+      Server s = new Server(port, eventLoops);
     } catch (IOException e) {
       System.err.println("Cannot start server");
     }
@@ -0,0 +1,315 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.MessageCodec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connection with a client served by an {@link EventLoop}. The channel is read when the selector
+ * finds it readable and every whole frame received is dispatched on the loop. The messages sent
+ * from any thread are queued, then encoded in the output buffer by the loop, which writes as much
+ * as the socket takes and waits for the channel to be writable for the rest, leaving the next
+ * messages queued meanwhile.
+ *
+ * @see CustomClientThread
+ */
+final class ChannelConnection extends ClientConnection implements EventLoop.Handler {
+
+  /**
+   * Initial capacity of the buffers, enough for every message but the longest names and boards.
+   */
+  private static final int BUFFER_SIZE = 256;
+
+  /**
+   * Number of encoded bytes from which the output buffer is written before encoding more.
+   */
+  private static final int WRITE_CHUNK = 8192;
+
+  /**
+   * Capacity of the input buffer that holds the longest frame.
+   */
+  private static final int MAX_INPUT = MessageCodec.MAX_FRAME + MessageCodec.MAX_HEADER;
+
+  private final SocketChannel channel;
+  private final EventLoop loop;
+  private final InetAddress address;
+  private final MessageCodec reader = new MessageCodec();
+  private final MessageCodec writer = new MessageCodec();
+
+  /**
+   * Bytes received and not decoded yet, in write mode. Only used by the loop.
+   */
+  private ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * Frames encoded and not written yet, in write mode. Only used by the loop.
+   */
+  private ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * Stream appending the frames encoded by the writer to the output buffer.
+   */
+  private final OutputStream outputStream = new OutputStream() {
+    @Override
+    public void write(int b) {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      if (output.remaining() < length) {
+        ByteBuffer larger = ByteBuffer.allocate(
+            Math.max(output.capacity() * 2, output.position() + length));
+        output.flip();
+        output = larger.put(output);
+      }
+      output.put(bytes, offset, length);
+    }
+  };
+
+  private SelectionKey key;
+  private volatile boolean open = true;
+
+  /**
+   * Creates the connection with a client accepted by a server.
+   *
+   * @param channel Channel of the client, non-blocking.
+   * @param server  Server that has accepted the client.
+   * @param id      Unique id of the client.
+   * @param loop    Loop serving the client.
+   */
+  ChannelConnection(SocketChannel channel, AbstractServer server, int id, EventLoop loop) {
+    super(server, id);
+    this.channel = channel;
+    this.loop = loop;
+    this.address = channel.socket().getInetAddress();
+  }
+
+  /**
+   * Registers the channel with the loop and tells the server about the client. Called on the
+   * loop.
+   */
+  void register() {
+    try {
+      key = loop.register(channel, SelectionKey.OP_READ, this);
+    } catch (IOException e) {
+      closeNow();
+      return;
+    }
+    server.clientConnected(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void ready(SelectionKey key) {
+    if (key.isValid() && key.isReadable()) {
+      read();
+    }
+    if (key.isValid() && key.isWritable()) {
+      drain();
+    }
+  }
+
+  /**
+   * Reads what the channel has received and dispatches the whole frames. A frame that cannot be
+   * decoded closes the connection, the stream being misaligned from then on.
+   */
+  private void read() {
+    try {
+      if (channel.read(input) < 0) {
+        closeNow();
+        return;
+      }
+    } catch (IOException e) {
+      failed(e);
+      return;
+    }
+    input.flip();
+    try {
+      Message message;
+      while (open && (message = reader.read(input)) != null) {
+        received(message);
+      }
+    } catch (IOException | RuntimeException e) {
+      failed(e);
+      return;
+    } finally {
+      input.compact();
+    }
+    if (!input.hasRemaining()) {
+      if (input.capacity() >= MAX_INPUT) {
+        failed(new IOException("Frame too long"));
+        return;
+      }
+      ByteBuffer larger = ByteBuffer.allocate(Math.min(input.capacity() * 2, MAX_INPUT));
+      input.flip();
+      input = larger.put(input);
+    }
+  }
+
+  /**
+   * Tells the server that the connection has failed and closes it. Called on the loop.
+   *
+   * @param exception Cause of the failure.
+   */
+  private void failed(Exception exception) {
+    if (open) {
+      System.out.println(
+          "Client " + this.getIdOfClient() + " has disconnected with" + address);
+      server.clientException(this, exception);
+      closeNow();
+    }
+  }
+
+  /**
+   * Starts a drain of the queue on the loop.
+   */
+  @Override
+  void startDrain() {
+    if (loop.inLoop()) {
+      drain();
+    } else {
+      loop.execute(this::drain);
+    }
+  }
+
+  /**
+   * Encodes the queued messages and writes them as long as the channel takes them. If the channel
+   * is full, the drain goes on once it is writable. Called on the loop.
+   */
+  private void drain() {
+    if (!open) {
+      return;
+    }
+    try {
+      while (true) {
+        Message msg = null;
+        while (output.position() < WRITE_CHUNK && (msg = outbound.poll()) != null) {
+          writer.write(msg, outputStream);
+        }
+        output.flip();
+        channel.write(output);
+        output.compact();
+        if (output.position() > 0) {
+          setWriteInterest(true);
+          return;
+        }
+        if (msg == null && !outbound.finishDrain()) {
+          setWriteInterest(false);
+          return;
+        }
+      }
+    } catch (IOException e) {
+      closeNow();
+    }
+  }
+
+  /**
+   * Tells the selector whether to wait for the channel to be writable.
+   *
+   * @param write True to wait for the channel to be writable.
+   */
+  private void setWriteInterest(boolean write) {
+    if (key != null && key.isValid()) {
+      int ops = SelectionKey.OP_READ;
+      key.interestOps(write ? ops | SelectionKey.OP_WRITE : ops);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public InetAddress getInetAddress() {
+    return open ? address : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isConnected() {
+    return open;
+  }
+
+  /**
+   * Closes the connection on its loop.
+   */
+  @Override
+  public void close() {
+    if (loop.inLoop()) {
+      closeNow();
+    } else {
+      loop.execute(this::closeNow);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void shutdown() {
+    closeNow();
+  }
+
+  /**
+   * Closes the channel and tells the match-up and the server, once. Called on the loop.
+   */
+  private void closeNow() {
+    synchronized (this) {
+      if (!open) {
+        return;
+      }
+      open = false;
+    }
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+    }
+    disconnected();
+  }
+
+  /**
+   * Returns a string representation of the client.
+   *
+   * @return the client's description.
+   */
+  @Override
+  public String toString() {
+    return address.getHostName() + " (" + address.getHostAddress() + ")";
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.PlayerAction;
+import esi.acgt.atlj.message.PlayerStatus;
+import esi.acgt.atlj.message.messageTypes.PlayerState;
+import esi.acgt.atlj.message.messageTypes.SendAction;
+import esi.acgt.atlj.message.messageTypes.SendName;
+import esi.acgt.atlj.model.tetrimino.Mino;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Connection of the server with a client, whatever the way its messages are read and written. It
+ * holds the state of the player and the hooks of its match-up, and dispatches the messages read
+ * from the client to them.
+ *
+ * <p>The messages sent to the client are queued in an {@link OutboundQueue}, so that the thread
+ * sending them never waits for a slow client. A client that does not read its messages fast
+ * enough is evicted.
+ *
+ * @see CustomClientThread
+ * @see ChannelConnection
+ */
+public abstract class ClientConnection {
+
+  /**
+   * Name of player.
+   */
+  private String name = "noname";
+
+  /**
+   * State of current player.
+   */
+  private PlayerStatus clientStatus;
+
+  /**
+   * List of next tetriminos of player.
+   */
+  private final BlockingQueue<Mino> myTetriminos;
+
+  /**
+   * Unique id of client.
+   */
+  private final int id;
+
+  /**
+   * Handle message from client.
+   */
+  private BiConsumer<Message, ClientConnection> handleMessage;
+
+  /**
+   * Sends disconnect message to other player.
+   */
+  private Consumer<ClientConnection> disconnect;
+
+  private Consumer<ClientConnection> nameDB;
+
+  /**
+   * Runs when need to refill bag
+   */
+  private Runnable refillBag;
+
+  /**
+   * A reference to the Server that created this instance.
+   */
+  protected final AbstractServer server;
+
+  /**
+   * Messages waiting to be written to the client.
+   */
+  final OutboundQueue outbound;
+
+  private final AtomicBoolean evicted = new AtomicBoolean();
+
+  /**
+   * Creates the connection with a client.
+   *
+   * @param server Server that has accepted the client.
+   * @param id     Unique id of the client.
+   */
+  protected ClientConnection(AbstractServer server, int id) {
+    this.server = server;
+    this.id = id;
+    this.clientStatus = PlayerStatus.WAITING;
+    this.myTetriminos = new LinkedBlockingQueue<>();
+    this.outbound = new OutboundQueue(server.getOutboundLimits(), server.getOutboundMetrics());
+  }
+
+  /**
+   * Gets the id of the client.
+   *
+   * @return Id of client.
+   */
+  public int getIdOfClient() {
+    return this.id;
+  }
+
+  /**
+   * Sets the name of the client.
+   *
+   * @param name Name of client.
+   */
+  public void setNameOfClient(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Getter for the name of the client.
+   *
+   * @return Name of client. Null if player has not sent his name yet
+   */
+  public String getNameOfClient() {
+    return this.name;
+  }
+
+  /**
+   * Sets the status of the clients and sends it to all clients.
+   *
+   * @param cs Status of the client to set and send.
+   */
+  public void setClientStatus(PlayerStatus cs) {
+    this.clientStatus = cs;
+    this.sendMessage(new PlayerState(PlayerStatus.READY));
+    nameDB.accept(this);
+  }
+
+  /**
+   * Getter for status of client.
+   *
+   * @return Status of current client.
+   */
+  public PlayerStatus getClientStatus() {
+    return this.clientStatus;
+  }
+
+  /**
+   * Adds a mino to the current list of tetriminos of the client.
+   *
+   * @param e Mino to add to current list of minos.
+   */
+  public void addMino(Mino e) {
+    this.myTetriminos.add(e);
+  }
+
+  /**
+   * Gets the head of list of client's current mino.
+   *
+   * @return Head of list unless it throws exception than returns default O.MINO.
+   */
+  public Mino getMino() {
+    if (this.myTetriminos.isEmpty()) {
+      refillBag.run();
+    }
+    try {
+      return this.myTetriminos.take();
+    } catch (InterruptedException e) {
+      System.out.println("Cannot give tetrimino");
+    }
+    return Mino.O_MINO;
+  }
+
+  public synchronized void connectDisconnect(Consumer<ClientConnection> disconnect) {
+    this.disconnect = disconnect;
+  }
+
+  public synchronized void connectCheckNameDB(Consumer<ClientConnection> nameDB) {
+    this.nameDB = nameDB;
+  }
+
+  /**
+   * Connects lambda to refill bag from match-up generator.
+   *
+   * @param refillBag RefillBag lambda to connect.
+   */
+  public synchronized void connectRefillBag(Runnable refillBag) {
+    this.refillBag = refillBag;
+  }
+
+  /**
+   * Connect handle message to match-up generator.
+   *
+   * @param handleMessage Lambda function to connect.
+   */
+  public void connectHandleMessage(BiConsumer<Message, ClientConnection> handleMessage) {
+    this.handleMessage = handleMessage;
+  }
+
+  /**
+   * Hook method called each time a new message is received by this client. If this method return
+   * true, then the message is given to the match-up of the client. The default implementation
+   * handles the name and the actions of the player.
+   *
+   * @param message the message sent.
+   * @return True if the message needs to be handled by the match-up.
+   */
+  protected boolean handleMessageFromClient(Message message) {
+    if (message instanceof SendName s) {
+      setNameOfClient(s.getUsername());
+    }
+    if (message instanceof SendAction e) {
+      if (e.getAction() == PlayerAction.SPECTATE) {
+        server.addSpectator(this, 2);
+      }
+      if (e.getAction() == PlayerAction.PLAY_ONLINE) {
+        server.addPlayer(this, 0);
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Dispatches a message read from the client. The exceptions thrown by the handlers are given to
+   * the server and do not close the connection.
+   *
+   * @param message Message read from the client.
+   */
+  protected void received(Message message) {
+    try {
+      if (handleMessageFromClient(message)) {
+        handleMessage.accept(message, this);
+      }
+    } catch (RuntimeException ex) {
+      server.clientException(this, ex);
+    }
+  }
+
+  /**
+   * Tells the match-up and the server that the client has disconnected. Called once, by the
+   * connection, when it closes.
+   */
+  protected void disconnected() {
+    outbound.close();
+    Consumer<ClientConnection> hook;
+    synchronized (this) {
+      hook = disconnect;
+    }
+    try {
+      if (hook != null) {
+        hook.accept(this);
+      }
+    } finally {
+      server.connectionClosed(this);
+    }
+  }
+
+  /**
+   * Queues a message for the client, and evicts the client if it is too far behind. Can be called
+   * from any thread, the messages being written in the order of the calls.
+   *
+   * @param msg the message to be sent.
+   */
+  public final void sendMessage(Message msg) {
+    if (!isConnected()) {
+      return;
+    }
+    if (outbound.offer(msg)) {
+      startDrain();
+    }
+    if (outbound.isOverLimit()) {
+      evict();
+    }
+  }
+
+  /**
+   * Gets the number of messages waiting to be written to the client.
+   *
+   * @return Depth of the outbound queue.
+   */
+  public int getOutboundDepth() {
+    return outbound.depth();
+  }
+
+  /**
+   * Closes the connection of a client that does not read its messages, once.
+   */
+  private void evict() {
+    if (!evicted.compareAndSet(false, true)) {
+      return;
+    }
+    server.getOutboundMetrics().evicted();
+    server.clientEvicted(this);
+    outbound.close();
+    try {
+      close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * Starts a drain of the outbound queue, which polls and writes the messages until
+   * {@link OutboundQueue#finishDrain()} lets it end. Called when an offer asks for a drain.
+   */
+  abstract void startDrain();
+
+  /**
+   * Returns the address of the client.
+   *
+   * @return the client's Internet address, null if the connection is closed.
+   */
+  public abstract InetAddress getInetAddress();
+
+  /**
+   * Return true if the client is connected.
+   *
+   * @return true if the client is connected.
+   */
+  public abstract boolean isConnected();
+
+  /**
+   * Closes the client. If the connection is already closed, this call has no effect.
+   *
+   * @throws IOException if an error occurs when closing the socket.
+   */
+  public abstract void close() throws IOException;
+}
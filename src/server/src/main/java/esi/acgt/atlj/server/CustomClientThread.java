@@ -25,69 +25,26 @@
 package esi.acgt.atlj.server;
 
 import esi.acgt.atlj.message.Message;
-import esi.acgt.atlj.message.PlayerAction;
-import esi.acgt.atlj.message.PlayerStatus;
-import esi.acgt.atlj.message.messageTypes.PlayerState;
-import esi.acgt.atlj.message.messageTypes.SendAction;
-import esi.acgt.atlj.message.messageTypes.SendName;
-import esi.acgt.atlj.model.tetrimino.Mino;
+import esi.acgt.atlj.message.MessageCodec;
+import esi.acgt.atlj.server.utils.Threads;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
 
 /**
- * Custom thread for each client of the server.
+ * Connection with a client served by its own thread, blocked reading the socket of the client. The
+ * thread is virtual when {@link Threads#useVirtual(boolean)} has been enabled. The messages sent to
+ * the client are written by a short-lived writer, started whenever some are queued, so that a
+ * client slow to read only blocks its own writer.
+ *
+ * @see ChannelConnection
  */
-public class CustomClientThread extends Thread {
-
-
-  /**
-   * Name of player.
-   */
-  private String name = "noname";
-
-  /**
-   * State of current player.
-   */
-  private PlayerStatus clientStatus;
-  /**
-   * List of next tetriminos of player.
-   */
-  private final BlockingQueue<Mino> myTetriminos;
-
-  /**
-   * Unique id of client.
-   */
-  private final int id;
-
-  /**
-   * Handle message from client.
-   */
-  private BiConsumer<Message, CustomClientThread> handleMessage;
-
-  /**
-   * Sends disconnect message to other player.
-   */
-  private Consumer<CustomClientThread> disconnect;
-
-  private Consumer<CustomClientThread> nameDB;
-
-  /**
-   * Runs when need to refill bag
-   */
-  private Runnable refillBag;
-
-  /**
-   * A reference to the Server that created this instance.
-   */
-  private final AbstractServer server;
+public class CustomClientThread extends ClientConnection implements Runnable {
 
   /**
    * Sockets are used in the operating system as channels of communication between two processes.
@@ -99,42 +56,49 @@ public class CustomClientThread extends Thread {
   /**
    * Stream used to read from the client.
    */
-  private ObjectInputStream input;
+  private InputStream input;
 
   /**
    * Stream used to write to the client.
    */
-  private ObjectOutputStream output;
+  private OutputStream output;
+
+  /**
+   * Codec of the messages received from the client, only used by the thread of the client.
+   */
+  private final MessageCodec reader = new MessageCodec();
+
+  /**
+   * Codec of the messages sent to the client, only used by the writer of the client.
+   */
+  private final MessageCodec writer = new MessageCodec();
 
   /**
    * Indicates if the thread is ready to stop. Set to true when closing of the connection is
    * initiated.
    */
-  private boolean readyToStop;
-
+  private volatile boolean readyToStop;
 
   /**
-   * Constructs a new connection to a client.
+   * Constructs a new connection to a client, read once {@link #start()} is called.
    *
    * @param clientSocket contains the client's socket.
    * @param server       a reference to the server that created this instance
+   * @param id           Unique id of the client.
    * @throws IOException if an I/O error occur when creating the connection.
    */
   protected CustomClientThread(Socket clientSocket, AbstractServer server, int id)
       throws IOException {
+    super(server, id);
     this.clientSocket = clientSocket;
-    this.id = id;
-    this.server = server;
-    this.clientStatus = PlayerStatus.WAITING;
-    myTetriminos = new LinkedBlockingQueue<>();
     try {
       clientSocket.setSoTimeout(0);
     } catch (SocketException e) {
       System.err.println("cannot set timeout to client");
     }
     try {
-      input = new ObjectInputStream(clientSocket.getInputStream());
-      output = new ObjectOutputStream(clientSocket.getOutputStream());
+      input = new BufferedInputStream(clientSocket.getInputStream());
+      output = new BufferedOutputStream(clientSocket.getOutputStream());
     } catch (IOException ex) {
       try {
         closeAll();
@@ -143,45 +107,14 @@ public class CustomClientThread extends Thread {
       throw ex;
     }
     readyToStop = false;
-    this.start();
-  }
-
-  /**
-   * Gets the id of the client.
-   *
-   * @return Id of client.
-   */
-  public int getIdOfClient() {
-    return this.id;
-  }
-
-  /**
-   * Sets the name of the client.
-   *
-   * @param name Name of client.
-   */
-  public void setNameOfClient(String name) {
-    this.name = name;
   }
 
   /**
-   * Getter for the name of the client.
-   *
-   * @return Name of client. Null if player has not sent his name yet
+   * Starts the thread reading the client. Called once the server keeps the connection, so that a
+   * client disconnecting at once is forgotten by the server.
    */
-  public String getNameOfClient() {
-    return this.name;
-  }
-
-  /**
-   * Sets the status of the clients and sends it to all clients.
-   *
-   * @param cs Status of the client to set and send.
-   */
-  public void setClientStatus(PlayerStatus cs) {
-    this.clientStatus = cs;
-    this.sendMessage(new PlayerState(PlayerStatus.READY));
-    nameDB.accept(this);
+  void start() {
+    Threads.start("client-" + getIdOfClient(), this);
   }
 
   /**
@@ -189,7 +122,7 @@ public class CustomClientThread extends Thread {
    *
    * @throws IOException if an I/O error occur when closing the connection.
    */
-  private void closeAll() throws IOException {
+  private synchronized void closeAll() throws IOException {
     try {
       if (clientSocket != null) {
         clientSocket.close();
@@ -208,154 +141,84 @@ public class CustomClientThread extends Thread {
   }
 
   /**
-   * Adds a mino to the current list of tetriminos of the client.
-   *
-   * @param e Mino to add to current list of minos.
-   */
-  public void addMino(Mino e) {
-    this.myTetriminos.add(e);
-  }
-
-  /**
-   * Gets the head of list of client's current mino.
-   *
-   * @return Head of list unless it throws exception than returns default O.MINO.
-   */
-  public Mino getMino() {
-    if (this.myTetriminos.isEmpty()) {
-      refillBag.run();
-    }
-    try {
-      return this.myTetriminos.take();
-    } catch (InterruptedException e) {
-      System.out.println("Cannot give tetrimino");
-    }
-    return Mino.O_MINO;
-  }
-
-  /**
-   * Returns the address of the client.
-   *
-   * @return the client's Internet address.
+   * {@inheritDoc}
    */
-  final public InetAddress getInetAddress() {
+  @Override
+  final public synchronized InetAddress getInetAddress() {
     return clientSocket == null ? null : clientSocket.getInetAddress();
   }
 
   /**
-   * Closes the client. If the connection is already closed, this call has no effect.
-   *
-   * @throws IOException if an error occurs when closing the socket.
+   * {@inheritDoc}
    */
+  @Override
   final public void close() throws IOException {
     readyToStop = true;
     closeAll();
   }
 
   /**
-   * Hook method called each time a new message is received by this client. If this method return
-   * true, then the method
-   * <code>handleMessageFromClient()</code> of <code>AbstractServer</code>
-   * will also be called after. The default implementation simply returns true.
-   *
-   * @param message the message sent.
-   * @return True if the message needs to be handled by server.
+   * Starts a writer of the pending messages of the client.
    */
-  protected boolean handleMessageFromClient(Object message) {
-    if (message instanceof SendName s) {
-      setNameOfClient(s.getUsername());
-    }
-    if (message instanceof SendAction e) {
-      if (e.getAction() == PlayerAction.SPECTATE) {
-        server.addSpectator(this, 2);
-      }
-      if (e.getAction() == PlayerAction.PLAY_ONLINE) {
-        server.addPlayer(this, 0);
-      }
-      return false;
-    }
-
-    return true;
+  @Override
+  void startDrain() {
+    Threads.execute("client-writer-" + getIdOfClient(), this::drain);
   }
 
   /**
-   * Sends an object to the client. This method can be overriden, but if so it should still perform
-   * the general function of sending to client, by calling the <code>super.sendToClient()</code>
-   * method perhaps after some kind of filtering is done.
-   *
-   * @param msg the message to be sent.
+   * Writes the pending messages of the client, flushing the socket each time the queue is empty.
+   * A failed write closes the connection, the messages sent later being dropped.
    */
-  public synchronized void sendMessage(Object msg) {
-    if (clientSocket == null || output == null) {
+  private void drain() {
+    OutputStream out;
+    synchronized (this) {
+      out = output;
+    }
+    try {
+      do {
+        Message msg;
+        while ((msg = outbound.poll()) != null) {
+          if (out != null) {
+            writer.write(msg, out);
+          }
+        }
+        if (out != null) {
+          out.flush();
+        }
+      } while (outbound.finishDrain());
+    } catch (IOException e) {
+      System.err.println("Error sending messages to client " + getIdOfClient());
       try {
-        closeAll();
+        close();
       } catch (IOException ignored) {
       }
-    } else {
-      try {
-        output.reset();
-        output.writeObject(msg);
-      } catch (IOException e) {
-        System.err.println("Error sending " + msg.toString() + " to client");
-      } catch (NullPointerException ignored) {
-      }
     }
   }
 
-  public synchronized void connectDisconnect(Consumer<CustomClientThread> disconnect) {
-    this.disconnect = disconnect;
-  }
-
-  public synchronized void connectCheckNameDB(Consumer<CustomClientThread> nameDB) {
-    this.nameDB = nameDB;
-  }
-
   /**
-   * Getter for status of client.
-   *
-   * @return Status of current client.
-   */
-  public PlayerStatus getClientStatus() {
-    return this.clientStatus;
-  }
-
-  /**
-   * Return true if the client is connected.
-   *
-   * @return true if the client is connected.
+   * {@inheritDoc}
    */
+  @Override
   final public synchronized boolean isConnected() {
     return clientSocket != null && output != null;
   }
 
   /**
-   * Connects lambda to refill bag from match-up generator.
-   *
-   * @param refillBag RefillBag lambda to connect.
-   */
-  public synchronized void connectRefillBag(Runnable refillBag) {
-    this.refillBag = refillBag;
-  }
-
-  /**
-   * Constantly reads the client's input stream. Sends all objects that are read to the server. Not
-   * to be called.
+   * Constantly reads the client's input stream. Sends all messages that are read to the server.
+   * Not to be called.
    */
   @Override
   final public void run() {
     server.clientConnected(this);
+    InputStream in;
+    synchronized (this) {
+      in = input;
+    }
     try {
-      Object msg;
-      while (!readyToStop) {
-        try {
-          msg = input.readObject();
-          if (!readyToStop && handleMessageFromClient(msg)) {
-            if (msg instanceof Message m) {
-              handleMessage.accept(m, this);
-            }
-          }
-        } catch (ClassNotFoundException | RuntimeException ex) {
-          server.clientException(this, ex);
+      while (!readyToStop && in != null) {
+        Message msg = reader.read(in);
+        if (!readyToStop) {
+          received(msg);
         }
       }
     } catch (Exception exception) {
@@ -369,28 +232,19 @@ public class CustomClientThread extends Thread {
         server.clientException(this, exception);
       }
     } finally {
-      disconnect.accept(this);
+      disconnected();
     }
   }
 
-  /**
-   * Connect handle message to match-up generator.
-   *
-   * @param handleMessage Lambda function to connect.
-   */
-  public void connectHandleMessage(BiConsumer<Message, CustomClientThread> handleMessage) {
-    this.handleMessage = handleMessage;
-  }
-
   /**
    * Returns a string representation of the client.
    *
    * @return the client's description.
    */
   @Override
-  public String toString() {
+  public synchronized String toString() {
     return clientSocket == null ? null
         : clientSocket.getInetAddress().getHostName()
             + " (" + clientSocket.getInetAddress().getHostAddress() + ")";
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread multiplexing many channels on one selector. The channels are registered, read and written
+ * on the thread of the loop only; other threads post tasks to it, which wakes the selector up.
+ */
+final class EventLoop implements Runnable {
+
+  /**
+   * Object attached to a registered channel, told when the channel is ready.
+   */
+  interface Handler {
+
+    /**
+     * Called on the thread of the loop when the channel is ready for the operations of its key.
+     *
+     * @param key Key of the channel.
+     */
+    void ready(SelectionKey key);
+
+    /**
+     * Called on the thread of the loop when the loop stops, the channel having to be closed.
+     */
+    void shutdown();
+  }
+
+  private final Selector selector;
+  private final Thread thread;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private volatile boolean running;
+
+  /**
+   * Opens the selector of a loop.
+   *
+   * @param name Name of the thread of the loop.
+   * @throws IOException If the selector cannot be opened.
+   */
+  EventLoop(String name) throws IOException {
+    this.selector = Selector.open();
+    this.thread = new Thread(this, name);
+  }
+
+  void start() {
+    running = true;
+    thread.start();
+  }
+
+  /**
+   * Tells if the calling thread is the thread of the loop.
+   *
+   * @return True if called from the loop.
+   */
+  boolean inLoop() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * Runs a task on the thread of the loop, after the channels ready at the time.
+   *
+   * @param task Task to run.
+   */
+  void execute(Runnable task) {
+    tasks.add(task);
+    if (!inLoop()) {
+      selector.wakeup();
+    }
+  }
+
+  /**
+   * Registers a channel with the selector of the loop. Must be called from the loop.
+   *
+   * @param channel Channel to register, non-blocking.
+   * @param ops     Operations to wait for.
+   * @param handler Handler told when the channel is ready.
+   * @return Key of the channel.
+   * @throws IOException If the channel is closed.
+   */
+  SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws IOException {
+    return channel.register(selector, ops, handler);
+  }
+
+  /**
+   * Stops the loop, shutting its channels down, and waits for its thread.
+   */
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+    if (!inLoop()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Selects the ready channels and runs the tasks until the loop is stopped. Not to be called.
+   */
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          runSafely(task);
+        }
+        selector.select(key -> runSafely(() -> ((Handler) key.attachment()).ready(key)));
+      }
+    } catch (IOException e) {
+      System.err.println("Event loop " + thread.getName() + " has failed: " + e.getMessage());
+    } finally {
+      for (SelectionKey key : selector.keys()) {
+        runSafely(((Handler) key.attachment())::shutdown);
+      }
+      try {
+        selector.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Runs a task, a failing task not stopping the loop.
+   */
+  private void runSafely(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      System.err.println("Error in event loop " + thread.getName() + ": " + e);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Server core serving every client from a few event loops instead of a thread per client. The
+ * first loop also accepts the connections, which are spread over the loops in turn.
+ */
+final class EventLoopGroup implements EventLoop.Handler {
+
+  /**
+   * Number of connections waiting to be accepted, large enough for bursts of clients.
+   */
+  private static final int ACCEPT_BACKLOG = 1024;
+
+  private final AbstractServer server;
+  private final EventLoop[] loops;
+  private ServerSocketChannel acceptor;
+  private int next;
+
+  /**
+   * Opens the loops of a server.
+   *
+   * @param server Server told about the clients.
+   * @param count  Number of event loops.
+   * @throws IOException If a selector cannot be opened.
+   */
+  EventLoopGroup(AbstractServer server, int count) throws IOException {
+    this.server = server;
+    this.loops = new EventLoop[count];
+    for (int i = 0; i < count; ++i) {
+      loops[i] = new EventLoop("event-loop-" + i);
+    }
+  }
+
+  /**
+   * Starts the loops and accepts the clients on a port.
+   *
+   * @param port Port to listen on.
+   * @throws IOException If the port cannot be bound.
+   */
+  void listen(int port) throws IOException {
+    ServerSocketChannel channel = ServerSocketChannel.open();
+    try {
+      channel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+      channel.configureBlocking(false);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    acceptor = channel;
+    for (EventLoop loop : loops) {
+      loop.start();
+    }
+    loops[0].execute(() -> {
+      try {
+        loops[0].register(channel, SelectionKey.OP_ACCEPT, this);
+      } catch (IOException e) {
+        server.listeningException(e);
+      }
+    });
+  }
+
+  /**
+   * Tells if the group still accepts clients.
+   *
+   * @return True if the acceptor is open.
+   */
+  boolean isListening() {
+    ServerSocketChannel channel = acceptor;
+    return channel != null && channel.isOpen();
+  }
+
+  /**
+   * Stops accepting clients, the connected ones being still served.
+   */
+  void stopListening() {
+    ServerSocketChannel channel = acceptor;
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Stops accepting clients, closes every connection and stops the loops.
+   */
+  void close() {
+    stopListening();
+    for (EventLoop loop : loops) {
+      loop.shutdown();
+    }
+  }
+
+  /**
+   * Accepts the pending clients. Called on the first loop.
+   */
+  @Override
+  public void ready(SelectionKey key) {
+    try {
+      SocketChannel channel;
+      while ((channel = acceptor.accept()) != null) {
+        try {
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+          channel.close();
+          continue;
+        }
+        EventLoop loop = loops[next];
+        next = (next + 1) % loops.length;
+        ChannelConnection client = new ChannelConnection(channel, server, server.nextClientId(),
+            loop);
+        server.connectionAccepted(client);
+        loop.execute(client::register);
+      }
+    } catch (IOException e) {
+      if (acceptor.isOpen()) {
+        server.listeningException(e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void shutdown() {
+    stopListening();
+  }
+}
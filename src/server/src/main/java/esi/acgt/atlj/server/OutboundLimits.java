@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits of the messages queued for a client. Once a client has {@link #getHighWatermark()}
+ * messages waiting to be written, it is congested until its queue drains down to
+ * {@link #getLowWatermark()}. A client congested for longer than {@link #getEvictAfter(TimeUnit)},
+ * or whose queue reaches {@link #getCapacity()}, is evicted.
+ */
+public final class OutboundLimits {
+
+  /**
+   * Default limits: a client lagging a few seconds of moves behind is evicted.
+   */
+  public static final OutboundLimits DEFAULT = new OutboundLimits(64, 256, 1024, 5000);
+
+  private final int lowWatermark;
+  private final int highWatermark;
+  private final int capacity;
+  private final long evictAfterNanos;
+
+  /**
+   * Creates limits.
+   *
+   * @param lowWatermark     Number of queued messages under which a congested client recovers.
+   * @param highWatermark    Number of queued messages from which a client is congested.
+   * @param capacity         Number of queued messages from which a client is evicted at once.
+   * @param evictAfterMillis Time a client can stay congested before being evicted.
+   */
+  public OutboundLimits(int lowWatermark, int highWatermark, int capacity,
+      long evictAfterMillis) {
+    if (lowWatermark < 0 || lowWatermark >= highWatermark || highWatermark > capacity) {
+      throw new IllegalArgumentException("Watermarks must verify 0 <= low < high <= capacity: "
+          + lowWatermark + ", " + highWatermark + ", " + capacity);
+    }
+    if (evictAfterMillis < 0) {
+      throw new IllegalArgumentException("Negative eviction delay: " + evictAfterMillis);
+    }
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
+    this.capacity = capacity;
+    this.evictAfterNanos = TimeUnit.MILLISECONDS.toNanos(evictAfterMillis);
+  }
+
+  /**
+   * Gets the number of queued messages under which a congested client recovers.
+   *
+   * @return Low watermark.
+   */
+  public int getLowWatermark() {
+    return lowWatermark;
+  }
+
+  /**
+   * Gets the number of queued messages from which a client is congested.
+   *
+   * @return High watermark.
+   */
+  public int getHighWatermark() {
+    return highWatermark;
+  }
+
+  /**
+   * Gets the number of queued messages from which a client is evicted at once.
+   *
+   * @return Capacity of the queue.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the time a client can stay congested before being evicted.
+   *
+   * @param unit Unit of the time.
+   * @return Eviction delay.
+   */
+  public long getEvictAfter(TimeUnit unit) {
+    return unit.convert(evictAfterNanos, TimeUnit.NANOSECONDS);
+  }
+}
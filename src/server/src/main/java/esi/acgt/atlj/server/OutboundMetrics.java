@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the messages queued for the clients of a server. The counters are updated by the
+ * queues of every connection without locking, and can be read from any thread.
+ */
+public final class OutboundMetrics {
+
+  private final LongAdder queued = new LongAdder();
+  private final LongAccumulator peakDepth = new LongAccumulator(Math::max, 0);
+  private final LongAdder congested = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder conflated = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  /**
+   * Gets the number of messages currently waiting to be written, over every client.
+   *
+   * @return Queued messages.
+   */
+  public long getQueued() {
+    return queued.sum();
+  }
+
+  /**
+   * Gets the longest queue a client has had.
+   *
+   * @return Peak depth of a queue.
+   */
+  public long getPeakDepth() {
+    return peakDepth.get();
+  }
+
+  /**
+   * Gets the number of clients currently congested.
+   *
+   * @return Congested clients.
+   */
+  public long getCongested() {
+    return congested.sum();
+  }
+
+  /**
+   * Gets the number of messages written to the clients.
+   *
+   * @return Sent messages.
+   */
+  public long getSent() {
+    return sent.sum();
+  }
+
+  /**
+   * Gets the number of messages replaced in a queue by a newer one before being written.
+   *
+   * @return Conflated messages.
+   */
+  public long getConflated() {
+    return conflated.sum();
+  }
+
+  /**
+   * Gets the number of clients evicted for not reading their messages.
+   *
+   * @return Evicted clients.
+   */
+  public long getEvicted() {
+    return evicted.sum();
+  }
+
+  void queued(int depth) {
+    queued.increment();
+    peakDepth.accumulate(depth);
+  }
+
+  void dequeued() {
+    queued.decrement();
+  }
+
+  void congested(boolean congested) {
+    if (congested) {
+      this.congested.increment();
+    } else {
+      this.congested.decrement();
+    }
+  }
+
+  void sent() {
+    sent.increment();
+  }
+
+  void conflated() {
+    conflated.increment();
+  }
+
+  void evicted() {
+    evicted.increment();
+  }
+
+  /**
+   * Returns a one line summary of the metrics.
+   *
+   * @return Summary of the metrics.
+   */
+  @Override
+  public String toString() {
+    return "queued=" + getQueued() + " peak=" + getPeakDepth() + " congested=" + getCongested()
+        + " sent=" + getSent() + " conflated=" + getConflated() + " evicted=" + getEvicted();
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server;
+
+import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.messageTypes.AddTetrimino;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Messages waiting to be written to a client. Any thread can offer messages without locking, and a
+ * single drain at a time polls them in order, like the mailbox of a
+ * {@link esi.acgt.atlj.model.game.GameActor}.
+ *
+ * <p>A position of the falling tetrimino offered while the previous one is still the last queued
+ * message replaces it, the client only needing the latest. The queue follows the watermarks of its
+ * {@link OutboundLimits} and tells when its client must be evicted.
+ */
+final class OutboundQueue {
+
+  private final Deque<Entry> entries = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger depth = new AtomicInteger();
+
+  /**
+   * Tells if a drain has been started and has not finished yet.
+   */
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private final AtomicBoolean congested = new AtomicBoolean();
+
+  /**
+   * Tells if the connection is closed, the messages offered from then on being dropped.
+   */
+  private volatile boolean closed;
+
+  /**
+   * Time at which the queue became congested, as given by {@link System#nanoTime()}.
+   */
+  private volatile long congestedSince;
+
+  private final OutboundLimits limits;
+  private final OutboundMetrics metrics;
+
+  /**
+   * Creates an empty queue.
+   *
+   * @param limits  Watermarks and eviction limits of the queue.
+   * @param metrics Metrics updated by the queue.
+   */
+  OutboundQueue(OutboundLimits limits, OutboundMetrics metrics) {
+    this.limits = limits;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Queues a message, or replaces the last queued message if both are positions of the falling
+   * tetrimino.
+   *
+   * @param message Message to send.
+   * @return True if the caller must start a drain.
+   */
+  boolean offer(Message message) {
+    if (closed) {
+      return false;
+    }
+    boolean conflatable = message instanceof AddTetrimino;
+    if (conflatable) {
+      Entry last = entries.peekLast();
+      if (last != null && last.conflatable && last.replace(message)) {
+        metrics.conflated();
+        return false;
+      }
+    }
+    int queued = depth.incrementAndGet();
+    metrics.queued(queued);
+    entries.addLast(new Entry(message, conflatable));
+    if (queued >= limits.getHighWatermark() && congested.compareAndSet(false, true)) {
+      congestedSince = System.nanoTime();
+      metrics.congested(true);
+    }
+    if (closed) {
+      // Closed while queuing: the close may have missed this message.
+      dropAll();
+      return false;
+    }
+    return scheduled.compareAndSet(false, true);
+  }
+
+  /**
+   * Takes the oldest queued message. Called by the drain only.
+   *
+   * @return Oldest message, null if the queue is empty.
+   */
+  Message poll() {
+    Entry entry;
+    while ((entry = entries.pollFirst()) != null) {
+      int queued = depth.decrementAndGet();
+      metrics.dequeued();
+      if (queued <= limits.getLowWatermark() && congested.compareAndSet(true, false)) {
+        metrics.congested(false);
+      }
+      Message message = entry.take();
+      if (message != null) {
+        metrics.sent();
+        return message;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Ends a drain that has found the queue empty. A message offered meanwhile makes the drain go
+   * on, since its offer did not start one.
+   *
+   * @return True if the drain must go on.
+   */
+  boolean finishDrain() {
+    scheduled.set(false);
+    return !entries.isEmpty() && scheduled.compareAndSet(false, true);
+  }
+
+  /**
+   * Tells if the client must be evicted: its queue is full, or has stayed congested for too long.
+   *
+   * @return True if the client must be evicted.
+   */
+  boolean isOverLimit() {
+    if (depth.get() >= limits.getCapacity()) {
+      return true;
+    }
+    return congested.get()
+        && System.nanoTime() - congestedSince > limits.getEvictAfter(TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the number of queued messages.
+   *
+   * @return Depth of the queue.
+   */
+  int depth() {
+    return depth.get();
+  }
+
+  /**
+   * Drops the queued messages of a closed connection, and the messages offered from now on.
+   */
+  void close() {
+    closed = true;
+    dropAll();
+  }
+
+  /**
+   * Drops the queued messages.
+   */
+  private void dropAll() {
+    while (entries.pollFirst() != null) {
+      depth.decrementAndGet();
+      metrics.dequeued();
+    }
+    if (congested.compareAndSet(true, false)) {
+      metrics.congested(false);
+    }
+  }
+
+  /**
+   * Queued message, replaceable until the drain takes it.
+   */
+  private static final class Entry extends AtomicReference<Message> {
+
+    private final boolean conflatable;
+
+    Entry(Message message, boolean conflatable) {
+      super(message);
+      this.conflatable = conflatable;
+    }
+
+    /**
+     * Replaces the message unless the drain has taken it.
+     *
+     * @param message Newer message.
+     * @return True if replaced.
+     */
+    boolean replace(Message message) {
+      Message queued = get();
+      return queued != null && compareAndSet(queued, message);
+    }
+
+    /**
+     * Takes the message for writing.
+     *
+     * @return Message to write.
+     */
+    Message take() {
+      return getAndSet(null);
+    }
+  }
+}
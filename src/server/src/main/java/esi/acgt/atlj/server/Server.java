@@ -34,7 +34,9 @@ import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Collectors;
 
@@ -52,12 +54,12 @@ public class Server extends AbstractServer {
   /**
    * Hash map of all members in function of their clientId.
    */
-  private final HashMap<Integer, CustomClientThread> members;
+  private final Map<Integer, ClientConnection> members;
 
   /**
    * All the clients that are currently waiting to play
    */
-  private final BlockingQueue<CustomClientThread> waitingList;
+  private final BlockingQueue<ClientConnection> waitingList;
 
   /**
    * All match-ups with their id.
@@ -67,23 +69,27 @@ public class Server extends AbstractServer {
   /**
    * Waiting list for spectators. Player is placed in list if all current match-up are
    */
-  private final BlockingQueue<CustomClientThread> waitingListForSpectators;
+  private final BlockingQueue<ClientConnection> waitingListForSpectators;
 
   /**
-   * current tally of client id.
+   * Constructor for a server serving each client with its own thread.
+   *
+   * @param port Port for server to listen on.
    */
-  private int clientId;
+  public Server(int port) throws IOException {
+    this(port, 0);
+  }
 
   /**
    * Constructor for a server.
    *
-   * @param port Port for server to listen on.
+   * @param port       Port for server to listen on.
+   * @param eventLoops Number of event loops serving the clients, 0 for a thread per client.
    */
-  public Server(int port) throws IOException {
-    super(port);
+  public Server(int port, int eventLoops) throws IOException {
+    super(port, eventLoops);
     waitingList = new LinkedBlockingQueue<>();
-    clientId = 0;
-    members = new HashMap<>();
+    members = new ConcurrentHashMap<>();
     matchUps = new HashMap<>();
     waitingListForSpectators = new LinkedBlockingQueue<>();
     this.listen();
@@ -93,12 +99,20 @@ public class Server extends AbstractServer {
    * {@inheritDoc}
    */
   @Override
-  protected synchronized void clientException(CustomClientThread client, Throwable exception) {
+  protected synchronized void clientException(ClientConnection client, Throwable exception) {
     super.clientException(client, exception);
-    if (client.isConnected()) {
-      client.sendMessage(
-          new IllegalArgumentException("Cannot parse message " + exception.getMessage()));
-    }
+    System.err.println("Cannot handle message from client " + client.getIdOfClient() + ": "
+        + exception.getMessage());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void clientEvicted(ClientConnection client) {
+    super.clientEvicted(client);
+    System.err.println("Client " + client.getIdOfClient()
+        + " is evicted for not reading its messages (" + getOutboundMetrics() + ")");
   }
 
   Runnable decrementMatchUpId = () -> {
@@ -167,22 +181,13 @@ public class Server extends AbstractServer {
     System.exit(0);
   }
 
-  /**
-   * Gets the next id.
-   *
-   * @return Next available id.
-   */
-  private int getNextId() {
-    return this.clientId++;
-  }
-
   /**
    * {@inheritDoc}
    */
   @Override
-  protected void clientConnected(CustomClientThread client) {
+  protected void clientConnected(ClientConnection client) {
     super.clientConnected(client);
-    members.put(getNextId(), client);
+    members.put(client.getIdOfClient(), client);
     System.out.println(
         "Client " + client.getIdOfClient() + " has connected successfully with "
             + client.getInetAddress() + " and is in the waiting list");
@@ -192,7 +197,7 @@ public class Server extends AbstractServer {
    * {@inheritDoc}
    */
   @Override
-  public synchronized void addSpectator(CustomClientThread e, int matchId) {
+  public synchronized void addSpectator(ClientConnection e, int matchId) {
     this.waitingListForSpectators.add(e);
     if (matchId != 0) {
       MatchUpGenerator match = matchUps.get(matchId);
@@ -209,7 +214,7 @@ public class Server extends AbstractServer {
    * {@inheritDoc}
    */
   @Override
-  public synchronized void addPlayer(CustomClientThread client, int matchId) {
+  public synchronized void addPlayer(ClientConnection client, int matchId) {
     waitingList.add(client);
     if (waitingList.size() % 2 == 0) {
       MatchUpGenerator matchUp = new MatchUpGenerator(
@@ -229,14 +234,13 @@ public class Server extends AbstractServer {
    * {@inheritDoc}
    */
   @Override
-  protected void clientDisconnected(CustomClientThread client) {
+  protected void clientDisconnected(ClientConnection client) {
     super.clientDisconnected(client);
     try {
       waitingList.remove(client);
     } catch (NullPointerException ignored) {
     }
     members.remove(client.getIdOfClient());
-    clientId--;
   }
 
 
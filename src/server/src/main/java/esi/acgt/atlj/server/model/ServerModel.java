@@ -26,18 +26,21 @@ package esi.acgt.atlj.server.model;
 
 import esi.acgt.atlj.message.Message;
 import esi.acgt.atlj.message.messageTypes.AddTetrimino;
+import esi.acgt.atlj.message.messageTypes.BoardResync;
 import esi.acgt.atlj.message.messageTypes.LockedTetrimino;
 import esi.acgt.atlj.message.messageTypes.RemoveLine;
+import esi.acgt.atlj.message.messageTypes.ResyncRequest;
 import esi.acgt.atlj.message.messageTypes.SendPiece;
 import esi.acgt.atlj.message.messageTypes.SendScore;
 import esi.acgt.atlj.message.messageTypes.SetHold;
 import esi.acgt.atlj.model.game.ManagedGame;
-import esi.acgt.atlj.model.tetrimino.Tetrimino;
-import esi.acgt.atlj.server.CustomClientThread;
+import esi.acgt.atlj.server.ClientConnection;
 import esi.acgt.atlj.server.database.DataBase;
 import esi.acgt.atlj.server.database.DataBaseInterface;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerModel {
 
@@ -61,12 +64,17 @@ public class ServerModel {
   /**
    * Map to define with players manages which game.
    */
-  HashMap<CustomClientThread, ManagedGame> gameHashMap;
+  HashMap<ClientConnection, ManagedGame> gameHashMap;
+
+  /**
+   * Games whose board has been asked to their player and not received yet.
+   */
+  private final Set<ManagedGame> resyncPending = ConcurrentHashMap.newKeySet();
 
   /**
    * Constructor for server model.
    */
-  public ServerModel(List<CustomClientThread> clients) {
+  public ServerModel(List<ClientConnection> clients) {
     this.playerTwo = new ManagedGame("two");
     this.playerOne = new ManagedGame("one");
     dataBase = new DataBase();
@@ -75,35 +83,62 @@ public class ServerModel {
     gameHashMap.put(clients.get(0), playerOne);
     gameHashMap.put(clients.get(1), playerTwo);
     statistics = new StatisticCounter();
-    statistics.start();
   }
 
   /**
-   * Receives a message and handles it.
+   * Receives a message and handles it. The changes of the game of the client are posted to the
+   * actor of the game.
    *
    * @param information Message that he needs to handle.
    * @param client      Client that sent the message.
    */
-  public void receiveMessage(Message information, CustomClientThread client) {
+  public void receiveMessage(Message information, ClientConnection client) {
     var game = gameHashMap.get(client);
     if (information instanceof SendPiece message) { //When next tetrimino is sent from server
-      game.setNextTetrimino(Tetrimino.createTetrimino(message.getMino()));
+      game.submit(() -> game.setNextMino(message.getMino()));
     }
     if (information instanceof RemoveLine message) { //When remove line is send from server
-      game.removeLines(message.getLine());
+      game.submit(() -> game.removeLines(message.getLines()));
     }
     if (information instanceof AddTetrimino message) { //When add tetrimino is sent from server
-      game.setActualTetrimino(message.getTetrimino());
+      game.submit(() -> game.setActualPiece(message.getPiece()));
     }
     if (information instanceof SendScore message) { // When send score is sent from server
-      game.setScore(message.getScore());
+      game.submit(() -> game.setScore(message.getScore()));
       statistics.addScore(message.getScore());
     }
     if (information instanceof SetHold message) { // When hold tetrimino is sent from server
-      game.setHold(message.getHold());
+      game.submit(() -> game.setHold(message.getHold()));
     }
     if (information instanceof LockedTetrimino message) { //When locked tetrimino has been send from server.
-      game.placeTetrimino(message.getTetrimino());
+      game.submit(() -> {
+        game.lockTetrimino(message.getPiece(), message.getClearedLines(), message.getScore(),
+            message.getNbLines());
+        checkFingerprint(game, message.getFingerprint(), client);
+      });
+      statistics.addScore(message.getScore());
+    }
+    if (information instanceof BoardResync message) { // When the player has sent its whole board
+      game.submit(() -> {
+        game.resync(message.getColors());
+        resyncPending.remove(game);
+        checkFingerprint(game, message.getFingerprint(), client);
+      });
+    }
+  }
+
+  /**
+   * Asks a player for its whole board if the game mirroring it no longer matches the fingerprint
+   * of its board, unless the board has already been asked. Also checks a resynchronized board, in
+   * case it has been garbled on its way. Called from the actor of the game.
+   *
+   * @param game        Game mirroring the board of the player.
+   * @param fingerprint Hash of the board of the player.
+   * @param client      Client of the player.
+   */
+  private void checkFingerprint(ManagedGame game, long fingerprint, ClientConnection client) {
+    if (!game.matches(fingerprint) && resyncPending.add(game)) {
+      client.sendMessage(new ResyncRequest());
     }
   }
 
@@ -24,7 +24,7 @@
 
 package esi.acgt.atlj.server.model;
 
-public class StatisticCounter extends Thread {
+public class StatisticCounter {
 
   private int score = 0;
   private final int n = 0;
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.tournament;
+
+import esi.acgt.atlj.model.ai.Bot;
+import esi.acgt.atlj.model.ai.Evaluator;
+import esi.acgt.atlj.model.game.GameActor;
+import esi.acgt.atlj.model.game.ManagedGame;
+import esi.acgt.atlj.model.game.VirtualTickScheduler;
+import esi.acgt.atlj.model.tetrimino.PieceState;
+import esi.acgt.atlj.server.utils.BagGenerator;
+
+/**
+ * Bot playing a headless game on the calling thread. The game runs on a direct actor and a virtual
+ * clock that is never advanced, so only the bot moves the pieces and a game only depends on its
+ * seed and on the evaluator of the bot.
+ */
+final class BotPlayer {
+
+  private final ManagedGame game;
+  private final Bot bot;
+  private boolean playing = true;
+
+  /**
+   * Creates a player and starts its game.
+   *
+   * @param name      Username of the player.
+   * @param seed      Seed of the pieces of the game.
+   * @param evaluator Evaluator of the bot.
+   */
+  BotPlayer(String name, long seed, Evaluator evaluator) {
+    BagGenerator bag = new BagGenerator(seed);
+    this.game = new ManagedGame(name, new VirtualTickScheduler(), GameActor.direct());
+    game.connectAskNewMino(() -> game.setNextMino(bag.next()));
+    game.setActualPiece(PieceState.spawn(bag.next()));
+    game.setNextMino(bag.next());
+    game.start();
+    this.bot = new Bot(game, evaluator, null);
+  }
+
+  /**
+   * Plays the current piece.
+   *
+   * @return True if a piece has been played, false once the game is lost.
+   */
+  boolean step() {
+    playing = playing && bot.play();
+    return playing;
+  }
+
+  /**
+   * Plays pieces until the game is lost or a number of pieces have been played.
+   *
+   * @param maxPieces Maximum number of pieces to play.
+   * @return Final score of the game.
+   */
+  int playAll(int maxPieces) {
+    int played = 0;
+    while (played < maxPieces && step()) {
+      played++;
+    }
+    return getScore();
+  }
+
+  boolean isPlaying() {
+    return playing;
+  }
+
+  int getScore() {
+    return game.getScore();
+  }
+}
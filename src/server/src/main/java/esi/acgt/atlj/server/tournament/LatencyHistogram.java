@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.tournament;
+
+/**
+ * Histogram of latencies with a bounded relative error. Every power of two is split in sixteen
+ * buckets, so a percentile is known within about six percent whatever its magnitude, and recording
+ * a latency is a few shifts and an increment. A histogram is written by a single thread, the
+ * histograms of several threads being merged once they are done.
+ */
+final class LatencyHistogram {
+
+  /**
+   * Number of bits of the sub-buckets of a power of two.
+   */
+  private static final int SUB_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  private final long[] counts = new long[Long.SIZE << SUB_BITS];
+  private long count;
+  private long max;
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos Latency in nanoseconds.
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts[index(value)]++;
+    count++;
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Adds the latencies of another histogram to this one.
+   *
+   * @param other Histogram to add.
+   */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; ++i) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    max = Math.max(max, other.max);
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  long getMax() {
+    return max;
+  }
+
+  /**
+   * Gets a percentile of the latencies.
+   *
+   * @param percentile Percentile, between 0 and 100.
+   * @return Upper bound of the bucket holding the percentile in nanoseconds, 0 if nothing has been
+   *     recorded.
+   */
+  long percentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) << SUB_BITS | sub;
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index >>> SUB_BITS) - 1;
+    long sub = index & (SUB_BUCKETS - 1);
+    return ((SUB_BUCKETS | sub) << shift) + (1L << shift) - 1;
+  }
+}
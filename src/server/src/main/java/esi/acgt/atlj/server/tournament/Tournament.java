@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.tournament;
+
+import esi.acgt.atlj.model.ai.Evaluator;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless tournament between bots. The games are shared between worker threads, each worker
+ * playing whole games on its own thread with a direct actor and a virtual clock, so a game never
+ * waits for another thread. The workers only share the counter of the next game to play and keep
+ * their own statistics, merged once they have finished, so the throughput grows with the number of
+ * cores.
+ *
+ * <p>Each game has its own seed, derived from the seed of the tournament, so a tournament always
+ * plays the same games whatever the number of workers. In versus, both bots of a game get the same
+ * pieces, so only their evaluators decide who wins.
+ */
+public class Tournament {
+
+  /**
+   * Kind of the games of a tournament.
+   */
+  public enum Mode {
+    /**
+     * A bot plays alone.
+     */
+    SOLO,
+    /**
+     * A bot plays the same pieces as a challenger with other weights, side by side. The one that
+     * tops out last wins, or the one with the higher score if both reach the end.
+     */
+    VERSUS
+  }
+
+  private static final int WIN = 0;
+  private static final int LOSS = 1;
+  private static final int DRAW = 2;
+
+  private final int games;
+  private final int workers;
+  private final long seed;
+  private final Mode mode;
+  private final int maxPieces;
+  private final Evaluator evaluator;
+  private final Evaluator challenger;
+
+  /**
+   * Creates a tournament of solo games.
+   *
+   * @param games     Number of games to play.
+   * @param workers   Number of worker threads.
+   * @param seed      Seed of the tournament.
+   * @param maxPieces Number of pieces after which a game ends if the bot has not lost.
+   * @param evaluator Evaluator of the bot.
+   */
+  public Tournament(int games, int workers, long seed, int maxPieces, Evaluator evaluator) {
+    this(games, workers, seed, Mode.SOLO, maxPieces, evaluator, null);
+  }
+
+  /**
+   * Creates a tournament.
+   *
+   * @param games      Number of games to play.
+   * @param workers    Number of worker threads.
+   * @param seed       Seed of the tournament.
+   * @param mode       Kind of the games.
+   * @param maxPieces  Number of pieces after which a game ends if no player has lost.
+   * @param evaluator  Evaluator of the bot.
+   * @param challenger Evaluator of the opponent of the bot in versus, ignored in solo.
+   */
+  public Tournament(int games, int workers, long seed, Mode mode, int maxPieces,
+      Evaluator evaluator, Evaluator challenger) {
+    if (games < 0 || workers < 1 || maxPieces < 1) {
+      throw new IllegalArgumentException("A tournament needs workers and pieces to play");
+    }
+    if (mode == Mode.VERSUS && challenger == null) {
+      throw new IllegalArgumentException("A versus tournament needs a challenger");
+    }
+    this.games = games;
+    this.workers = workers;
+    this.seed = seed;
+    this.mode = mode;
+    this.maxPieces = maxPieces;
+    this.evaluator = evaluator;
+    this.challenger = challenger;
+  }
+
+  /**
+   * Plays every game of the tournament and waits for the end of the last one.
+   *
+   * @return Results of the tournament.
+   * @throws InterruptedException If the calling thread is interrupted while waiting.
+   */
+  public TournamentReport run() throws InterruptedException {
+    AtomicInteger nextGame = new AtomicInteger();
+    Worker[] running = new Worker[workers];
+    long start = System.nanoTime();
+    for (int i = 0; i < workers; ++i) {
+      running[i] = new Worker(nextGame);
+      running[i].setName("tournament-" + i);
+      running[i].start();
+    }
+
+    LatencyHistogram latencies = new LatencyHistogram();
+    long played = 0;
+    long pieces = 0;
+    long players = 0;
+    long score = 0;
+    long[] outcomes = new long[3];
+    for (Worker worker : running) {
+      worker.join();
+      latencies.add(worker.latencies);
+      played += worker.games;
+      pieces += worker.pieces;
+      players += worker.players;
+      score += worker.score;
+      for (int i = 0; i < outcomes.length; ++i) {
+        outcomes[i] += worker.outcomes[i];
+      }
+    }
+    return new TournamentReport(played, pieces, players, score, outcomes[WIN], outcomes[LOSS],
+        outcomes[DRAW], System.nanoTime() - start, latencies);
+  }
+
+  /**
+   * Derives the seed of a game from the seed of the tournament.
+   *
+   * @param game Index of the game.
+   * @return Seed of the game.
+   */
+  long seedOf(int game) {
+    return mix(seed + (game + 1) * 0x9E3779B97F4A7C15L);
+  }
+
+  /**
+   * Scrambles the bits of a value, so close values give unrelated seeds.
+   *
+   * @param value Value to scramble.
+   * @return Scrambled value.
+   */
+  static long mix(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Runs a tournament from the command line.
+   *
+   * @param args Number of games, number of workers, seed, mode (solo or versus) and maximum number
+   *             of pieces per game, all optional, then in versus the four weights of the
+   *             challenger (height, lines, holes and bumpiness) facing the default weights.
+   * @throws InterruptedException If interrupted while waiting for the games.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int workers = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+    Mode mode = args.length > 3 ? Mode.valueOf(args[3].toUpperCase(Locale.ROOT)) : Mode.SOLO;
+    int maxPieces = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+    Evaluator challenger = null;
+    if (mode == Mode.VERSUS) {
+      if (args.length < 9) {
+        System.err.println("A versus tournament needs the four weights of the challenger");
+        return;
+      }
+      challenger = new Evaluator(Double.parseDouble(args[5]), Double.parseDouble(args[6]),
+          Double.parseDouble(args[7]), Double.parseDouble(args[8]));
+    }
+
+    Tournament tournament = new Tournament(games, workers, seed, mode, maxPieces,
+        Evaluator.DEFAULT, challenger);
+    System.out.println(tournament.run());
+  }
+
+  /**
+   * Thread playing games until every game of the tournament has been taken.
+   */
+  private final class Worker extends Thread {
+
+    private final AtomicInteger nextGame;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long games;
+    private long pieces;
+    private long players;
+    private long score;
+
+    /**
+     * Wins, losses and draws of the bot against the challenger.
+     */
+    private final long[] outcomes = new long[3];
+
+    Worker(AtomicInteger nextGame) {
+      this.nextGame = nextGame;
+    }
+
+    @Override
+    public void run() {
+      int game;
+      while ((game = nextGame.getAndIncrement()) < Tournament.this.games) {
+        long gameSeed = seedOf(game);
+        BotPlayer[] players = mode == Mode.SOLO
+            ? new BotPlayer[]{new BotPlayer("bot", gameSeed, evaluator)}
+            : new BotPlayer[]{new BotPlayer("bot", gameSeed, evaluator),
+                new BotPlayer("challenger", gameSeed, challenger)};
+        play(players);
+        games++;
+      }
+    }
+
+    /**
+     * Plays a game, the players taking turns until they have all lost or played every piece. In
+     * versus, the outcome for the first player is counted.
+     */
+    private void play(BotPlayer[] game) {
+      int[] lostAt = new int[game.length];
+      Arrays.fill(lostAt, Integer.MAX_VALUE);
+      boolean playing = true;
+      for (int piece = 0; piece < maxPieces && playing; ++piece) {
+        playing = false;
+        for (int i = 0; i < game.length; ++i) {
+          if (game[i].isPlaying()) {
+            long start = System.nanoTime();
+            boolean played = game[i].step();
+            latencies.record(System.nanoTime() - start);
+            pieces += played ? 1 : 0;
+            playing |= played;
+            if (!played) {
+              lostAt[i] = piece;
+            }
+          }
+        }
+      }
+      for (BotPlayer player : game) {
+        players++;
+        score += player.getScore();
+      }
+      if (game.length == 2) {
+        int outcome = Integer.compare(lostAt[0], lostAt[1]);
+        if (outcome == 0) {
+          outcome = Integer.compare(game[0].getScore(), game[1].getScore());
+        }
+        outcomes[outcome > 0 ? WIN : outcome < 0 ? LOSS : DRAW]++;
+      }
+    }
+  }
+}
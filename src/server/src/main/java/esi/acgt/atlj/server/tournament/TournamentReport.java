@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.tournament;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of a tournament: its throughput, the mean score of the players, the outcomes of the
+ * versus games and the latencies of the decisions of the bots.
+ */
+public class TournamentReport {
+
+  private final long games;
+  private final long pieces;
+  private final long players;
+  private final long totalScore;
+  private final long wins;
+  private final long losses;
+  private final long draws;
+  private final long elapsedNanos;
+  private final LatencyHistogram latencies;
+
+  TournamentReport(long games, long pieces, long players, long totalScore, long wins, long losses,
+      long draws, long elapsedNanos, LatencyHistogram latencies) {
+    this.games = games;
+    this.pieces = pieces;
+    this.players = players;
+    this.totalScore = totalScore;
+    this.wins = wins;
+    this.losses = losses;
+    this.draws = draws;
+    this.elapsedNanos = elapsedNanos;
+    this.latencies = latencies;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getPieces() {
+    return pieces;
+  }
+
+  /**
+   * Gets the number of games played per second.
+   *
+   * @return Games per second of wall clock time.
+   */
+  public double getGamesPerSecond() {
+    return games / seconds();
+  }
+
+  /**
+   * Gets the number of pieces played per second, by all the players.
+   *
+   * @return Pieces per second of wall clock time.
+   */
+  public double getPiecesPerSecond() {
+    return pieces / seconds();
+  }
+
+  /**
+   * Gets the mean final score of a player.
+   *
+   * @return Mean score, 0 if no game has been played.
+   */
+  public double getMeanScore() {
+    return players == 0 ? 0 : (double) totalScore / players;
+  }
+
+  /**
+   * Gets the number of versus games won by the bot against the challenger.
+   *
+   * @return Wins of the bot, 0 in solo.
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Gets the number of versus games won by the challenger.
+   *
+   * @return Losses of the bot, 0 in solo.
+   */
+  public long getLosses() {
+    return losses;
+  }
+
+  /**
+   * Gets the number of versus games that neither player has won.
+   *
+   * @return Draws, 0 in solo.
+   */
+  public long getDraws() {
+    return draws;
+  }
+
+  /**
+   * Gets a percentile of the duration of a decision of a bot.
+   *
+   * @param percentile Percentile, between 0 and 100.
+   * @return Duration in nanoseconds.
+   */
+  public long getDecisionLatency(double percentile) {
+    return latencies.percentile(percentile);
+  }
+
+  private double seconds() {
+    return Math.max(1, elapsedNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    String versus = wins + losses + draws == 0 ? ""
+        : String.format("bot vs challenger: %d wins, %d losses, %d draws%n", wins, losses, draws);
+    return String.format("games: %d in %.2f s (%.1f games/s)%n"
+            + "pieces: %d (%.0f pieces/s)%n"
+            + "mean score: %.1f%n"
+            + "%s"
+            + "decision latency (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+        games, seconds(), getGamesPerSecond(), pieces, getPiecesPerSecond(), getMeanScore(),
+        versus, micros(latencies.percentile(50)), micros(latencies.percentile(90)),
+        micros(latencies.percentile(99)), micros(latencies.percentile(99.9)),
+        micros(latencies.getMax()));
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1000.0;
+  }
+}
@@ -0,0 +1,392 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.tournament;
+
+import esi.acgt.atlj.model.ai.Evaluator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Genetic tuner of the weights of the {@link Evaluator} of the bots. Each generation, every
+ * candidate plays the same seeded games and its fitness is its mean score. The best candidates are
+ * kept, the others are replaced by children of the best ones, crossed by fitness and mutated.
+ *
+ * <p>The games of a generation are played in parallel on a work stealing pool, one task per game
+ * of a candidate. Each task writes its score in its own slot and the scores are summed in order
+ * once all the games are over, so the fitness does not depend on the scheduling and a run is
+ * reproducible from its seed. After each generation the population is written to a checkpoint,
+ * from which a run with the same seed, number of games and number of pieces resumes.
+ */
+public class WeightTuner {
+
+  /**
+   * Number of weights of an evaluator.
+   */
+  static final int WEIGHTS = 4;
+
+  /**
+   * Share of the population kept from one generation to the next.
+   */
+  private static final double ELITE_SHARE = 0.3;
+
+  /**
+   * Share of the population competing to be a parent.
+   */
+  private static final double TOURNAMENT_SHARE = 0.1;
+
+  /**
+   * Probability that a child is mutated, and amplitude of a mutation.
+   */
+  private static final double MUTATION_RATE = 0.05;
+  private static final double MUTATION_STEP = 0.2;
+
+  private final int populationSize;
+  private final int gamesPerCandidate;
+  private final int maxPieces;
+  private final long seed;
+  private final ForkJoinPool pool;
+  private final Path checkpoint;
+
+  /**
+   * Weights of each candidate, normalized.
+   */
+  private double[][] population;
+
+  /**
+   * Fitness of each candidate, sorted from the best with the population.
+   */
+  private double[] fitness;
+
+  /**
+   * Number of generations evaluated.
+   */
+  private int generation;
+
+  /**
+   * Creates a tuner, resuming from its checkpoint if it exists.
+   *
+   * @param populationSize    Number of candidates of a generation.
+   * @param gamesPerCandidate Number of games played by each candidate per generation.
+   * @param maxPieces         Number of pieces after which a game ends.
+   * @param seed              Seed of the run.
+   * @param pool              Pool playing the games.
+   * @param checkpoint        File the generations are written to, null to not write them.
+   * @throws IOException If the checkpoint cannot be read.
+   */
+  public WeightTuner(int populationSize, int gamesPerCandidate, int maxPieces, long seed,
+      ForkJoinPool pool, Path checkpoint) throws IOException {
+    if (populationSize < 2 || gamesPerCandidate < 1 || maxPieces < 1) {
+      throw new IllegalArgumentException("The tuner needs candidates, games and pieces");
+    }
+    this.populationSize = populationSize;
+    this.gamesPerCandidate = gamesPerCandidate;
+    this.maxPieces = maxPieces;
+    this.seed = seed;
+    this.pool = pool;
+    this.checkpoint = checkpoint;
+    if (checkpoint != null && Files.exists(checkpoint)) {
+      load();
+    } else {
+      SplittableRandom random = new SplittableRandom(seed);
+      population = new double[populationSize][];
+      for (int i = 0; i < populationSize; ++i) {
+        population[i] = randomWeights(random);
+      }
+      fitness = new double[populationSize];
+    }
+  }
+
+  /**
+   * Evolves the population for a number of generations, writing a checkpoint after each of them.
+   *
+   * @param generations Number of generations to evaluate.
+   * @throws IOException If a checkpoint cannot be written.
+   */
+  public void run(int generations) throws IOException {
+    for (int i = 0; i < generations; ++i) {
+      if (generation > 0) {
+        breed();
+      }
+      evaluate();
+      generation++;
+      if (checkpoint != null) {
+        save();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of generations evaluated, including the ones of a resumed run.
+   *
+   * @return Number of generations.
+   */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Gets the best evaluator of the last generation.
+   *
+   * @return Best evaluator.
+   */
+  public Evaluator getBest() {
+    return toEvaluator(population[0]);
+  }
+
+  /**
+   * Gets the fitness of the best evaluator of the last generation.
+   *
+   * @return Mean score of the best evaluator.
+   */
+  public double getBestFitness() {
+    return fitness[0];
+  }
+
+  /**
+   * Plays the games of every candidate and sorts the population by fitness.
+   */
+  private void evaluate() {
+    double[] scores = new double[populationSize * gamesPerCandidate];
+    pool.invoke(new Games(scores, 0, scores.length));
+
+    double[] totals = new double[populationSize];
+    for (int i = 0; i < scores.length; ++i) {
+      totals[i / gamesPerCandidate] += scores[i];
+    }
+    Integer[] order = new Integer[populationSize];
+    for (int i = 0; i < populationSize; ++i) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(totals[b], totals[a]));
+
+    double[][] sorted = new double[populationSize][];
+    for (int i = 0; i < populationSize; ++i) {
+      sorted[i] = population[order[i]];
+      fitness[i] = totals[order[i]] / gamesPerCandidate;
+    }
+    population = sorted;
+  }
+
+  /**
+   * Replaces the candidates outside of the elite by children of the whole population.
+   */
+  private void breed() {
+    SplittableRandom random = new SplittableRandom(Tournament.mix(seed ^ generation));
+    int elite = Math.max(1, (int) (populationSize * ELITE_SHARE));
+    int contenders = Math.max(2, (int) (populationSize * TOURNAMENT_SHARE));
+    double[][] next = Arrays.copyOf(population, populationSize);
+    for (int i = elite; i < populationSize; ++i) {
+      int first = select(random, contenders);
+      int second = select(random, contenders);
+      double[] child = new double[WEIGHTS];
+      double total = fitness[first] + fitness[second];
+      double share = total > 0 ? fitness[first] / total : 0.5;
+      for (int w = 0; w < WEIGHTS; ++w) {
+        child[w] = share * population[first][w] + (1 - share) * population[second][w];
+      }
+      if (random.nextDouble() < MUTATION_RATE) {
+        child[random.nextInt(WEIGHTS)] += random.nextDouble(-MUTATION_STEP, MUTATION_STEP);
+      }
+      next[i] = normalize(child);
+    }
+    population = next;
+  }
+
+  /**
+   * Picks the best of a few random candidates, the population being sorted from the best.
+   */
+  private int select(SplittableRandom random, int contenders) {
+    int best = populationSize;
+    for (int i = 0; i < contenders; ++i) {
+      best = Math.min(best, random.nextInt(populationSize));
+    }
+    return best;
+  }
+
+  /**
+   * Derives the seed of a game of the current generation, shared by every candidate.
+   */
+  private long seedOf(int game) {
+    return Tournament.mix(Tournament.mix(seed + generation) + game);
+  }
+
+  private static double[] randomWeights(SplittableRandom random) {
+    double[] weights = new double[WEIGHTS];
+    for (int w = 0; w < WEIGHTS; ++w) {
+      weights[w] = random.nextDouble(-1, 1);
+    }
+    return normalize(weights);
+  }
+
+  private static double[] normalize(double[] weights) {
+    double norm = 0;
+    for (double weight : weights) {
+      norm += weight * weight;
+    }
+    norm = Math.sqrt(norm);
+    if (norm > 0) {
+      for (int w = 0; w < WEIGHTS; ++w) {
+        weights[w] /= norm;
+      }
+    }
+    return weights;
+  }
+
+  private static Evaluator toEvaluator(double[] weights) {
+    return new Evaluator(weights[0], weights[1], weights[2], weights[3]);
+  }
+
+  /**
+   * Describes the games played by the candidates, in the header of the checkpoint.
+   *
+   * @return Seed, games per candidate and pieces per game of the run.
+   */
+  private String settings() {
+    return "seed " + seed + " games " + gamesPerCandidate + " pieces " + maxPieces;
+  }
+
+  /**
+   * Writes the population to a temporary file then moves it over the checkpoint, so an interrupted
+   * write never leaves a truncated checkpoint.
+   */
+  private void save() throws IOException {
+    Path directory = checkpoint.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, "tuner", ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      writer.write("generation " + generation + " " + settings());
+      writer.newLine();
+      for (int i = 0; i < populationSize; ++i) {
+        StringBuilder line = new StringBuilder();
+        for (double weight : population[i]) {
+          line.append(weight).append(' ');
+        }
+        writer.write(line.append(fitness[i]).toString());
+        writer.newLine();
+      }
+    }
+    Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the population of a checkpoint, which must have been written by a run playing the same
+   * games, the fitness of its candidates being meaningless otherwise.
+   */
+  private void load() throws IOException {
+    List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+    if (lines.size() != populationSize + 1 || !lines.get(0).startsWith("generation ")) {
+      throw new IOException("The checkpoint does not hold a population of " + populationSize);
+    }
+    String[] header = lines.get(0).split(" ", 3);
+    if (header.length != 3 || !header[2].equals(settings())) {
+      throw new IOException("The checkpoint was not written with " + settings() + ": "
+          + lines.get(0));
+    }
+    generation = Integer.parseInt(header[1]);
+    population = new double[populationSize][WEIGHTS];
+    fitness = new double[populationSize];
+    for (int i = 0; i < populationSize; ++i) {
+      String[] values = lines.get(i + 1).trim().split(" ");
+      if (values.length != WEIGHTS + 1) {
+        throw new IOException("Malformed candidate at line " + (i + 2));
+      }
+      for (int w = 0; w < WEIGHTS; ++w) {
+        population[i][w] = Double.parseDouble(values[w]);
+      }
+      fitness[i] = Double.parseDouble(values[WEIGHTS]);
+    }
+  }
+
+  /**
+   * Tunes the weights from the command line, printing the best candidate of each generation.
+   *
+   * @param args Checkpoint file, number of generations, population size, games per candidate,
+   *             maximum number of pieces per game and seed, all but the checkpoint optional.
+   * @throws IOException If the checkpoint cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: WeightTuner checkpoint [generations] [population] [games]"
+          + " [pieces] [seed]");
+      return;
+    }
+    Path checkpoint = Paths.get(args[0]);
+    int generations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int population = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+    int games = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+    int pieces = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+    long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+    WeightTuner tuner = new WeightTuner(population, games, pieces, seed, ForkJoinPool.commonPool(),
+        checkpoint);
+    for (int i = 0; i < generations; ++i) {
+      tuner.run(1);
+      Evaluator best = tuner.getBest();
+      System.out.printf("generation %d: %.1f (height %.4f, lines %.4f, holes %.4f,"
+              + " bumpiness %.4f)%n", tuner.getGeneration(), tuner.getBestFitness(),
+          best.getHeight(), best.getLines(), best.getHoles(), best.getBumpiness());
+    }
+  }
+
+  /**
+   * Plays a range of the games of a generation, splitting the range between the workers of the
+   * pool. The game {@code i} is the game {@code i % gamesPerCandidate} of the candidate
+   * {@code i / gamesPerCandidate}.
+   */
+  private final class Games extends RecursiveAction {
+
+    private final double[] scores;
+    private final int from;
+    private final int to;
+
+    Games(double[] scores, int from, int to) {
+      this.scores = scores;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        Evaluator evaluator = toEvaluator(population[from / gamesPerCandidate]);
+        BotPlayer player = new BotPlayer("tuner", seedOf(from % gamesPerCandidate), evaluator);
+        scores[from] = player.playAll(maxPieces);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Games(scores, from, middle), new Games(scores, middle, to));
+      }
+    }
+  }
+}
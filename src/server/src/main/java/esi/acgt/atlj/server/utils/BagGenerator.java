@@ -28,7 +28,8 @@ import esi.acgt.atlj.model.tetrimino.Mino;
 import java.util.Random;
 
 /**
- * Class that takes care of every pair of players in the server.
+ * Generates the pieces of a game in bags of seven shuffled minos. Generators created with the same
+ * seed produce the same pieces, so a game can be replayed.
  */
 public class BagGenerator {
 
@@ -37,11 +38,50 @@ public class BagGenerator {
    */
   private final Mino[] firstBag;
 
+  /**
+   * Source of the shuffles.
+   */
+  private final Random random;
+
+  /**
+   * Bag the pieces are drawn from by {@link #next()}.
+   */
+  private Mino[] bag;
+
+  /**
+   * Index of the next piece to draw in the bag.
+   */
+  private int index;
+
   /**
    * Constructor for server model.
    */
   public BagGenerator() {  //TODO get pair of players
+    this(System.nanoTime());
+  }
+
+  /**
+   * Creates a generator whose bags only depend on a seed.
+   *
+   * @param seed Seed of the shuffles.
+   */
+  public BagGenerator(long seed) {
+    this.random = new Random(seed);
     this.firstBag = regenBag();
+    this.bag = firstBag;
+  }
+
+  /**
+   * Draws the next piece, shuffling a new bag when the current one is empty.
+   *
+   * @return Next mino.
+   */
+  public Mino next() {
+    if (index == bag.length) {
+      bag = regenBag();
+      index = 0;
+    }
+    return bag[index++];
   }
 
   /**
@@ -55,18 +95,18 @@ public class BagGenerator {
         Mino.S_MINO, Mino.Z_MINO, Mino.O_MINO, Mino.J_MINO, Mino.T_MINO,
         Mino.I_MINO, Mino.L_MINO
     };
-    shuffleTetriminos(bag);
+    shuffleTetriminos(bag, random);
     return bag;
   }
 
   /**
    * Shuffles an array with the Fisher-Yates algorithm.
    *
-   * @param array Shuffled array.
+   * @param array  Shuffled array.
+   * @param random Source of the shuffle.
    */
-  private static void shuffleTetriminos(Mino[] array) {
+  private static void shuffleTetriminos(Mino[] array, Random random) {
     int n = array.length;
-    Random random = new Random(System.currentTimeMillis());
     for (int i = 0; i < array.length; i++) {
       int randomValue = i + random.nextInt(n - i);
       Mino randomElement = array[randomValue];
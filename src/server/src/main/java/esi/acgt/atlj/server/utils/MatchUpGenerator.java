@@ -32,7 +32,7 @@ import esi.acgt.atlj.message.messageTypes.SendBoard;
 import esi.acgt.atlj.message.messageTypes.SendPiece;
 import esi.acgt.atlj.message.messageTypes.UpdatePieceUnmanagedBoard;
 import esi.acgt.atlj.model.tetrimino.Mino;
-import esi.acgt.atlj.server.CustomClientThread;
+import esi.acgt.atlj.server.ClientConnection;
 import esi.acgt.atlj.server.model.ServerModel;
 import java.util.ArrayList;
 import java.util.List;
@@ -43,7 +43,7 @@ import java.util.function.Consumer;
 /**
  * Starts and manages a match-up between two clients.
  */
-public class MatchUpGenerator extends Thread {
+public class MatchUpGenerator implements Runnable {
 
   /**
    * Game server side
@@ -62,37 +62,42 @@ public class MatchUpGenerator extends Thread {
   /**
    * List of clients.
    */
-  List<CustomClientThread> clients;
+  List<ClientConnection> clients;
 
   /**
    * List of spectators
    */
-  List<CustomClientThread> spectators;
+  List<ClientConnection> spectators;
 
   /**
    * Unique id of generated match-up.
    */
   int id;
 
+  /**
+   * Thread running the match-up.
+   */
+  private volatile Thread thread;
+
   /**
    * Constructor for match-up generator. Assigns its current id to both clients and launches the
    * game in a new thread.
    *
    * @param clients Client that are going head to head in match-up.
    */
-  public MatchUpGenerator(List<CustomClientThread> clients, int idGeneratedMatchUp) {
+  public MatchUpGenerator(List<ClientConnection> clients, int idGeneratedMatchUp) {
     this.clients = clients;
     this.spectators = new ArrayList<>();
     this.model = new ServerModel(clients);
     this.bagGenerator = new BagGenerator();
     this.id = idGeneratedMatchUp;
-    for (CustomClientThread client : clients) {
+    for (ClientConnection client : clients) {
       client.connectRefillBag(this.refillBag);
       client.connectHandleMessage(this.handleMessage);
       client.connectDisconnect(this.disconnect);
       client.connectCheckNameDB(this.checkNameDb);
     }
-    this.start();
+    this.thread = Threads.start("match-up-" + idGeneratedMatchUp, this);
   }
 
   /**
@@ -100,18 +105,18 @@ public class MatchUpGenerator extends Thread {
    */
   Runnable refillBag = this::refillBags;
 
-  Consumer<CustomClientThread> checkNameDb = (CustomClientThread client) ->
+  Consumer<ClientConnection> checkNameDb = (ClientConnection client) ->
       model.checkNameInDB(client.getNameOfClient());
 
   /**
    * Handles disconnection of player from match-up. If both players have disconnected, kills
    * thread.
    */
-  Consumer<CustomClientThread> disconnect = (CustomClientThread clientThread) -> {
+  Consumer<ClientConnection> disconnect = (ClientConnection clientThread) -> {
     //TODO check why bag stops generating when a players disconnects
     int notPlaying = 0;
     getOpposingClient(clientThread).sendMessage(new PlayerState(PlayerStatus.DISCONNECTED));
-    for (CustomClientThread customClientThread : clients) {
+    for (ClientConnection customClientThread : clients) {
       if (!(customClientThread.isConnected())) {
         notPlaying++;
       }
@@ -119,12 +124,11 @@ public class MatchUpGenerator extends Thread {
     if (notPlaying == 2) {
       System.out.println("Match-up " + this.id + " has ended");
       decrementMatchUpId.run();
-      this.interrupt();
-      this.stop();
+      thread.interrupt();
     }
   };
 
-  public synchronized void addSpectator(CustomClientThread client) {
+  public synchronized void addSpectator(ClientConnection client) {
     this.spectators.add(client);
     //client.sendMessage(new SendBoard(model.receiveBoard(client), client.getNameOfClient());
     //todo sent current status of the whole game.
@@ -143,13 +147,13 @@ public class MatchUpGenerator extends Thread {
   /**
    * Lambda expression to handle message from client.
    */
-  BiConsumer<Message, CustomClientThread> handleMessage = (Message m, CustomClientThread client) ->
+  BiConsumer<Message, ClientConnection> handleMessage = (Message m, ClientConnection client) ->
   {
 
     if (client.getClientStatus().equals(PlayerStatus.READY)) {
       sendMessageToModel(m, client);
       //sendMessageToSpectator(m, client);
-      CustomClientThread opPlayer = getOpposingClient(client);
+      ClientConnection opPlayer = getOpposingClient(client);
       if (opPlayer != null) {
         if (m instanceof AskPiece) {
           Mino mino = client.getMino();
@@ -170,11 +174,11 @@ public class MatchUpGenerator extends Thread {
    * @param m Message that needs to be sent.
    * @param c Client that sent the message.
    */
-  public void sendMessageToModel(Message m, CustomClientThread c) {
+  public void sendMessageToModel(Message m, ClientConnection c) {
     model.receiveMessage(m, c);
   }
 
-  public void sendMessageToSpectator(Message m, CustomClientThread c) {
+  public void sendMessageToSpectator(Message m, ClientConnection c) {
     c.sendMessage(m); //todo specific spectator message with name of player sending it.
   }
 
@@ -184,7 +188,7 @@ public class MatchUpGenerator extends Thread {
    * @param client Client to get adversary of.
    * @return Opposing client of given client.
    */
-  private CustomClientThread getOpposingClient(CustomClientThread client) {
+  private ClientConnection getOpposingClient(ClientConnection client) {
     return clients.get(0).equals(client) ? clients.get(1) : clients.get(0);
   }
 
@@ -193,7 +197,7 @@ public class MatchUpGenerator extends Thread {
    */
   synchronized void refillBags() {
     Mino[] bag = bagGenerator.regenBag();
-    for (CustomClientThread client : clients) {
+    for (ClientConnection client : clients) {
       for (Mino m : bag) {
         client.addMino(m);
       }
@@ -207,7 +211,7 @@ public class MatchUpGenerator extends Thread {
    * @param playerState PlayerState to update to.
    */
   public void updateAllPlayerState(PlayerStatus playerState) {
-    for (CustomClientThread client : clients) {
+    for (ClientConnection client : clients) {
       client.setClientStatus(playerState);
     }
   }
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package esi.acgt.atlj.server.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the threads of the server: the blocking read loops of the clients and the match-ups. They
+ * are platform threads by default, or virtual threads once {@link #useVirtual(boolean)} has been
+ * enabled, so that an idle client costs a small heap-allocated stack instead of a full thread
+ * stack.
+ *
+ * <p>The server is built for Java 17, so virtual threads are looked up reflectively and are only
+ * used when the running JDK supports them (21 or newer, or 19 and 20 with preview features).
+ */
+public final class Threads {
+
+  /**
+   * {@code Thread.ofVirtual()}, null if the JDK cannot create virtual threads.
+   */
+  private static final Method OF_VIRTUAL;
+
+  /**
+   * {@code Thread.Builder.name(String)}.
+   */
+  private static final Method NAME;
+
+  /**
+   * {@code Thread.Builder.unstarted(Runnable)}.
+   */
+  private static final Method UNSTARTED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method unstarted = null;
+    try {
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      name = builder.getMethod("name", String.class);
+      unstarted = builder.getMethod("unstarted", Runnable.class);
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Before Java 19, or preview features disabled.
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    UNSTARTED = unstarted;
+  }
+
+  /**
+   * Platform threads running the short tasks, kept a minute once idle.
+   */
+  private static final ExecutorService POOL =
+      Executors.newCachedThreadPool(new PoolThreadFactory());
+
+  /**
+   * Tells if the threads started from now on are virtual.
+   */
+  private static volatile boolean virtual;
+
+  private Threads() {
+  }
+
+  /**
+   * Tells if the running JDK can create virtual threads.
+   *
+   * @return True if virtual threads are supported.
+   */
+  public static boolean isVirtualSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Chooses between virtual and platform threads for the threads started from now on. Platform
+   * threads are kept if the JDK does not support virtual threads.
+   *
+   * @param enabled True to start virtual threads.
+   * @return True if the threads started from now on are virtual.
+   */
+  public static boolean useVirtual(boolean enabled) {
+    virtual = enabled && isVirtualSupported();
+    return virtual;
+  }
+
+  /**
+   * Tells if the threads started from now on are virtual.
+   *
+   * @return True if virtual threads are started.
+   */
+  public static boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Starts a thread running a task.
+   *
+   * @param name Name of the thread.
+   * @param task Task run by the thread.
+   * @return Started thread.
+   */
+  public static Thread start(String name, Runnable task) {
+    Thread thread = virtual ? newVirtual(name, task) : new Thread(task, name);
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * Runs a short task, such as writing the pending messages of a client, on a thread of its own: a
+   * new virtual thread, or a pooled platform thread.
+   *
+   * @param name Name of the thread, if virtual.
+   * @param task Task to run.
+   */
+  public static void execute(String name, Runnable task) {
+    if (virtual) {
+      start(name, task);
+    } else {
+      POOL.execute(task);
+    }
+  }
+
+  /**
+   * Creates an unstarted virtual thread.
+   *
+   * @param name Name of the thread.
+   * @param task Task run by the thread.
+   * @return Unstarted virtual thread.
+   */
+  private static Thread newVirtual(String name, Runnable task) {
+    try {
+      Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+      return (Thread) UNSTARTED.invoke(builder, task);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Cannot create a virtual thread", e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Cannot create a virtual thread", e.getCause());
+    }
+  }
+
+  /**
+   * Creates the daemon threads of the pool.
+   */
+  private static final class PoolThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "pooled-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
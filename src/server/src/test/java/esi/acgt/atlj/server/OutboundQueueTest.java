@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Andrew SASSOYE, Constantin GUNDUZ, Gregory VAN DER PLUIJM, Thomas LEUTSCHER
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package esi.acgt.atlj.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import esi.acgt.atlj.message.Message;
+import esi.acgt.atlj.message.messageTypes.AddTetrimino;
+import esi.acgt.atlj.message.messageTypes.SendScore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class OutboundQueueTest {
+
+  /**
+   * Congested from 3 queued messages down to 1, full at 5, never evicted for its delay.
+   */
+  private static final OutboundLimits LIMITS = new OutboundLimits(1, 3, 5, 60_000);
+
+  private final OutboundMetrics metrics = new OutboundMetrics();
+
+  private OutboundQueue queue(OutboundLimits limits) {
+    return new OutboundQueue(limits, metrics);
+  }
+
+  private static List<Message> pollAll(OutboundQueue queue) {
+    List<Message> messages = new ArrayList<>();
+    Message message;
+    while ((message = queue.poll()) != null) {
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  @Nested
+  class Conflation {
+
+    @Test
+    public void positionReplacesTheLastQueuedPosition() {
+      OutboundQueue queue = queue(LIMITS);
+      Message first = new AddTetrimino(1);
+      Message second = new AddTetrimino(2);
+      assertTrue(queue.offer(first));
+      assertFalse(queue.offer(second));
+
+      assertEquals(1, queue.depth());
+      assertEquals(1, metrics.getConflated());
+      assertEquals(List.of(second), pollAll(queue));
+    }
+
+    @Test
+    public void positionIsNotConflatedBehindAnotherMessage() {
+      OutboundQueue queue = queue(LIMITS);
+      Message first = new AddTetrimino(1);
+      Message score = new SendScore(100);
+      Message second = new AddTetrimino(2);
+      queue.offer(first);
+      queue.offer(score);
+      queue.offer(second);
+
+      assertEquals(3, queue.depth());
+      assertEquals(0, metrics.getConflated());
+      assertEquals(List.of(first, score, second), pollAll(queue));
+    }
+
+    @Test
+    public void otherMessagesAreNeverConflated() {
+      OutboundQueue queue = queue(LIMITS);
+      Message first = new SendScore(1);
+      Message second = new SendScore(2);
+      queue.offer(first);
+      queue.offer(second);
+
+      assertEquals(0, metrics.getConflated());
+      assertEquals(List.of(first, second), pollAll(queue));
+    }
+
+    @Test
+    public void positionTakenByTheDrainIsNotReplaced() {
+      OutboundQueue queue = queue(LIMITS);
+      Message first = new AddTetrimino(1);
+      Message second = new AddTetrimino(2);
+      queue.offer(first);
+      assertSame(first, queue.poll());
+      queue.offer(second);
+
+      assertEquals(0, metrics.getConflated());
+      assertEquals(List.of(second), pollAll(queue));
+    }
+  }
+
+  @Nested
+  class Watermarks {
+
+    @Test
+    public void congestedFromTheHighWatermark() {
+      OutboundQueue queue = queue(LIMITS);
+      queue.offer(new SendScore(1));
+      queue.offer(new SendScore(2));
+      assertEquals(0, metrics.getCongested());
+
+      queue.offer(new SendScore(3));
+      assertEquals(1, metrics.getCongested());
+      queue.offer(new SendScore(4));
+      assertEquals(1, metrics.getCongested());
+    }
+
+    @Test
+    public void uncongestedAtTheLowWatermark() {
+      OutboundQueue queue = queue(LIMITS);
+      for (int i = 0; i < 4; ++i) {
+        queue.offer(new SendScore(i));
+      }
+      queue.poll();
+      queue.poll();
+      assertEquals(2, queue.depth());
+      assertEquals(1, metrics.getCongested());
+
+      queue.poll();
+      assertEquals(1, queue.depth());
+      assertEquals(0, metrics.getCongested());
+    }
+
+    @Test
+    public void closeEndsTheCongestion() {
+      OutboundQueue queue = queue(LIMITS);
+      for (int i = 0; i < 3; ++i) {
+        queue.offer(new SendScore(i));
+      }
+      queue.close();
+
+      assertEquals(0, queue.depth());
+      assertEquals(0, metrics.getCongested());
+      assertEquals(0, metrics.getQueued());
+      assertFalse(queue.offer(new SendScore(4)));
+      assertEquals(0, queue.depth());
+    }
+  }
+
+  @Nested
+  class Eviction {
+
+    @Test
+    public void overLimitAtCapacity() {
+      OutboundQueue queue = queue(LIMITS);
+      for (int i = 0; i < 4; ++i) {
+        queue.offer(new SendScore(i));
+      }
+      assertFalse(queue.isOverLimit());
+
+      queue.offer(new SendScore(4));
+      assertTrue(queue.isOverLimit());
+    }
+
+    @Test
+    public void overLimitOnceCongestedForTooLong() throws InterruptedException {
+      OutboundQueue queue = queue(new OutboundLimits(1, 3, 5, 0));
+      queue.offer(new SendScore(1));
+      queue.offer(new SendScore(2));
+      Thread.sleep(1);
+      assertFalse(queue.isOverLimit());
+
+      queue.offer(new SendScore(3));
+      Thread.sleep(1);
+      assertTrue(queue.isOverLimit());
+
+      queue.poll();
+      queue.poll();
+      assertFalse(queue.isOverLimit());
+    }
+
+    @Test
+    public void notOverLimitBeforeTheDelay() {
+      OutboundQueue queue = queue(LIMITS);
+      for (int i = 0; i < 4; ++i) {
+        queue.offer(new SendScore(i));
+      }
+      assertFalse(queue.isOverLimit());
+    }
+  }
+
+  @Nested
+  class Drain {
+
+    @Test
+    public void onlyTheFirstOfferStartsADrain() {
+      OutboundQueue queue = queue(LIMITS);
+      assertTrue(queue.offer(new SendScore(1)));
+      assertFalse(queue.offer(new SendScore(2)));
+      pollAll(queue);
+      assertFalse(queue.finishDrain());
+
+      assertTrue(queue.offer(new SendScore(3)));
+    }
+
+    @Test
+    public void offerBeforeTheEndOfTheDrainMakesItGoOn() {
+      OutboundQueue queue = queue(LIMITS);
+      queue.offer(new SendScore(1));
+      pollAll(queue);
+
+      Message late = new SendScore(2);
+      assertFalse(queue.offer(late));
+      assertTrue(queue.finishDrain());
+      assertEquals(List.of(late), pollAll(queue));
+      assertFalse(queue.finishDrain());
+    }
+
+    @Test
+    public void noMessageIsLeftBehindByConcurrentOffers() throws InterruptedException {
+      OutboundQueue queue = queue(new OutboundLimits(1_000_000, 2_000_000, 2_000_000, 60_000));
+      ExecutorService drains = Executors.newSingleThreadExecutor();
+      AtomicInteger sent = new AtomicInteger();
+      Runnable drain = () -> {
+        do {
+          while (queue.poll() != null) {
+            sent.incrementAndGet();
+          }
+        } while (queue.finishDrain());
+      };
+      int producers = 4;
+      int messages = 20_000;
+
+      List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; ++p) {
+        threads.add(new Thread(() -> {
+          for (int i = 0; i < messages; ++i) {
+            if (queue.offer(new SendScore(i))) {
+              drains.execute(drain);
+            }
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      drains.shutdown();
+      assertTrue(drains.awaitTermination(5, TimeUnit.SECONDS));
+
+      assertEquals(producers * messages, sent.get());
+      assertEquals(0, queue.depth());
+      assertNull(queue.poll());
+    }
+  }
+}